@@ -12,6 +12,72 @@ java {
     }
 }
 
+// Classes that depend on APIs newer than Java 8 (such as JFR and Flow). They are packaged into the
+// main jar. The main classes only load them reflectively, so they still run on Java 8, and the
+// public ones (such as FlowAssertions) can be used directly on Java 11 and later.
+val java11: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+tasks.named<JavaCompile>(java11.compileJavaTaskName) {
+    javaCompiler.set(javaToolchains.compilerFor {
+        languageVersion.set(JavaLanguageVersion.of(11))
+    })
+}
+
+tasks.jar {
+    from(java11.output)
+}
+
+tasks.named<Jar>("sourcesJar") {
+    from(java11.allSource)
+}
+
+// The public Java 11 classes are documented together with the main classes
+tasks.javadoc {
+    source(java11.allJava)
+    classpath += java11.compileClasspath
+    javadocTool.set(javaToolchains.javadocToolFor {
+        languageVersion.set(JavaLanguageVersion.of(11))
+    })
+}
+
+sourceSets.test {
+    runtimeClasspath += java11.output
+}
+
+// Tests of the Java 11 classes, which are run on Java 11
+val java11Test: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + java11.output
+    runtimeClasspath += sourceSets.main.get().output + java11.output
+}
+
+configurations[java11Test.implementationConfigurationName]
+    .extendsFrom(configurations.testImplementation.get())
+configurations[java11Test.runtimeOnlyConfigurationName]
+    .extendsFrom(configurations.testRuntimeOnly.get())
+
+tasks.named<JavaCompile>(java11Test.compileJavaTaskName) {
+    javaCompiler.set(javaToolchains.compilerFor {
+        languageVersion.set(JavaLanguageVersion.of(11))
+    })
+}
+
+val java11TestTask = tasks.register<Test>("java11Test") {
+    description = "Runs the tests of the Java 11 classes."
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+    testClassesDirs = java11Test.output.classesDirs
+    classpath = java11Test.runtimeClasspath
+    javaLauncher.set(javaToolchains.launcherFor {
+        languageVersion.set(JavaLanguageVersion.of(11))
+    })
+    useJUnitPlatform()
+}
+
+tasks.check {
+    dependsOn(java11TestTask)
+}
+
 repositories {
     mavenCentral()
 }
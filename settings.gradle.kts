@@ -1 +1,3 @@
 rootProject.name = "spark-test"
+
+include("spark-engine")
@@ -0,0 +1,55 @@
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+description = "A JUnit Platform test engine for spark scenarios"
+
+java {
+    withJavadocJar()
+    withSourcesJar()
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(8))
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    api(project(":"))
+    api("org.junit.platform:junit-platform-engine:1.10.3")
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.10.3")
+    testImplementation("org.junit.platform:junit-platform-testkit:1.10.3")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.10.3")
+}
+
+publishing {
+    publications {
+        create<MavenPublication>("maven") {
+            from(components["java"])
+        }
+    }
+    repositories {
+        maven {
+            name = "sparky"
+            url = if (project.version.toString().endsWith("-SNAPSHOT")) {
+                uri("https://repo.sparky983.me/snapshots")
+            } else {
+                uri("https://repo.sparky983.me/releases")
+            }
+            credentials(PasswordCredentials::class)
+            authentication {
+                create<BasicAuthentication>("basic")
+            }
+        }
+    }
+}
+
+tasks.getByName<Test>("test") {
+    useJUnitPlatform {
+        // the scenarios in the test sources are only run through the engine test kit
+        includeEngines("junit-jupiter")
+    }
+}
@@ -0,0 +1,39 @@
+package me.sparky983.spark.engine;
+
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.engine.support.hierarchical.ExclusiveResource;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Maps {@link ResourceLock} annotations to the exclusive resources of the JUnit Platform.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ExclusiveResources {
+
+    private ExclusiveResources() {
+
+    }
+
+    /**
+     * Returns the exclusive resources declared by the specified class or method.
+     *
+     * @param element the class or method.
+     * @return the exclusive resources.
+     */
+    static Set<ExclusiveResource> of(final AnnotatedElement element) {
+
+        final Set<ExclusiveResource> resources = new LinkedHashSet<>();
+        for (final ResourceLock lock :
+                AnnotationSupport.findRepeatableAnnotations(element, ResourceLock.class)) {
+            resources.add(new ExclusiveResource(lock.value(), lock.readOnly()
+                    ? ExclusiveResource.LockMode.READ
+                    : ExclusiveResource.LockMode.READ_WRITE));
+        }
+        return resources;
+    }
+}
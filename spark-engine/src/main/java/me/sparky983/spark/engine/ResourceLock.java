@@ -0,0 +1,40 @@
+package me.sparky983.spark.engine;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that the scenarios of a class or scenario factory use a shared resource.
+ * <p>
+ * When scenarios are run in parallel, scenarios that use the same resource are never run at the
+ * same time, unless all of them only read the resource.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+@Documented
+@Repeatable(ResourceLocks.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ResourceLock {
+
+    /**
+     * Returns the key of the resource.
+     *
+     * @return the key of the resource.
+     * @since 1.2
+     */
+    String value();
+
+    /**
+     * Returns whether the resource is only read.
+     *
+     * @return whether the resource is only read.
+     * @since 1.2
+     */
+    boolean readOnly() default false;
+}
@@ -0,0 +1,27 @@
+package me.sparky983.spark.engine;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The container of repeated {@link ResourceLock} annotations.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ResourceLocks {
+
+    /**
+     * Returns the resource locks.
+     *
+     * @return the resource locks.
+     * @since 1.2
+     */
+    ResourceLock[] value();
+}
@@ -0,0 +1,76 @@
+package me.sparky983.spark.engine;
+
+import java.util.Objects;
+
+/**
+ * Represents a single scenario, typically a {@code given/when/then} chain, that is reported as
+ * its own test by the spark test engine.
+ * <p>
+ * Scenarios are created by methods annotated with {@link Scenarios}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+public final class Scenario {
+
+    private final String name;
+    private final Runnable test;
+
+    private Scenario(final String name, final Runnable test) {
+
+        this.name = name;
+        this.test = test;
+    }
+
+    /**
+     * Creates a new scenario.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * scenario("adding zero", () ->
+     *         given(1)
+     *                 .when((i) -> i + 0)
+     *                 .then(isEqualTo(1)))
+     * }</pre>
+     *
+     * @param name the display name of the scenario.
+     * @param test the scenario, which passes if it does not throw.
+     * @return the new scenario.
+     * @throws NullPointerException if the name or test is {@code null}.
+     * @since 1.2
+     */
+    public static Scenario scenario(final String name, final Runnable test) {
+
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(test, "test");
+        return new Scenario(name, test);
+    }
+
+    /**
+     * Returns the display name of this scenario.
+     *
+     * @return the display name of this scenario.
+     * @since 1.2
+     */
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * Runs this scenario.
+     *
+     * @throws AssertionError if the scenario fails.
+     * @since 1.2
+     */
+    public void run() {
+
+        test.run();
+    }
+
+    @Override
+    public String toString() {
+
+        return "Scenario[" + name + "]";
+    }
+}
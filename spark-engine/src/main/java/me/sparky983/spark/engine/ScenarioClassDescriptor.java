@@ -0,0 +1,49 @@
+package me.sparky983.spark.engine;
+
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.hierarchical.ExclusiveResource;
+import org.junit.platform.engine.support.hierarchical.Node;
+
+import java.util.Set;
+
+/**
+ * Describes a class that declares scenario factories.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ScenarioClassDescriptor extends AbstractTestDescriptor
+        implements Node<SparkExecutionContext> {
+
+    static final String SEGMENT_TYPE = "class";
+
+    private final Class<?> testClass;
+
+    ScenarioClassDescriptor(final UniqueId parentId, final Class<?> testClass) {
+
+        super(parentId.append(SEGMENT_TYPE, testClass.getName()),
+                testClass.getSimpleName(),
+                ClassSource.from(testClass));
+
+        this.testClass = testClass;
+    }
+
+    Class<?> getTestClass() {
+
+        return testClass;
+    }
+
+    @Override
+    public Type getType() {
+
+        return Type.CONTAINER;
+    }
+
+    @Override
+    public Set<ExclusiveResource> getExclusiveResources() {
+
+        return ExclusiveResources.of(testClass);
+    }
+}
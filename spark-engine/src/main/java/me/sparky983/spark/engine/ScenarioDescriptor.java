@@ -0,0 +1,44 @@
+package me.sparky983.spark.engine;
+
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.hierarchical.Node;
+
+/**
+ * Describes a single {@link Scenario}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ScenarioDescriptor extends AbstractTestDescriptor
+        implements Node<SparkExecutionContext> {
+
+    static final String SEGMENT_TYPE = "scenario";
+
+    private final Scenario scenario;
+
+    ScenarioDescriptor(final UniqueId parentId,
+                       final int index,
+                       final Scenario scenario,
+                       final TestSource source) {
+
+        super(parentId.append(SEGMENT_TYPE, "#" + index), scenario.getName(), source);
+
+        this.scenario = scenario;
+    }
+
+    @Override
+    public Type getType() {
+
+        return Type.TEST;
+    }
+
+    @Override
+    public SparkExecutionContext execute(final SparkExecutionContext context,
+                                         final DynamicTestExecutor dynamicTestExecutor) {
+
+        scenario.run();
+        return context;
+    }
+}
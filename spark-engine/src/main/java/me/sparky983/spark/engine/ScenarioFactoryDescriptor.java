@@ -0,0 +1,81 @@
+package me.sparky983.spark.engine;
+
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.engine.support.hierarchical.ExclusiveResource;
+import org.junit.platform.engine.support.hierarchical.Node;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * Describes a method annotated with {@link Scenarios}.
+ * <p>
+ * The factory is invoked during discovery so that each of its scenarios can be reported as its own
+ * test. If the factory fails, the failure is reported when the factory is executed.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ScenarioFactoryDescriptor extends AbstractTestDescriptor
+        implements Node<SparkExecutionContext> {
+
+    static final String SEGMENT_TYPE = "factory";
+
+    private final Method factory;
+    private Throwable failure;
+
+    ScenarioFactoryDescriptor(final UniqueId parentId,
+                              final Class<?> testClass,
+                              final Method factory) {
+
+        super(parentId.append(SEGMENT_TYPE, factory.getName()),
+                factory.getName() + "()",
+                MethodSource.from(testClass, factory));
+
+        this.factory = factory;
+    }
+
+    Method getFactory() {
+
+        return factory;
+    }
+
+    /**
+     * Records that the factory failed during discovery.
+     *
+     * @param failure the failure.
+     */
+    void setFailure(final Throwable failure) {
+
+        this.failure = failure;
+    }
+
+    @Override
+    public Type getType() {
+
+        return Type.CONTAINER;
+    }
+
+    @Override
+    public Set<ExclusiveResource> getExclusiveResources() {
+
+        return ExclusiveResources.of(factory);
+    }
+
+    @Override
+    public SparkExecutionContext before(final SparkExecutionContext context) throws Exception {
+
+        if (failure instanceof Exception) {
+            throw (Exception) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+        return context;
+    }
+}
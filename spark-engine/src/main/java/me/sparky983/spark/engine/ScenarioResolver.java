@@ -0,0 +1,236 @@
+package me.sparky983.spark.engine;
+
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.engine.EngineDiscoveryRequest;
+import org.junit.platform.engine.Filter;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.discovery.ClassNameFilter;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.ClasspathRootSelector;
+import org.junit.platform.engine.discovery.MethodSelector;
+import org.junit.platform.engine.discovery.PackageSelector;
+import org.junit.platform.engine.discovery.UniqueIdSelector;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Resolves the selectors of a discovery request to scenario classes, factories and scenarios.
+ * <p>
+ * The selected factories are collected first and are then invoked once each, so that a factory
+ * selected by several selectors is not invoked several times.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ScenarioResolver {
+
+    private static final Predicate<Class<?>> IS_SCENARIO_CLASS = (type) ->
+            !Modifier.isAbstract(type.getModifiers())
+                    && !type.isAnonymousClass()
+                    && !(type.isMemberClass() && !Modifier.isStatic(type.getModifiers()))
+                    && !factoriesOf(type).isEmpty();
+
+    private final TestDescriptor engine;
+    private final Map<Class<?>, Map<Method, Selection>> selections = new LinkedHashMap<>();
+
+    ScenarioResolver(final TestDescriptor engine) {
+
+        this.engine = engine;
+    }
+
+    /**
+     * Resolves the selectors of the specified request and adds the resolved descriptors to the
+     * engine descriptor.
+     *
+     * @param request the discovery request.
+     */
+    void resolve(final EngineDiscoveryRequest request) {
+
+        final Predicate<String> classNameFilter =
+                Filter.composeFilters(request.getFiltersByType(ClassNameFilter.class))
+                        .toPredicate();
+
+        for (final ClasspathRootSelector selector :
+                request.getSelectorsByType(ClasspathRootSelector.class)) {
+            ReflectionSupport.findAllClassesInClasspathRoot(selector.getClasspathRoot(),
+                    IS_SCENARIO_CLASS, classNameFilter).forEach(this::selectClass);
+        }
+        for (final PackageSelector selector : request.getSelectorsByType(PackageSelector.class)) {
+            ReflectionSupport.findAllClassesInPackage(selector.getPackageName(),
+                    IS_SCENARIO_CLASS, classNameFilter).forEach(this::selectClass);
+        }
+        for (final ClassSelector selector : request.getSelectorsByType(ClassSelector.class)) {
+            if (IS_SCENARIO_CLASS.test(selector.getJavaClass())) {
+                selectClass(selector.getJavaClass());
+            }
+        }
+        for (final MethodSelector selector : request.getSelectorsByType(MethodSelector.class)) {
+            if (AnnotationSupport.isAnnotated(selector.getJavaMethod(), Scenarios.class)) {
+                select(selector.getJavaClass(), selector.getJavaMethod()).all = true;
+            }
+        }
+        for (final UniqueIdSelector selector :
+                request.getSelectorsByType(UniqueIdSelector.class)) {
+            selectUniqueId(selector.getUniqueId());
+        }
+
+        selections.forEach(this::addClass);
+    }
+
+    private void selectClass(final Class<?> type) {
+
+        for (final Method factory : factoriesOf(type)) {
+            select(type, factory).all = true;
+        }
+    }
+
+    private void selectUniqueId(final UniqueId uniqueId) {
+
+        final List<UniqueId.Segment> segments = uniqueId.getSegments();
+        if (segments.size() < 2 || !uniqueId.hasPrefix(engine.getUniqueId())) {
+            return;
+        }
+        final UniqueId.Segment classSegment = segments.get(1);
+        if (!classSegment.getType().equals(ScenarioClassDescriptor.SEGMENT_TYPE)) {
+            return;
+        }
+        final Class<?> type = ReflectionSupport.tryToLoadClass(classSegment.getValue())
+                .toOptional()
+                .orElse(null);
+        if (type == null || !IS_SCENARIO_CLASS.test(type)) {
+            return;
+        }
+        if (segments.size() == 2) {
+            selectClass(type);
+            return;
+        }
+
+        final UniqueId.Segment factorySegment = segments.get(2);
+        if (!factorySegment.getType().equals(ScenarioFactoryDescriptor.SEGMENT_TYPE)) {
+            return;
+        }
+        final Method factory = factoriesOf(type).stream()
+                .filter((method) -> method.getName().equals(factorySegment.getValue()))
+                .findFirst()
+                .orElse(null);
+        if (factory == null) {
+            return;
+        }
+        final Selection selection = select(type, factory);
+        if (segments.size() == 3) {
+            selection.all = true;
+            return;
+        }
+
+        final UniqueId.Segment scenarioSegment = segments.get(3);
+        if (scenarioSegment.getType().equals(ScenarioDescriptor.SEGMENT_TYPE)
+                && scenarioSegment.getValue().startsWith("#")) {
+            try {
+                selection.indices.add(Integer.parseInt(scenarioSegment.getValue().substring(1)));
+            } catch (final NumberFormatException e) {
+                // not a scenario of this engine
+            }
+        }
+    }
+
+    private Selection select(final Class<?> type, final Method factory) {
+
+        return selections.computeIfAbsent(type, (key) -> new LinkedHashMap<>())
+                .computeIfAbsent(factory, (key) -> new Selection());
+    }
+
+    private void addClass(final Class<?> type, final Map<Method, Selection> factories) {
+
+        final ScenarioClassDescriptor classDescriptor =
+                new ScenarioClassDescriptor(engine.getUniqueId(), type);
+        factories.forEach((factory, selection) -> {
+            final ScenarioFactoryDescriptor factoryDescriptor =
+                    new ScenarioFactoryDescriptor(classDescriptor.getUniqueId(), type, factory);
+            try {
+                addScenarios(factoryDescriptor, invoke(type, factory), selection);
+            } catch (final Throwable throwable) {
+                factoryDescriptor.setFailure(throwable);
+            }
+            classDescriptor.addChild(factoryDescriptor);
+        });
+        engine.addChild(classDescriptor);
+    }
+
+    private static Object invoke(final Class<?> type, final Method factory) {
+
+        if (factory.getParameterCount() != 0) {
+            throw new IllegalStateException("@Scenarios method <" + factory
+                    + "> must not have parameters");
+        }
+        final Object target = Modifier.isStatic(factory.getModifiers())
+                ? null
+                : ReflectionSupport.newInstance(type);
+        return ReflectionSupport.invokeMethod(factory, target);
+    }
+
+    private static void addScenarios(final ScenarioFactoryDescriptor factoryDescriptor,
+                                     final Object scenarios,
+                                     final Selection selection) {
+
+        if (scenarios instanceof Stream) {
+            try (Stream<?> stream = (Stream<?>) scenarios) {
+                addScenarios(factoryDescriptor, stream.iterator(), selection);
+            }
+        } else if (scenarios instanceof Iterable) {
+            addScenarios(factoryDescriptor, ((Iterable<?>) scenarios).iterator(), selection);
+        } else if (scenarios instanceof Object[]) {
+            addScenarios(factoryDescriptor, Arrays.asList((Object[]) scenarios).iterator(),
+                    selection);
+        } else {
+            throw new IllegalStateException("@Scenarios method <" + factoryDescriptor.getFactory()
+                    + "> must return a Stream, Iterable or array of scenarios, found <"
+                    + scenarios + ">");
+        }
+    }
+
+    private static void addScenarios(final ScenarioFactoryDescriptor factoryDescriptor,
+                                     final Iterator<?> scenarios,
+                                     final Selection selection) {
+
+        for (int index = 1; scenarios.hasNext(); index++) {
+            final Object scenario = scenarios.next();
+            if (!(scenario instanceof Scenario)) {
+                throw new IllegalStateException("@Scenarios method <"
+                        + factoryDescriptor.getFactory() + "> returned <" + scenario
+                        + ">, which is not a scenario");
+            }
+            if (selection.all || selection.indices.contains(index)) {
+                factoryDescriptor.addChild(new ScenarioDescriptor(factoryDescriptor.getUniqueId(),
+                        index, (Scenario) scenario, factoryDescriptor.getSource().orElse(null)));
+            }
+        }
+    }
+
+    private static List<Method> factoriesOf(final Class<?> type) {
+
+        return AnnotationSupport.findAnnotatedMethods(type, Scenarios.class,
+                HierarchyTraversalMode.TOP_DOWN);
+    }
+
+    /**
+     * The scenarios that are selected from a factory.
+     */
+    private static final class Selection {
+
+        private boolean all;
+        private final Set<Integer> indices = new HashSet<>();
+    }
+}
@@ -0,0 +1,41 @@
+package me.sparky983.spark.engine;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a scenario factory: a method without parameters that returns a {@code Stream},
+ * {@code Iterable} or array of {@link Scenario Scenarios}.
+ * <p>
+ * Each scenario returned by the factory is reported as its own test. Static factories are invoked
+ * directly, instance factories are invoked on a new instance of the declaring class (created with
+ * its no-args constructor).
+ * <p>
+ * Example:
+ * <pre>{@code
+ * class AdditionScenarios {
+ *
+ *     @Scenarios
+ *     static Stream<Scenario> addingZero() {
+ *
+ *         return IntStream.range(0, 1000)
+ *                 .mapToObj((i) -> scenario(i + " + 0", () ->
+ *                         given(i)
+ *                                 .when((n) -> n + 0)
+ *                                 .then(isEqualTo(i))));
+ *     }
+ * }
+ * }</pre>
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Scenarios {
+
+}
@@ -0,0 +1,15 @@
+package me.sparky983.spark.engine;
+
+import org.junit.platform.engine.support.hierarchical.EngineExecutionContext;
+
+/**
+ * The execution context of the spark test engine.
+ * <p>
+ * Scenarios are self-contained, so the context carries no state.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class SparkExecutionContext implements EngineExecutionContext {
+
+}
@@ -0,0 +1,98 @@
+package me.sparky983.spark.engine;
+
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.EngineDiscoveryRequest;
+import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.config.PrefixedConfigurationParameters;
+import org.junit.platform.engine.support.descriptor.EngineDescriptor;
+import org.junit.platform.engine.support.hierarchical.ForkJoinPoolHierarchicalTestExecutorService;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestEngine;
+import org.junit.platform.engine.support.hierarchical.HierarchicalTestExecutorService;
+
+import java.util.Optional;
+
+/**
+ * A JUnit Platform test engine that runs spark {@link Scenario Scenarios}.
+ * <p>
+ * The engine discovers the methods annotated with {@link Scenarios} and reports each scenario they
+ * return as its own test. By default, scenarios are run sequentially. If the
+ * {@value #PARALLEL_EXECUTION_ENABLED} configuration parameter is {@code true}, they are run on a
+ * work-stealing pool, which is configured by the parameters prefixed with
+ * {@value #PARALLEL_CONFIG_PREFIX} (for example, {@code spark.execution.parallel.config.strategy}
+ * and {@code spark.execution.parallel.config.fixed.parallelism}), in the same way as the parallel
+ * execution of JUnit Jupiter. Scenarios that use the same {@link ResourceLock resources} are never
+ * run at the same time.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+public final class SparkTestEngine extends HierarchicalTestEngine<SparkExecutionContext> {
+
+    /**
+     * The id of the spark test engine.
+     *
+     * @since 1.2
+     */
+    public static final String ENGINE_ID = "spark";
+
+    /**
+     * The configuration parameter that enables the parallel execution of scenarios.
+     *
+     * @since 1.2
+     */
+    public static final String PARALLEL_EXECUTION_ENABLED = "spark.execution.parallel.enabled";
+
+    /**
+     * The prefix of the configuration parameters that configure the parallel execution of
+     * scenarios.
+     *
+     * @since 1.2
+     */
+    public static final String PARALLEL_CONFIG_PREFIX = "spark.execution.parallel.config.";
+
+    @Override
+    public String getId() {
+
+        return ENGINE_ID;
+    }
+
+    @Override
+    public Optional<String> getGroupId() {
+
+        return Optional.of("me.sparky983");
+    }
+
+    @Override
+    public Optional<String> getArtifactId() {
+
+        return Optional.of("spark-engine");
+    }
+
+    @Override
+    public TestDescriptor discover(final EngineDiscoveryRequest request, final UniqueId uniqueId) {
+
+        final TestDescriptor engine = new EngineDescriptor(uniqueId, "Spark");
+        new ScenarioResolver(engine).resolve(request);
+        return engine;
+    }
+
+    @Override
+    protected HierarchicalTestExecutorService createExecutorService(
+            final ExecutionRequest request) {
+
+        final ConfigurationParameters parameters = request.getConfigurationParameters();
+        if (parameters.getBoolean(PARALLEL_EXECUTION_ENABLED).orElse(false)) {
+            return new ForkJoinPoolHierarchicalTestExecutorService(
+                    new PrefixedConfigurationParameters(parameters, PARALLEL_CONFIG_PREFIX));
+        }
+        return super.createExecutorService(request);
+    }
+
+    @Override
+    protected SparkExecutionContext createExecutionContext(final ExecutionRequest request) {
+
+        return new SparkExecutionContext();
+    }
+}
@@ -0,0 +1,138 @@
+package me.sparky983.spark.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.testkit.engine.EngineTestKit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.engine.Scenario.scenario;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectUniqueId;
+
+class SparkTestEngineTest {
+
+    @Test
+    void testScenarioWhenArgumentsNull() {
+
+        assertThrows(NullPointerException.class, () -> scenario(null, () -> {}));
+        assertThrows(NullPointerException.class, () -> scenario("name", null));
+    }
+
+    @Test
+    void testEachScenarioIsReported() {
+
+        EngineTestKit.engine(SparkTestEngine.ENGINE_ID)
+                .selectors(selectClass(Arithmetic.class))
+                .execute()
+                .testEvents()
+                .assertStatistics((stats) -> stats.started(4).succeeded(3).failed(1));
+    }
+
+    @Test
+    void testMethodSelector() {
+
+        EngineTestKit.engine(SparkTestEngine.ENGINE_ID)
+                .selectors(selectMethod(Arithmetic.class, "addition"))
+                .execute()
+                .testEvents()
+                .assertStatistics((stats) -> stats.started(3).succeeded(3));
+    }
+
+    @Test
+    void testUniqueIdSelector() {
+
+        final UniqueId uniqueId = UniqueId.forEngine(SparkTestEngine.ENGINE_ID)
+                .append("class", Arithmetic.class.getName())
+                .append("factory", "addition")
+                .append("scenario", "#2");
+
+        EngineTestKit.engine(SparkTestEngine.ENGINE_ID)
+                .selectors(selectUniqueId(uniqueId))
+                .execute()
+                .testEvents()
+                .assertStatistics((stats) -> stats.started(1).succeeded(1));
+    }
+
+    @Test
+    void testFailingFactory() {
+
+        EngineTestKit.engine(SparkTestEngine.ENGINE_ID)
+                .selectors(selectClass(FailingFactory.class))
+                .execute()
+                .containerEvents()
+                .assertStatistics((stats) -> stats.failed(1));
+    }
+
+    @Test
+    void testParallelExecutionWithResourceLock() {
+
+        EngineTestKit.engine(SparkTestEngine.ENGINE_ID)
+                .configurationParameter(SparkTestEngine.PARALLEL_EXECUTION_ENABLED, "true")
+                .configurationParameter(SparkTestEngine.PARALLEL_CONFIG_PREFIX + "strategy",
+                        "fixed")
+                .configurationParameter(SparkTestEngine.PARALLEL_CONFIG_PREFIX
+                        + "fixed.parallelism", "4")
+                .selectors(selectClass(Arithmetic.class), selectClass(Locked.class))
+                .execute()
+                .testEvents()
+                .assertStatistics((stats) -> stats.started(104).succeeded(103).failed(1));
+    }
+
+    static class Arithmetic {
+
+        @Scenarios
+        static Stream<Scenario> addition() {
+
+            return IntStream.range(0, 3)
+                    .mapToObj((i) -> scenario(i + " + 1", () ->
+                            given(i)
+                                    .when((n) -> n + 1)
+                                    .then(isEqualTo(i + 1))));
+        }
+
+        @Scenarios
+        List<Scenario> failing() {
+
+            return Arrays.asList(scenario("1 + 1 = 3", () ->
+                    given(1)
+                            .when((n) -> n + 1)
+                            .then(isEqualTo(3))));
+        }
+    }
+
+    static class FailingFactory {
+
+        @Scenarios
+        static Scenario[] failing() {
+
+            throw new IllegalStateException();
+        }
+    }
+
+    @ResourceLock("active")
+    static class Locked {
+
+        private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+        @Scenarios
+        static Stream<Scenario> exclusive() {
+
+            return IntStream.range(0, 100)
+                    .mapToObj((i) -> scenario("scenario " + i, () -> {
+                        given(ACTIVE.incrementAndGet())
+                                .noop()
+                                .then(isEqualTo(1));
+                        ACTIVE.decrementAndGet();
+                    }));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package me.sparky983.spark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.function.Predicate;
+
+/**
+ * Creates assertions on {@link Flow.Publisher Flow.Publishers}.
+ * <p>
+ * Each assertion subscribes to the publisher with a test subscriber, which requests elements in
+ * batches and checks each element as it arrives, so publishers of millions of elements are
+ * checked in constant memory (except by {@link #collected(Assertion)}). Every assertion also
+ * checks that the publisher respects backpressure: it fails if the publisher emits more elements
+ * than were requested, emits {@code null}, or fails.
+ * <p>
+ * This class requires Java 11 or newer.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * import static me.sparky983.spark.FlowAssertions.requesting;
+ *
+ * given(pipeline)
+ *         .when(Pipeline::run)
+ *         .then(requesting(64).allMatch((event) -> event.isValid()))
+ *         .and(requesting(64).indexEquals(0, firstEvent))
+ *         .and(requesting(1).respectsDemand());
+ * }</pre>
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+public final class FlowAssertions {
+
+    private static final long DEFAULT_BATCH_SIZE = 256;
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final long batchSize;
+    private final Duration timeout;
+
+    private FlowAssertions(final long batchSize, final Duration timeout) {
+
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns publisher assertions that request {@code 256} elements at a time.
+     *
+     * @return the publisher assertions.
+     * @since 1.2
+     */
+    public static FlowAssertions publisher() {
+
+        return new FlowAssertions(DEFAULT_BATCH_SIZE, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Returns publisher assertions that request the specified number of elements at a time.
+     * <p>
+     * The next batch is only requested once the previous batch has been delivered.
+     *
+     * @param batchSize the number of elements to request at a time.
+     * @return the publisher assertions.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     * @since 1.2
+     */
+    public static FlowAssertions requesting(final long batchSize) {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        return new FlowAssertions(batchSize, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Returns publisher assertions that wait at most the specified time for the publisher to
+     * complete.
+     * <p>
+     * The default timeout is 30 seconds.
+     *
+     * @param timeout the timeout.
+     * @return the publisher assertions.
+     * @throws NullPointerException if the timeout is {@code null}.
+     * @throws IllegalArgumentException if the timeout is negative.
+     * @since 1.2
+     */
+    public FlowAssertions within(final Duration timeout) {
+
+        Objects.requireNonNull(timeout, "timeout");
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout cannot be negative");
+        }
+        return new FlowAssertions(batchSize, timeout);
+    }
+
+    /**
+     * Creates a new assertion that fails if the publisher does not respect backpressure, or does
+     * not complete.
+     *
+     * @return the new assertion.
+     * @param <P> the type of the publisher.
+     * @since 1.2
+     */
+    public <P extends Flow.Publisher<?>> Assertion<P> respectsDemand() {
+
+        return new NamedAssertion<>("respectsDemand", (resultSupplier) -> {
+            final Flow.Publisher<?> publisher = resultSupplier.get();
+            TestSubscriber.consume(publisher, batchSize, timeout,
+                    (final long index, final Object element) -> true);
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if any of the elements emitted by the publisher do not
+     * match the specified predicate.
+     * <p>
+     * The subscription is cancelled at the first element that does not match.
+     *
+     * @param predicate the predicate.
+     * @return the new assertion.
+     * @param <P> the type of the publisher.
+     * @param <E> the type of the elements.
+     * @throws NullPointerException if the predicate is {@code null}.
+     * @since 1.2
+     */
+    public <P extends Flow.Publisher<E>, E> Assertion<P> allMatch(
+            final Predicate<? super E> predicate) {
+
+        Objects.requireNonNull(predicate, "predicate");
+        return new NamedAssertion<>("allMatch", (resultSupplier) ->
+                TestSubscriber.<E>consume(resultSupplier.get(), batchSize, timeout,
+                        (index, element) -> {
+                            if (!predicate.test(element)) {
+                                throw new AssertionError("Element at index " + index + " (<"
+                                        + element + ">) did not match the given predicate");
+                            }
+                            return true;
+                        }));
+    }
+
+    /**
+     * Creates a new assertion that fails if the publisher does not emit all the specified
+     * objects.
+     * <p>
+     * The subscription is cancelled as soon as all the objects have been emitted.
+     *
+     * @param objects the objects.
+     * @return the new assertion.
+     * @param <P> the type of the publisher.
+     * @param <E> the type of the elements.
+     * @throws NullPointerException if the objects are {@code null}.
+     * @since 1.2
+     */
+    public <P extends Flow.Publisher<E>, E> Assertion<P> contains(final Object... objects) {
+
+        Objects.requireNonNull(objects, "objects");
+        return new NamedAssertion<>("contains", (resultSupplier) -> {
+            final List<Object> missing = new ArrayList<>(Arrays.asList(objects));
+            TestSubscriber.<E>consume(resultSupplier.get(), batchSize, timeout,
+                    new TestSubscriber.Handler<E>() {
+                        @Override
+                        public boolean onNext(final long index, final E element) {
+
+                            missing.remove(element);
+                            return !missing.isEmpty();
+                        }
+
+                        @Override
+                        public void onComplete(final long count) {
+
+                            if (!missing.isEmpty()) {
+                                throw new AssertionError("Expected publisher to emit <"
+                                        + missing.get(0) + ">, found <" + count
+                                        + "> other elements");
+                            }
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the element emitted by the publisher at the specified
+     * index is not equal to the specified object.
+     * <p>
+     * Equality is defined by the {@code Objects.equals(o, element)}. The subscription is
+     * cancelled once the element at the index has been emitted.
+     *
+     * @param index the index.
+     * @param o the object.
+     * @return the new assertion.
+     * @param <P> the type of the publisher.
+     * @param <E> the type of the elements.
+     * @throws IndexOutOfBoundsException if the index is negative.
+     * @since 1.2
+     */
+    public <P extends Flow.Publisher<E>, E> Assertion<P> indexEquals(final long index,
+                                                                   final Object o) {
+
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("index must be positive");
+        }
+        return new NamedAssertion<>("indexEquals", (resultSupplier) ->
+                TestSubscriber.<E>consume(resultSupplier.get(), batchSize, timeout,
+                        new TestSubscriber.Handler<E>() {
+                            @Override
+                            public boolean onNext(final long i, final E element) {
+
+                                if (i < index) {
+                                    return true;
+                                }
+                                if (!Objects.equals(o, element)) {
+                                    throw new AssertionError("Element at index " + index
+                                            + " (<" + element + ">) does not equal <" + o + ">");
+                                }
+                                return false;
+                            }
+
+                            @Override
+                            public void onComplete(final long count) {
+
+                                if (count <= index) {
+                                    throw new AssertionError("index (" + index + ") is greater "
+                                            + "than the number of elements (" + count + ")");
+                                }
+                            }
+                        }));
+    }
+
+    /**
+     * Creates a new assertion that collects all the elements emitted by the publisher into a list,
+     * and performs the specified assertion on it.
+     * <p>
+     * This allows any assertion on lists to be used on publishers, such as
+     * {@link Assertion#indexEquals(int, Object)}, but the elements are held in memory.
+     *
+     * @param assertion the assertion on the list of elements.
+     * @return the new assertion.
+     * @param <P> the type of the publisher.
+     * @param <E> the type of the elements.
+     * @throws NullPointerException if the assertion is {@code null}.
+     * @since 1.2
+     */
+    public <P extends Flow.Publisher<E>, E> Assertion<P> collected(
+            final Assertion<List<E>> assertion) {
+
+        Objects.requireNonNull(assertion, "assertion");
+        return new NamedAssertion<>("collected", (resultSupplier) -> {
+            final List<E> elements = new ArrayList<>();
+            TestSubscriber.<E>consume(resultSupplier.get(), batchSize, timeout,
+                    (index, element) -> elements.add(element));
+            assertion.doAssertion(() -> elements);
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package me.sparky983.spark;
+
+import jdk.jfr.EventType;
+
+/**
+ * The {@link FlightRecorder} implementation, which is loaded reflectively.
+ * <p>
+ * Whether the events are enabled is read from their {@link EventType event types}, which JFR
+ * updates whenever a recording starts or stops, so checking it does not allocate.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class JfrFlightRecorder extends FlightRecorder {
+
+    private static final EventType ASSERTION = EventType.getEventType(SparkAssertionEvent.class);
+    private static final EventType WHEN = EventType.getEventType(SparkWhenEvent.class);
+    private static final EventType GIVEN = EventType.getEventType(SparkGivenEvent.class);
+
+    @Override
+    boolean isEnabled() {
+
+        return ASSERTION.isEnabled() || WHEN.isEnabled() || GIVEN.isEnabled();
+    }
+
+    @Override
+    Object beginGiven() {
+
+        if (!GIVEN.isEnabled()) {
+            return null;
+        }
+        final SparkGivenEvent event = new SparkGivenEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void endGiven(final Object event, final Object given) {
+
+        if (event == null) {
+            return;
+        }
+        final SparkGivenEvent givenEvent = (SparkGivenEvent) event;
+        givenEvent.end();
+        if (givenEvent.shouldCommit()) {
+            givenEvent.givenType = typeOf(given);
+            givenEvent.commit();
+        }
+    }
+
+    @Override
+    Object beginWhen() {
+
+        if (!WHEN.isEnabled()) {
+            return null;
+        }
+        final SparkWhenEvent event = new SparkWhenEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void endWhen(final Object event, final Object result) {
+
+        if (event == null) {
+            return;
+        }
+        final SparkWhenEvent whenEvent = (SparkWhenEvent) event;
+        whenEvent.end();
+        if (whenEvent.shouldCommit()) {
+            whenEvent.resultType = typeOf(result);
+            whenEvent.commit();
+        }
+    }
+
+    @Override
+    Object beginAssertion() {
+
+        if (!ASSERTION.isEnabled()) {
+            return null;
+        }
+        final SparkAssertionEvent event = new SparkAssertionEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void endAssertion(final Object event, final String assertion, final boolean passed) {
+
+        if (event == null) {
+            return;
+        }
+        final SparkAssertionEvent assertionEvent = (SparkAssertionEvent) event;
+        assertionEvent.end();
+        if (assertionEvent.shouldCommit()) {
+            assertionEvent.assertion = assertion;
+            assertionEvent.passed = passed;
+            assertionEvent.commit();
+        }
+    }
+
+    @Override
+    void cachedAssertion(final String assertion) {
+
+        if (!ASSERTION.isEnabled()) {
+            return;
+        }
+        final SparkAssertionEvent event = new SparkAssertionEvent();
+        if (event.shouldCommit()) {
+            event.assertion = assertion;
+            event.passed = true;
+            event.cached = true;
+            event.commit();
+        }
+    }
+
+    private static String typeOf(final Object object) {
+
+        return object == null ? null : object.getClass().getName();
+    }
+}
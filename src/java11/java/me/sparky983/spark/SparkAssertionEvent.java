@@ -0,0 +1,37 @@
+package me.sparky983.spark;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event that is emitted when an assertion is performed with {@link When#then(Assertion)} or
+ * {@link Then#and(Assertion)}.
+ * <p>
+ * The duration of the event includes the duration of the {@link SparkWhenEvent when events} that
+ * it contains. Assertions that were skipped because they passed in a previous run are emitted as
+ * cached passes, with no duration.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+@Name("me.sparky983.spark.Assertion")
+@Label("Spark Assertion")
+@Description("An assertion was performed")
+@Category("Spark")
+@Enabled(false)
+final class SparkAssertionEvent extends Event {
+
+    @Label("Assertion")
+    String assertion;
+
+    @Label("Passed")
+    boolean passed;
+
+    @Label("Cached")
+    @Description("Whether the assertion was skipped because it passed in a previous run")
+    boolean cached;
+}
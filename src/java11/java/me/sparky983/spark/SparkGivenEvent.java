@@ -0,0 +1,26 @@
+package me.sparky983.spark;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event that is emitted when a given object is supplied with
+ * {@link Given#getGiven(java.util.function.Supplier)}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+@Name("me.sparky983.spark.Given")
+@Label("Spark Given")
+@Description("A given object was supplied")
+@Category("Spark")
+@Enabled(false)
+final class SparkGivenEvent extends Event {
+
+    @Label("Given Type")
+    String givenType;
+}
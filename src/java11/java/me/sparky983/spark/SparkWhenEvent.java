@@ -0,0 +1,26 @@
+package me.sparky983.spark;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event that is emitted when the when-function is applied to supply the result of an
+ * assertion.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+@Name("me.sparky983.spark.When")
+@Label("Spark When")
+@Description("A when-function was applied")
+@Category("Spark")
+@Enabled(false)
+final class SparkWhenEvent extends Event {
+
+    @Label("Result Type")
+    String resultType;
+}
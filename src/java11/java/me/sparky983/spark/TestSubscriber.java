@@ -0,0 +1,294 @@
+package me.sparky983.spark;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A subscriber that requests elements in batches, hands each element to a handler as it arrives
+ * and checks that the publisher follows the reactive streams protocol.
+ * <p>
+ * Elements are not retained, so a publisher of any number of elements is consumed in constant
+ * memory. The next batch is only requested by the subscribing thread once the previous batch has
+ * been delivered, never from within {@code onNext}, so a publisher that emits more elements than
+ * were requested is detected. The subscription is never called while holding the lock of this
+ * subscriber, so a publisher that emits from another thread while a request or cancellation is
+ * in progress cannot deadlock with it.
+ *
+ * @author Sparky983
+ * @param <T> the type of the elements.
+ * @since 1.2
+ */
+final class TestSubscriber<T> implements Flow.Subscriber<T> {
+
+    private final long batchSize;
+    private final Handler<? super T> handler;
+
+    // guarded by this, which the subscribing thread waits on between batches
+    private Flow.Subscription subscription;
+    private long requested;
+    private long outstanding;
+    private long received;
+    /**
+     * Whether a request is in progress, so that requests are never made concurrently.
+     */
+    private boolean requesting;
+    private boolean terminated;
+    private Throwable failure;
+
+    private TestSubscriber(final long batchSize, final Handler<? super T> handler) {
+
+        this.batchSize = batchSize;
+        this.handler = handler;
+    }
+
+    /**
+     * Subscribes to the specified publisher and waits until all of its elements have been
+     * handled.
+     *
+     * @param publisher the publisher.
+     * @param batchSize the number of elements to request at a time.
+     * @param timeout the maximum time to wait for.
+     * @param handler the handler of the elements.
+     * @param <T> the type of the elements.
+     * @throws AssertionError if the handler fails, the publisher fails or violates the protocol,
+     * or the publisher does not complete within the timeout.
+     */
+    static <T> void consume(final Flow.Publisher<T> publisher,
+                            final long batchSize,
+                            final Duration timeout,
+                            final Handler<? super T> handler) {
+
+        if (publisher == null) {
+            throw new AssertionError("Publisher was <null>");
+        }
+        final TestSubscriber<T> subscriber = new TestSubscriber<>(batchSize, handler);
+        publisher.subscribe(subscriber);
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            final long batch;
+            final long received;
+            boolean timedOut = false;
+            InterruptedException interrupted = null;
+            synchronized (subscriber) {
+                if (subscriber.terminated) {
+                    break;
+                }
+                batch = subscriber.reserve();
+                received = subscriber.received;
+                if (batch == 0) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timedOut = true;
+                    } else {
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(subscriber, remaining);
+                        } catch (final InterruptedException e) {
+                            interrupted = e;
+                        }
+                    }
+                    if (timedOut || interrupted != null) {
+                        subscriber.terminated = true;
+                    }
+                }
+            }
+            if (timedOut) {
+                subscriber.cancel();
+                throw new AssertionError("Expected publisher to complete within <" + timeout
+                        + ">, found <" + received + "> elements");
+            }
+            if (interrupted != null) {
+                subscriber.cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for publisher",
+                        interrupted);
+            }
+            subscriber.request(batch);
+        }
+        synchronized (subscriber) {
+            final Throwable failure = subscriber.failure;
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure != null) {
+                throw new AssertionError("Expected the elements to be handled, found <" + failure
+                        + ">", failure);
+            }
+            handler.onComplete(subscriber.received);
+        }
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+
+        Objects.requireNonNull(subscription, "subscription");
+        final long batch;
+        synchronized (this) {
+            if (this.subscription != null) {
+                fail(new AssertionError("Expected onSubscribe to be called once, found a "
+                        + "second call"));
+                batch = -1;
+            } else {
+                this.subscription = subscription;
+                batch = reserve();
+            }
+        }
+        if (batch == -1) {
+            subscription.cancel();
+            cancel();
+        } else {
+            request(batch);
+        }
+    }
+
+    @Override
+    public void onNext(final T element) {
+
+        synchronized (this) {
+            if (terminated) {
+                // elements may still arrive after cancellation
+                return;
+            }
+            received++;
+            if (received > requested) {
+                fail(new AssertionError("Expected at most <" + requested + "> elements to be "
+                        + "emitted, found <" + received + ">"));
+            } else if (element == null) {
+                fail(new AssertionError("Expected non-null elements, found <null> at index "
+                        + (received - 1)));
+            } else {
+                try {
+                    if (handler.onNext(received - 1, element)) {
+                        outstanding--;
+                        if (outstanding == 0) {
+                            notifyAll();
+                        }
+                        return;
+                    }
+                    terminated = true;
+                    notifyAll();
+                } catch (final Throwable throwable) {
+                    // onNext must return normally (rule 2.13), so the subscription is cancelled
+                    fail(throwable);
+                }
+            }
+        }
+        cancel();
+    }
+
+    @Override
+    public synchronized void onError(final Throwable throwable) {
+
+        if (terminated) {
+            return;
+        }
+        failure = new AssertionError("Expected publisher to complete, found <" + throwable + ">",
+                throwable);
+        terminated = true;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+
+        if (terminated) {
+            return;
+        }
+        terminated = true;
+        notifyAll();
+    }
+
+    /**
+     * Reserves the next batch if all the requested elements have been delivered and no request is
+     * in progress. Must be called while holding the lock.
+     *
+     * @return the size of the batch, or {@code 0} if no batch should be requested.
+     */
+    private long reserve() {
+
+        if (subscription == null || terminated || requesting || outstanding != 0) {
+            return 0;
+        }
+        final long batch = Math.min(batchSize, Long.MAX_VALUE - requested);
+        if (batch == 0) {
+            return 0;
+        }
+        outstanding = batch;
+        requested += batch;
+        requesting = true;
+        return batch;
+    }
+
+    /**
+     * Requests the reserved batch, without holding the lock.
+     */
+    private void request(final long batch) {
+
+        if (batch == 0) {
+            return;
+        }
+        try {
+            subscription.request(batch);
+        } finally {
+            synchronized (this) {
+                requesting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Records the failure and terminates. The subscription must then be cancelled by
+     * {@link #cancel()} once the lock has been released.
+     */
+    private void fail(final Throwable failure) {
+
+        this.failure = failure;
+        terminated = true;
+        notifyAll();
+    }
+
+    /**
+     * Cancels the subscription, without holding the lock.
+     */
+    private void cancel() {
+
+        final Flow.Subscription subscription;
+        synchronized (this) {
+            subscription = this.subscription;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Handles the elements of a publisher.
+     *
+     * @param <T> the type of the elements.
+     */
+    interface Handler<T> {
+
+        /**
+         * Handles an element.
+         *
+         * @param index the index of the element.
+         * @param element the element.
+         * @return whether more elements are needed.
+         * @throws AssertionError if the element is not as expected.
+         */
+        boolean onNext(long index, T element);
+
+        /**
+         * Called once the publisher has completed, or once no more elements are needed.
+         *
+         * @param count the number of elements that were emitted.
+         * @throws AssertionError if the elements were not as expected.
+         */
+        default void onComplete(final long count) {
+
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static me.sparky983.spark.Assertion.indexEquals;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.FlowAssertions.publisher;
+import static me.sparky983.spark.FlowAssertions.requesting;
+import static me.sparky983.spark.Given.given;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlowAssertionsTest {
+
+    @Test
+    void testFactoriesWhenArgumentsInvalid() {
+
+        given(0L)
+                .when(FlowAssertions::requesting)
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(publisher())
+                .when((assertions) -> assertions.within(null))
+                .then(throwsException(NullPointerException.class));
+
+        given(publisher())
+                .when((assertions) -> assertions.allMatch(null))
+                .then(throwsException(NullPointerException.class));
+
+        given(publisher())
+                .when((assertions) -> assertions.indexEquals(-1, null))
+                .then(throwsException(IndexOutOfBoundsException.class));
+    }
+
+    @Test
+    void testMillionsOfElements() {
+
+        given(new Range(5_000_000))
+                .noop()
+                .then(requesting(1024).allMatch((element) -> element >= 0))
+                .and(requesting(1).indexEquals(4_999_999, 4_999_999L))
+                .and(publisher().respectsDemand());
+    }
+
+    @Test
+    void testAllMatchFails() {
+
+        final Range range = new Range(100);
+
+        assertThrows(AssertionError.class, () ->
+                given(range)
+                        .noop()
+                        .then(requesting(10).allMatch((element) -> element < 50)));
+        assertTrue(range.cancelled.get());
+    }
+
+    @Test
+    void testContains() {
+
+        given(new Range(100))
+                .noop()
+                .then(publisher().contains(3L, 97L));
+
+        assertThrows(AssertionError.class, () ->
+                given(new Range(100))
+                        .noop()
+                        .then(publisher().contains(3L, 100L)));
+    }
+
+    @Test
+    void testIndexEqualsWhenTooFewElements() {
+
+        assertThrows(AssertionError.class, () ->
+                given(new Range(100))
+                        .noop()
+                        .then(publisher().indexEquals(100, 100L)));
+    }
+
+    @Test
+    void testCollected() {
+
+        given(new Range(3))
+                .noop()
+                .then(publisher().collected(indexEquals(2, 2L)));
+    }
+
+    @Test
+    void testAsynchronousPublisher() {
+
+        given(publisher().<SubmissionPublisher<Integer>, Integer>allMatch((element) ->
+                element < 1000))
+                .whenDo((allMatch) -> allMatch.doAssertion(() -> {
+                    final SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+                    new Thread(() -> {
+                        while (publisher.getNumberOfSubscribers() == 0) {
+                            Thread.yield();
+                        }
+                        for (int i = 0; i < 1000; i++) {
+                            publisher.submit(i);
+                        }
+                        publisher.close();
+                    }).start();
+                    return publisher;
+                }))
+                .then(Assertion.doesNotThrow());
+    }
+
+    @Test
+    void testPublisherEmitsFromAnotherThreadDuringRequest() {
+
+        given(requesting(10).<Flow.Publisher<Integer>, Integer>allMatch((element) -> element < 100))
+                .whenDo((allMatch) -> allMatch.doAssertion(() -> (subscriber) ->
+                        subscriber.onSubscribe(new Flow.Subscription() {
+                            private int next;
+
+                            @Override
+                            public void request(final long n) {
+
+                                // emits on another thread and waits for it before returning
+                                final Thread emitter = new Thread(() -> {
+                                    for (long i = 0; i < n && next < 100; i++) {
+                                        subscriber.onNext(next++);
+                                    }
+                                    if (next == 100) {
+                                        subscriber.onComplete();
+                                    }
+                                });
+                                emitter.start();
+                                try {
+                                    emitter.join();
+                                } catch (final InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            }
+
+                            @Override
+                            public void cancel() {
+
+                            }
+                        })))
+                .then(Assertion.doesNotThrow());
+    }
+
+    @Test
+    void testHandlerThrows() {
+
+        final Range range = new Range(100);
+
+        assertThrows(IllegalStateException.class, () ->
+                given(range)
+                        .noop()
+                        .then(publisher().allMatch((element) -> {
+                            throw new IllegalStateException();
+                        })));
+        assertTrue(range.cancelled.get());
+    }
+
+    @Test
+    void testDemandViolation() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                requesting(2).respectsDemand().doAssertion(() -> (subscriber) -> {
+                    subscriber.onSubscribe(new Flow.Subscription() {
+                        @Override
+                        public void request(final long n) {
+
+                        }
+
+                        @Override
+                        public void cancel() {
+
+                        }
+                    });
+                    for (int i = 0; i < 3; i++) {
+                        subscriber.onNext(i);
+                    }
+                    subscriber.onComplete();
+                }));
+
+        assertTrue(error.getMessage().contains("at most <2>"));
+    }
+
+    @Test
+    void testPublisherFails() {
+
+        assertThrows(AssertionError.class, () ->
+                publisher().respectsDemand().doAssertion(() -> (subscriber) ->
+                        subscriber.onError(new IllegalStateException())));
+    }
+
+    @Test
+    void testTimeout() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                publisher().within(Duration.ofMillis(10)).respectsDemand()
+                        .doAssertion(() -> (subscriber) -> {}));
+
+        assertTrue(error.getMessage().startsWith("Expected publisher to complete within"));
+    }
+
+    /**
+     * A synchronous publisher of the numbers from 0 to count (exclusive), which trampolines
+     * requests made from within onNext.
+     */
+    private static final class Range implements Flow.Publisher<Long> {
+
+        private final long count;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private Range(final long count) {
+
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super Long> subscriber) {
+
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private final AtomicLong demand = new AtomicLong();
+                private volatile boolean subscriptionCancelled;
+                private long next;
+                private boolean emitting;
+                private boolean completed;
+
+                @Override
+                public void request(final long n) {
+
+                    demand.addAndGet(n);
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (demand.get() > 0 && next < count && !subscriptionCancelled) {
+                        demand.decrementAndGet();
+                        subscriber.onNext(next++);
+                    }
+                    emitting = false;
+                    if (next == count && !subscriptionCancelled && !completed) {
+                        completed = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+
+                    subscriptionCancelled = true;
+                    cancelled.set(true);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package me.sparky983.spark;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Given.getGiven;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrFlightRecorderTest {
+
+    @Test
+    void testEventsAreCommitted() throws IOException {
+
+        final Path file = Files.createTempFile("spark", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("me.sparky983.spark.Given");
+            recording.enable("me.sparky983.spark.When");
+            recording.enable("me.sparky983.spark.Assertion");
+            recording.start();
+            assertTrue(FlightRecorder.enabled() != null);
+
+            getGiven(() -> "a string")
+                    .when(String::length)
+                    .then(isEqualTo(8));
+
+            recording.stop();
+            recording.dump(file);
+        }
+        assertEquals(null, FlightRecorder.enabled());
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter((event) -> event.getEventType().getName().startsWith("me.sparky983."))
+                .collect(Collectors.toList());
+        final List<String> names = events.stream()
+                .map((event) -> event.getEventType().getName())
+                .collect(Collectors.toList());
+        assertTrue(names.contains("me.sparky983.spark.Given"));
+        assertTrue(names.contains("me.sparky983.spark.When"));
+        assertTrue(names.contains("me.sparky983.spark.Assertion"));
+        for (final RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("me.sparky983.spark.Assertion")) {
+                assertEquals("isEqualTo", event.getString("assertion"));
+                assertTrue(event.getBoolean("passed"));
+            } else if (event.getEventType().getName().equals("me.sparky983.spark.When")) {
+                assertEquals("java.lang.Integer", event.getString("resultType"));
+            }
+        }
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,45 @@
+package me.sparky983.spark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the memory allocated by the current thread.
+ * <p>
+ * Allocation measurement requires HotSpot's {@code com.sun.management.ThreadMXBean}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Allocations {
+
+    private static final com.sun.management.ThreadMXBean THREADS;
+
+    static {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            THREADS = (com.sun.management.ThreadMXBean) threads;
+        } else {
+            THREADS = null;
+        }
+    }
+
+    private Allocations() {
+
+    }
+
+    /**
+     * Returns the total bytes allocated by the current thread.
+     *
+     * @return the total bytes allocated by the current thread, or {@code -1} if allocation
+     * measurement is not supported or disabled.
+     */
+    static long allocatedBytes() {
+
+        if (THREADS == null || !THREADS.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -1,10 +1,19 @@
 package me.sparky983.spark;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
@@ -44,14 +53,95 @@ public interface Assertion<T> {
     static <T> Assertion<T> not(final Assertion<T> assertion) {
 
         Objects.requireNonNull(assertion, "assertion");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("not", (resultSupplier) -> {
             try {
                 assertion.doAssertion(resultSupplier);
             } catch (final AssertionError error) {
                 return;
             }
             throw new AssertionError("Expected <" + assertion + "> to fail");
-        };
+        });
+    }
+
+    /**
+     * Creates a new assertion that polls the specified assertion until it passes, and fails if it
+     * does not pass within the timeout.
+     * <p>
+     * Each poll supplies the result again, so this is intended for results that change
+     * asynchronously. Exceptions thrown while supplying the result fail the poll rather than the
+     * assertion. The delay between polls adapts: it starts at a millisecond and backs off while the
+     * assertion keeps failing in the same way.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(queue)
+     *         .when(Queue::size)
+     *         .then(eventually(isEqualTo(3), Duration.ofSeconds(5)));
+     * }</pre>
+     *
+     * @param assertion the assertion.
+     * @param timeout the maximum time to poll for.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the assertion or timeout is {@code null}.
+     * @throws IllegalArgumentException if the timeout is negative.
+     * @see #eventually(Assertion, Duration, Function)
+     * @since 1.2
+     */
+    static <T> Assertion<T> eventually(final Assertion<T> assertion, final Duration timeout) {
+
+        Objects.requireNonNull(assertion, "assertion");
+        Objects.requireNonNull(timeout, "timeout");
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout cannot be negative");
+        }
+        return new NamedAssertion<>("eventually", (resultSupplier) ->
+                Polling.poll(assertion, resultSupplier, timeout, null));
+    }
+
+    /**
+     * Creates a new assertion that polls the specified assertion until it passes, and fails if it
+     * does not pass within the timeout, like {@link #eventually(Assertion, Duration)}.
+     * <p>
+     * Additionally, the assertion is polled again immediately whenever a change is signalled. The
+     * specified function is called with the signal before the first poll, and should arrange for
+     * it to be run whenever the result may have changed (for example, by registering it as a
+     * listener). The function returns the registration, which is closed once polling has
+     * finished, so that every evaluation of the assertion unregisters its signal again.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(cache)
+     *         .when((cache) -> cache.get("key"))
+     *         .then(eventually(isEqualTo("value"), Duration.ofSeconds(5), (signal) -> {
+     *             cache.addListener(signal);
+     *             return () -> cache.removeListener(signal);
+     *         }));
+     * }</pre>
+     *
+     * @param assertion the assertion.
+     * @param timeout the maximum time to poll for.
+     * @param onChange the function that registers the change signal and returns its
+     * registration.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the assertion, timeout or function is {@code null}.
+     * @throws IllegalArgumentException if the timeout is negative.
+     * @since 1.2
+     */
+    static <T> Assertion<T> eventually(
+            final Assertion<T> assertion,
+            final Duration timeout,
+            final Function<? super Runnable, ? extends AutoCloseable> onChange) {
+
+        Objects.requireNonNull(assertion, "assertion");
+        Objects.requireNonNull(timeout, "timeout");
+        Objects.requireNonNull(onChange, "onChange");
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout cannot be negative");
+        }
+        return new NamedAssertion<>("eventually", (resultSupplier) ->
+                Polling.poll(assertion, resultSupplier, timeout, onChange));
     }
 
     /*
@@ -71,13 +161,13 @@ public interface Assertion<T> {
     static <T> Assertion<T> isInstanceOf(final Class<?> cls) {
 
         Objects.requireNonNull(cls, "cls");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isInstanceOf", (resultSupplier) -> {
             final Object result = resultSupplier.get();
             if (!cls.isInstance(result)) {
                 throw new AssertionError("Input must be of instance <" + cls.getName() + ">, was "
                         + result.getClass().getName());
             }
-        };
+        });
     }
 
     /**
@@ -96,7 +186,7 @@ public interface Assertion<T> {
     static <T> Assertion<T> isEqualTo(final Function<T, ?> methodReference, final Object o) {
 
         Objects.requireNonNull(methodReference, "methodReference");
-        return (receiverSupplier) -> {
+        return new NamedAssertion<>("isEqualTo", (receiverSupplier) -> {
             final T receiver = receiverSupplier.get();
             if (receiver == null) {
                 throw new AssertionError("Receiver was <null>");
@@ -105,7 +195,58 @@ public interface Assertion<T> {
             if (!Objects.equals(o, result)) {
                 throw new AssertionError("Expected <" + o + ">, found <" + result + ">");
             }
-        };
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if any of the specified properties of the result do not
+     * equal their expected values.
+     * <p>
+     * The result is only supplied once, and every property is checked, so the failure message
+     * contains every mismatching property.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(new Person("Sparky", 18))
+     *         .noop()
+     *         .then(hasProperties(
+     *                 property(Person::getName, "Sparky"),
+     *                 property("age", 18)));
+     * }</pre>
+     *
+     * @param properties the properties.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the properties or any of its elements are {@code null}.
+     * @see Property
+     * @since 1.2
+     */
+    @SafeVarargs
+    static <T> Assertion<T> hasProperties(final Property<? super T>... properties) {
+
+        Objects.requireNonNull(properties, "properties");
+        final List<Property<? super T>> propertyList = new ArrayList<>(properties.length);
+        for (final Property<? super T> property : properties) {
+            propertyList.add(Objects.requireNonNull(property, "properties cannot contain null"));
+        }
+        return new NamedAssertion<>("hasProperties", (receiverSupplier) -> {
+            final T receiver = receiverSupplier.get();
+            if (receiver == null) {
+                throw new AssertionError("Receiver was <null>");
+            }
+            final List<String> mismatches = new ArrayList<>();
+            for (int i = 0; i < propertyList.size(); i++) {
+                final String mismatch = propertyList.get(i).mismatch(receiver, i);
+                if (mismatch != null) {
+                    mismatches.add(mismatch);
+                }
+            }
+            if (!mismatches.isEmpty()) {
+                throw new AssertionError("Expected all properties of <" + receiver
+                        + "> to match, " + mismatches.size() + " did not:\n    "
+                        + String.join("\n    ", mismatches));
+            }
+        });
     }
 
     /**
@@ -120,12 +261,53 @@ public interface Assertion<T> {
      */
     static <T> Assertion<T> isEqualTo(final Object o) {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isEqualTo", (resultSupplier) -> {
             final Object result = resultSupplier.get();
             if (!Objects.equals(o, result)) {
                 throw new AssertionError("Expected <" + o + ">, found <" + result + ">");
             }
-        };
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the result is not deeply equal to the other object.
+     * <p>
+     * Deep equality compares objects field by field (including private and inherited fields),
+     * so it does not require the compared classes to implement {@code equals}. Arrays, lists and
+     * other collections are compared element by element, and maps are compared entry by entry.
+     * The elements of sets and the keys of maps are matched with a deeply equal element or key,
+     * regardless of order, and optionals are compared by their values. Enums and JDK classes
+     * that implement {@code equals} (such as {@code String} and {@code BigDecimal}) are compared
+     * with {@code equals}. String builders and atomic holders (such as {@code AtomicInteger})
+     * are compared by their contents. Cyclic object graphs are supported.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(new Person("Sparky", new Address("Street")))
+     *         .when(Person::copy)
+     *         .then(isDeeplyEqualTo(new Person("Sparky", new Address("Street"))));
+     * }</pre>
+     * If the objects are not deeply equal, the failure message contains the path to the first
+     * difference, for example {@code result.address.street}.
+     *
+     * @param o the other object.
+     * @param ignoredFields the names (for example, {@code id}) or paths from the result (for
+     * example, {@code address.id}) of fields that are not compared.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the ignored fields or any of its elements are {@code null}.
+     * @since 1.2
+     */
+    static <T> Assertion<T> isDeeplyEqualTo(final Object o, final String... ignoredFields) {
+
+        Objects.requireNonNull(ignoredFields, "ignoredFields");
+        final Set<String> ignored = DeepEquals.ignoredFields(ignoredFields);
+        return new NamedAssertion<>("isDeeplyEqualTo", (resultSupplier) -> {
+            final String difference = DeepEquals.difference(o, resultSupplier.get(), ignored);
+            if (difference != null) {
+                throw new AssertionError("Expected result to be deeply equal, but " + difference);
+            }
+        });
     }
 
     /**
@@ -140,13 +322,13 @@ public interface Assertion<T> {
      */
     static <T> Assertion<T> isNotEqualTo(final Object o) {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isNotEqualTo", (resultSupplier) -> {
             final Object result = resultSupplier.get();
             if (Objects.equals(o, result)) {
                 throw new AssertionError(
                         "Expected anything but <" + o + ">, found <" + result + ">");
             }
-        };
+        });
     }
 
     /**
@@ -160,7 +342,7 @@ public interface Assertion<T> {
      */
     static <T> Assertion<T> isNotNull() {
 
-        return isNotEqualTo(null);
+        return new NamedAssertion<>("isNotNull", isNotEqualTo(null));
     }
 
     /**
@@ -176,7 +358,7 @@ public interface Assertion<T> {
     static <T> Assertion<T> throwsException(final Class<? extends Throwable> exception) {
 
         Objects.requireNonNull(exception, "exception");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("throwsException", (resultSupplier) -> {
             try {
                 resultSupplier.get();
             } catch (final Throwable throwable) {
@@ -189,7 +371,7 @@ public interface Assertion<T> {
             }
             throw new AssertionError("Expected exception of type <" + exception.getName()
                     + "> to be thrown, found <null>");
-        };
+        });
     }
 
     /**
@@ -209,7 +391,7 @@ public interface Assertion<T> {
         Objects.requireNonNull(exception, "exception cannot be null");
         Objects.requireNonNull(message, "message cannot be null");
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("throwsException", (resultSupplier) -> {
             try {
                 resultSupplier.get();
             } catch (final Throwable throwable) {
@@ -225,7 +407,7 @@ public interface Assertion<T> {
             throw new AssertionError("Expected exception of type <"
                     + exception.getName() + ": " + message
                     + "> to be thrown, found <null>");
-        };
+        });
     }
 
     /**
@@ -237,7 +419,7 @@ public interface Assertion<T> {
      */
     static <T> Assertion<T> doesNotThrow() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("doesNotThrow", (resultSupplier) -> {
             try {
                 resultSupplier.get();
             } catch (final Throwable throwable) {
@@ -245,7 +427,7 @@ public interface Assertion<T> {
                         "Expected no exception, found <" + throwable.getClass().getName() + ": "
                                 + throwable.getMessage() + ">", throwable);
             }
-        };
+        });
     }
 
     /*
@@ -260,7 +442,7 @@ public interface Assertion<T> {
      */
     static Assertion<Boolean> isTrue() {
 
-        return isEqualTo(true);
+        return new NamedAssertion<>("isTrue", isEqualTo(true));
     }
 
     /**
@@ -271,7 +453,7 @@ public interface Assertion<T> {
      */
     static Assertion<Boolean> isFalse() {
 
-        return isEqualTo(false);
+        return new NamedAssertion<>("isFalse", isEqualTo(false));
     }
 
     /*
@@ -287,7 +469,7 @@ public interface Assertion<T> {
     @SuppressWarnings("OptionalAssignedToNull")
     static Assertion<Optional<?>> isPresent() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isPresent", (resultSupplier) -> {
             final Optional<?> result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Expected result to be present, was: <null>");
@@ -296,7 +478,7 @@ public interface Assertion<T> {
             if (!result.isPresent()) {
                 throw new AssertionError("Expected result to be present, was: <Optional.empty>");
             }
-        };
+        });
     }
 
     /**
@@ -308,7 +490,7 @@ public interface Assertion<T> {
     @SuppressWarnings("OptionalAssignedToNull")
     static Assertion<Optional<?>> isEmpty() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isEmpty", (resultSupplier) -> {
             final Optional<?> result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Expected result to be empty, was: <null>");
@@ -317,7 +499,7 @@ public interface Assertion<T> {
             if (result.isPresent()) {
                 throw new AssertionError("Expected result to be empty, was: <" + result + ">");
             }
-        };
+        });
     }
 
     /*
@@ -336,7 +518,7 @@ public interface Assertion<T> {
     static <T extends CharSequence> Assertion<T> startsWith(final String prefix) {
 
         Objects.requireNonNull(prefix, "prefix");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("startsWith", (resultSupplier) -> {
             final CharSequence result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Input was <null>");
@@ -344,7 +526,7 @@ public interface Assertion<T> {
             if (!result.toString().startsWith(prefix)) {
                 throw new AssertionError("Expected <" + result + "> to start with <" + prefix + ">");
             }
-        };
+        });
     }
 
     /**
@@ -359,7 +541,7 @@ public interface Assertion<T> {
     static <T extends CharSequence> Assertion<T> endsWith(final String suffix) {
 
         Objects.requireNonNull(suffix, "suffix");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("endsWith", (resultSupplier) -> {
             final CharSequence result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Input was <null>");
@@ -367,7 +549,7 @@ public interface Assertion<T> {
             if (!result.toString().endsWith(suffix)) {
                 throw new AssertionError("Expected <" + result + "> to end with <" + suffix + ">");
             }
-        };
+        });
     }
 
     /**
@@ -382,7 +564,7 @@ public interface Assertion<T> {
     static <T extends CharSequence> Assertion<T> contains(final CharSequence sub) {
 
         Objects.requireNonNull(sub, "sub");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("contains", (resultSupplier) -> {
             final CharSequence result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Input was <null>");
@@ -390,7 +572,7 @@ public interface Assertion<T> {
             if (!result.toString().contains(sub)) {
                 throw new AssertionError("Expected <" + result + "> to contain <" + sub + ">");
             }
-        };
+        });
     }
 
     /**
@@ -405,7 +587,7 @@ public interface Assertion<T> {
     static <T extends CharSequence> Assertion<T> matches(final Pattern regex) {
 
         Objects.requireNonNull(regex, "regex");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("matches", (resultSupplier) -> {
             final CharSequence result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Input was <null>");
@@ -413,7 +595,7 @@ public interface Assertion<T> {
             if (!regex.matcher(result).matches()) {
                 throw new AssertionError("Expected <" + result + "> to match <" + regex + ">");
             }
-        };
+        });
     }
 
     /**
@@ -448,12 +630,12 @@ public interface Assertion<T> {
     static <T> Assertion<T> isIn(final Collection<?> collection) {
 
         Objects.requireNonNull(collection, "collection");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isIn", (resultSupplier) -> {
             final Object result = resultSupplier.get();
             if (!collection.contains(result)) {
                 throw new AssertionError("Expected <" + collection + "> to contain <" + result + ">");
             }
-        };
+        });
     }
 
     /**
@@ -469,12 +651,12 @@ public interface Assertion<T> {
     static <T> Assertion<T> isNotIn(final Collection<?> collection) {
 
         Objects.requireNonNull(collection, "collection");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isNotIn", (resultSupplier) -> {
             final Object result = resultSupplier.get();
             if (collection.contains(result)) {
                 throw new AssertionError("Expected <" + collection + "> to not contain <" + result + ">");
             }
-        };
+        });
     }
 
     /**
@@ -490,7 +672,7 @@ public interface Assertion<T> {
     static <T extends Collection<E>, E> Assertion<T> allMatch(final Predicate<E> predicate) {
 
         Objects.requireNonNull(predicate, "predicate");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("allMatch", (resultSupplier) -> {
             final T result = resultSupplier.get();
             int i = 0;
             for (E e : result) {
@@ -499,7 +681,7 @@ public interface Assertion<T> {
                 }
                 i++;
             }
-        };
+        });
     }
 
     /**
@@ -515,7 +697,7 @@ public interface Assertion<T> {
     static <T extends Collection<E>, E> Assertion<T> anyMatch(final Predicate<E> predicate) {
 
         Objects.requireNonNull(predicate, "predicate");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("anyMatch", (resultSupplier) -> {
             final T result = resultSupplier.get();
             for (E e : result) {
                 if (predicate.test(e)) {
@@ -523,7 +705,7 @@ public interface Assertion<T> {
                 }
             }
             throw new AssertionError("No elements of <" + result + "> matched the given predicate");
-        };
+        });
     }
 
     /**
@@ -539,7 +721,7 @@ public interface Assertion<T> {
     static <T extends Collection<E>, E> Assertion<T> noneMatch(final Predicate<E> predicate) {
 
         Objects.requireNonNull(predicate, "predicate");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("noneMatch", (resultSupplier) -> {
             final T result = resultSupplier.get();
             int i = 0;
             for (E e : result) {
@@ -548,7 +730,7 @@ public interface Assertion<T> {
                 }
                 i++;
             }
-        };
+        });
     }
 
     /**
@@ -563,7 +745,7 @@ public interface Assertion<T> {
     static <T extends Collection<?>> Assertion<T> contains(final Object... objects) {
 
         Objects.requireNonNull(objects, "objects");
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("contains", (resultSupplier) -> {
             final T result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -573,7 +755,7 @@ public interface Assertion<T> {
                     throw new AssertionError("Expected <" + result + "> to contain <" + o + ">");
                 }
             }
-        };
+        });
     }
 
     /**
@@ -591,7 +773,7 @@ public interface Assertion<T> {
         if (index < 0) {
             throw new IndexOutOfBoundsException("index must be positive");
         }
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("indexEquals", (resultSupplier) -> {
             final T result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("result was <null>");
@@ -602,7 +784,7 @@ public interface Assertion<T> {
             if (!Objects.equals(o, result.get(index))) {
                 throw new AssertionError("result[" + index + "] does not equal <" + o + ">");
             }
-        };
+        });
     }
 
     /**
@@ -616,14 +798,14 @@ public interface Assertion<T> {
      */
     static <T extends Collection<E>, E> Assertion<T> isModifiable() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isModifiable", (resultSupplier) -> {
             final T result = resultSupplier.get();
             try {
                 result.add(null);
             } catch (final UnsupportedOperationException e) {
                 throw new AssertionError("result (<" + result + ">) is unmodifiable");
             }
-        };
+        });
     }
 
     /**
@@ -637,7 +819,7 @@ public interface Assertion<T> {
      */
     static <T extends Collection<?>> Assertion<T> isUnmodifiable() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isUnmodifiable", (resultSupplier) -> {
             final T result = resultSupplier.get();
             try {
                 result.add(null);
@@ -645,7 +827,7 @@ public interface Assertion<T> {
             } catch (final UnsupportedOperationException e) {
                 // it is unmodifiable
             }
-        };
+        });
     }
 
     /*
@@ -667,7 +849,7 @@ public interface Assertion<T> {
         if (min > max) {
             throw new IllegalArgumentException("min must be less than or equal to max");
         }
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isInRange", (resultSupplier) -> {
             final Number result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -676,7 +858,7 @@ public interface Assertion<T> {
                 throw new AssertionError("Expected <" + result + "> to be in range <" + min + "-"
                         + max + ">");
             }
-        };
+        });
     }
 
     /**
@@ -690,7 +872,7 @@ public interface Assertion<T> {
      */
     static <T extends Number> Assertion<T> isGreaterThan(final int min) {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isGreaterThan", (resultSupplier) -> {
             final Number result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -699,7 +881,7 @@ public interface Assertion<T> {
                 throw new AssertionError("Expected <" + result + "> to be greater than <" + min
                         + ">");
             }
-        };
+        });
     }
 
     /**
@@ -713,7 +895,7 @@ public interface Assertion<T> {
      */
     static <T extends Number> Assertion<T> isLessThan(final int max) {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isLessThan", (resultSupplier) -> {
             final Number result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -721,7 +903,7 @@ public interface Assertion<T> {
             if (max <= result.doubleValue()) {
                 throw new AssertionError("Expected <" + result + "> to be less than <" + max + ">");
             }
-        };
+        });
     }
 
     /**
@@ -733,7 +915,7 @@ public interface Assertion<T> {
      */
     static <T extends Number> Assertion<T> isPositive() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isPositive", (resultSupplier) -> {
             final Number result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -741,7 +923,7 @@ public interface Assertion<T> {
             if (result.doubleValue() <= 0) {
                 throw new AssertionError("Expected result to be positive, was <" + result.doubleValue() + ">");
             }
-        };
+        });
     }
 
     /**
@@ -753,7 +935,7 @@ public interface Assertion<T> {
      */
     static <T extends Number> Assertion<T> isNegative() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isNegative", (resultSupplier) -> {
             final Number result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -761,7 +943,7 @@ public interface Assertion<T> {
             if (result.doubleValue() >= 0) {
                 throw new AssertionError("Expected result to be negative, was <" + result.doubleValue() + ">");
             }
-        };
+        });
     }
 
     /**
@@ -773,7 +955,7 @@ public interface Assertion<T> {
      */
     static <T extends Number> Assertion<T> isNotPositive() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isNotPositive", (resultSupplier) -> {
             final Number result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -781,7 +963,7 @@ public interface Assertion<T> {
             if (result.doubleValue() > 0) {
                 throw new AssertionError("Expected result to be not positive, was <" + result.doubleValue() + ">");
             }
-        };
+        });
     }
 
     /**
@@ -793,7 +975,7 @@ public interface Assertion<T> {
      */
     static <T extends Number> Assertion<T> isNotNegative() {
 
-        return (resultSupplier) -> {
+        return new NamedAssertion<>("isNotNegative", (resultSupplier) -> {
             final Number result = resultSupplier.get();
             if (result == null) {
                 throw new AssertionError("Result was <null>");
@@ -801,6 +983,997 @@ public interface Assertion<T> {
             if (result.doubleValue() < 0) {
                 throw new AssertionError("Expected result to be not negative, was <" + result.doubleValue() + ">");
             }
-        };
+        });
+    }
+
+    /*
+    Snapshot assertions
+     */
+
+    /**
+     * Creates a new assertion that fails if the result does not match the snapshot with the
+     * specified name.
+     * <p>
+     * The result is serialized with {@link SnapshotSerializer#string()}.
+     *
+     * @param name the name of the snapshot.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the name is {@code null}.
+     * @see #matchesSnapshot(String, SnapshotSerializer)
+     * @since 1.2
+     */
+    static <T> Assertion<T> matchesSnapshot(final String name) {
+
+        return matchesSnapshot(name, SnapshotSerializer.string());
+    }
+
+    /**
+     * Creates a new assertion that fails if the serialized result does not match the snapshot with
+     * the specified name.
+     * <p>
+     * Snapshots are stored in a file per test class (the class that calls this method) in the
+     * directory specified by the {@code spark.snapshot.dir} system property, which is
+     * {@code src/test/resources/spark-snapshots} by default. If the snapshot has not been
+     * recorded yet, the result is recorded as the snapshot, unless the tests run on CI (the
+     * {@code spark.snapshot.ci} system property, which defaults to whether the {@code CI}
+     * environment variable is set), where the assertion fails instead. If the
+     * {@code spark.snapshot.update} system property is {@code true}, a mismatching or missing
+     * result is recorded instead of failing.
+     *
+     * @param name the name of the snapshot.
+     * @param serializer the serializer of the result.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the name or serializer is {@code null}.
+     * @since 1.2
+     */
+    static <T> Assertion<T> matchesSnapshot(final String name,
+                                            final SnapshotSerializer<? super T> serializer) {
+
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(serializer, "serializer");
+        final SnapshotStore store = SnapshotStore.forClass(Callers.callerOf(Assertion.class));
+        return new NamedAssertion<>("matchesSnapshot", (resultSupplier) -> {
+            final byte[] snapshot = serializer.serialize(resultSupplier.get());
+            if (snapshot == null) {
+                throw new AssertionError("Serialized result was <null>");
+            }
+            final boolean ci = Boolean.parseBoolean(System.getProperty("spark.snapshot.ci",
+                    String.valueOf(System.getenv("CI") != null)));
+            store.verify(name, snapshot, Boolean.getBoolean("spark.snapshot.update"), !ci);
+        });
+    }
+
+    /*
+    Performance assertions
+     */
+
+    /**
+     * Creates a new assertion that fails if the when-function is significantly slower than the
+     * recorded baseline with the specified key.
+     * <p>
+     * The when-function is warmed up, then called repeatedly to take {@code 30} samples of how
+     * long it takes. The samples are compared with the baseline by a one-sided Welch's t-test, and
+     * the assertion fails if they are slower than the baseline plus the tolerance at a
+     * significance level of 1%. This means that slowdowns smaller than the noise of the
+     * measurements are not reported.
+     * <p>
+     * Baselines are stored in a properties file per test class (the class that calls this method)
+     * in the directory specified by the {@code spark.baseline.dir} system property, which is
+     * {@code src/test/resources/spark-baselines} by default. If the baseline has not been recorded
+     * yet, the samples are recorded as the baseline, unless the tests run on CI (the
+     * {@code spark.baseline.ci} system property, which defaults to whether the {@code CI}
+     * environment variable is set), where the assertion fails instead. If the
+     * {@code spark.baseline.record} system property is {@code true}, the samples are always
+     * recorded instead of being compared. Baselines are only meaningful on the machine that
+     * recorded them.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(largeDocument)
+     *         .when(Parser::parse)
+     *         .then(isNotSlowerThanBaseline("parse.large", 0.1));
+     * }</pre>
+     *
+     * @param key the key of the baseline.
+     * @param tolerance the fraction of the baseline that the when-function may be slower by, for
+     * example, {@code 0.1} for 10%.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the key is {@code null}.
+     * @throws IllegalArgumentException if the tolerance is negative or not finite.
+     * @since 1.2
+     */
+    static <T> Assertion<T> isNotSlowerThanBaseline(final String key, final double tolerance) {
+
+        Objects.requireNonNull(key, "key");
+        if (!(tolerance >= 0) || Double.isInfinite(tolerance)) {
+            throw new IllegalArgumentException("tolerance must be non-negative and finite");
+        }
+        final BaselineStore store = BaselineStore.forClass(Callers.callerOf(Assertion.class));
+        return new NamedAssertion<>("isNotSlowerThanBaseline", (resultSupplier) -> {
+            final double[] samples = Benchmark.warmUp(resultSupplier).samples(Benchmark.SAMPLES);
+            final boolean ci = Boolean.parseBoolean(System.getProperty("spark.baseline.ci",
+                    String.valueOf(System.getenv("CI") != null)));
+            store.verify(key, samples, tolerance, Boolean.getBoolean("spark.baseline.record"),
+                    !ci);
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function is not faster than the specified
+     * alternative with the specified confidence.
+     * <p>
+     * Both functions are warmed up, then samples of how long they take are taken alternately, so
+     * that drift in the performance of the machine affects both equally. The samples are compared
+     * by a one-sided Mann-Whitney U test, which makes no assumption about the distribution of the
+     * timings. The failure message reports the speedup (the ratio of the median times) with a
+     * bootstrap confidence interval.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(input)
+     *         .when(NewSorter::sort)
+     *         .then(isFasterThan(() -> OldSorter.sort(input), 0.99));
+     * }</pre>
+     *
+     * @param alternative the alternative, usually the implementation being replaced.
+     * @param confidence the confidence that the when-function is faster, between {@code 0} and
+     * {@code 1} (exclusive), for example, {@code 0.99}.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the alternative is {@code null}.
+     * @throws IllegalArgumentException if the confidence is not between {@code 0} and {@code 1}
+     * (exclusive).
+     * @since 1.2
+     */
+    static <T> Assertion<T> isFasterThan(final Supplier<?> alternative, final double confidence) {
+
+        Objects.requireNonNull(alternative, "alternative");
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be between 0 and 1 (exclusive)");
+        }
+        return new NamedAssertion<>("isFasterThan", (resultSupplier) -> {
+            final double[][] samples = Benchmark.interleave(Benchmark.warmUp(resultSupplier),
+                    Benchmark.warmUp(alternative), Benchmark.SAMPLES);
+            final double p = Statistics.mannWhitneyTest(samples[0], samples[1]);
+            if (p > 1 - confidence) {
+                final double speedup = Statistics.median(samples[1])
+                        / Statistics.median(samples[0]);
+                final double[] interval =
+                        Statistics.bootstrapMedianRatio(samples[1], samples[0], confidence);
+                throw new AssertionError(String.format(Locale.ROOT,
+                        "Expected result to be faster than the alternative with %.1f%% "
+                                + "confidence, found a speedup of %.2fx (%.1f%% confidence "
+                                + "interval %.2fx to %.2fx, p = %.4f)",
+                        confidence * 100, speedup, confidence * 100, interval[0], interval[1],
+                        p));
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the time taken by the when-function grows faster than
+     * the specified complexity as the size of its input grows.
+     * <p>
+     * The when-function is timed on new inputs of each size (see
+     * {@link Given#sized(IntFunction, int...)}), and the timings are fitted to each complexity
+     * with least squares. The assertion fails if the best fit is more complex than the specified
+     * complexity. Of fits that are almost as good, the simplest is preferred, so that noise does
+     * not make a function look more complex than it is.
+     *
+     * @param complexity the complexity.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the complexity is {@code null}.
+     * @see #allocationScalesAtMost(Complexity)
+     * @since 1.2
+     */
+    static <T> Assertion<T> scalesAtMost(final Complexity complexity) {
+
+        Objects.requireNonNull(complexity, "complexity");
+        return new NamedAssertion<>("scalesAtMost", (resultSupplier) ->
+                Scaling.current("scalesAtMost").verifyTime(complexity));
+    }
+
+    /**
+     * Creates a new assertion that fails if the memory allocated by the when-function grows
+     * faster than the specified complexity as the size of its input grows.
+     * <p>
+     * This is like {@link #scalesAtMost(Complexity)}, except that the bytes allocated by the
+     * when-function are measured rather than the time it takes. Allocations are much less noisy
+     * than timings, so this is preferred when the cost of the when-function is dominated by
+     * allocation.
+     *
+     * @param complexity the complexity.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the complexity is {@code null}.
+     * @see #scalesAtMost(Complexity)
+     * @since 1.2
+     */
+    static <T> Assertion<T> allocationScalesAtMost(final Complexity complexity) {
+
+        Objects.requireNonNull(complexity, "complexity");
+        return new NamedAssertion<>("allocationScalesAtMost", (resultSupplier) ->
+                Scaling.current("allocationScalesAtMost").verifyAllocation(complexity));
+    }
+
+    /*
+    Memory assertions
+     */
+
+    /**
+     * Creates a new assertion that fails if more than the specified numbers of young and old
+     * garbage collections happen while the when-function runs in a steady state.
+     * <p>
+     * The when-function is warmed up first (so that one-off allocations, such as class loading
+     * and lazy initialization, are not counted) and is then called repeatedly while the
+     * collections of each garbage collector are counted. Garbage collection is global, so the
+     * collections caused by other threads are counted too. The concurrent cycles and pauses of
+     * concurrent collectors (such as {@code G1 Concurrent GC}, {@code ZGC Cycles} and
+     * {@code Shenandoah Pauses}) are not counted as old collections, so with ZGC or Shenandoah no
+     * old collections are counted.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(orderBook)
+     *         .when((book) -> book.match(order))
+     *         .then(isNotNull())
+     *         .and(causesAtMostGcs(Integer.MAX_VALUE, 0));
+     * }</pre>
+     *
+     * @param young the maximum number of young (minor) collections.
+     * @param old the maximum number of old (major and full) collections.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws IllegalArgumentException if either maximum is negative.
+     * @see #gcPauseTimeAtMost(Duration)
+     * @since 1.2
+     */
+    static <T> Assertion<T> causesAtMostGcs(final int young, final int old) {
+
+        if (young < 0 || old < 0) {
+            throw new IllegalArgumentException("young and old cannot be negative");
+        }
+        return new NamedAssertion<>("causesAtMostGcs", (resultSupplier) -> {
+            final GcActivity activity = GcActivity.steadyState(resultSupplier);
+            final long youngCollections = activity.collections(true);
+            final long oldCollections = activity.collections(false);
+            if (youngCollections > young || oldCollections > old) {
+                throw new AssertionError("Expected at most <" + young + "> young and <" + old
+                        + "> old collections, found <" + youngCollections + "> young and <"
+                        + oldCollections + "> old collections (" + activity.breakdown() + ")");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if more than the specified time is spent in garbage
+     * collection pauses while the when-function runs in a steady state.
+     * <p>
+     * The when-function is run like {@link #causesAtMostGcs(int, int)}. The time of concurrent
+     * collection cycles is not counted, only pauses.
+     *
+     * @param maximum the maximum pause time.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the maximum is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative.
+     * @see #causesAtMostGcs(int, int)
+     * @since 1.2
+     */
+    static <T> Assertion<T> gcPauseTimeAtMost(final Duration maximum) {
+
+        Objects.requireNonNull(maximum, "maximum");
+        if (maximum.isNegative()) {
+            throw new IllegalArgumentException("maximum cannot be negative");
+        }
+        return new NamedAssertion<>("gcPauseTimeAtMost", (resultSupplier) -> {
+            final GcActivity activity = GcActivity.steadyState(resultSupplier);
+            final long pauseMillis = activity.pauseMillis();
+            if (pauseMillis > maximum.toMillis()) {
+                throw new AssertionError("Expected at most <" + maximum + "> of collection "
+                        + "pauses, found <" + Duration.ofMillis(pauseMillis) + "> ("
+                        + activity.breakdown() + ")");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the heap keeps growing while the when-function is
+     * called repeatedly.
+     * <p>
+     * The when-function is called the specified number of times to warm up, and then the same
+     * number of times in each of several phases. Garbage is collected after each phase, and the
+     * assertion fails if the used heap grew after every phase (by more than a small threshold in
+     * total), which means that each call leaves behind objects that are never collected. The
+     * number of iterations should be large enough for a leak to add up.
+     *
+     * @param iterations the number of calls in each phase.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws IllegalArgumentException if the number of iterations is not positive.
+     * @see #doesNotRetain(Function)
+     * @since 1.2
+     */
+    static <T> Assertion<T> doesNotLeak(final int iterations) {
+
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("iterations must be positive");
+        }
+        return new NamedAssertion<>("doesNotLeak", (resultSupplier) ->
+                Leaks.verifyNoGrowth(resultSupplier, iterations));
+    }
+
+    /**
+     * Creates a new assertion that fails if the object extracted from the result is still
+     * reachable once the result is no longer used.
+     * <p>
+     * The object is tracked with a {@link java.lang.ref.WeakReference}, and garbage is collected
+     * until it is collected. If it is not collected, something outside the scenario still
+     * references it, such as a listener registered with the given object, or a static cache.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(eventBus)
+     *         .when((bus) -> new Widget(bus).dispose())
+     *         .then(doesNotRetain((widget) -> widget));
+     * }</pre>
+     *
+     * @param extractor the function that extracts the object from the result.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the extractor is {@code null}.
+     * @see #doesNotLeak(int)
+     * @since 1.2
+     */
+    static <T> Assertion<T> doesNotRetain(final Function<? super T, ?> extractor) {
+
+        Objects.requireNonNull(extractor, "extractor");
+        return new NamedAssertion<>("doesNotRetain", (resultSupplier) ->
+                Leaks.verifyCollected(resultSupplier, extractor));
+    }
+
+    /**
+     * Creates a new assertion that fails if the change in the number of live instances of the
+     * specified class caused by the when-function does not match the specified predicate.
+     * <p>
+     * A histogram of the live objects on the heap is taken before and after the when-function is
+     * called once, while its result is still reachable, so the change counts the instances that
+     * were created and are still referenced, minus the instances that became unreachable. Taking
+     * a histogram performs a full collection. Histograms are taken with the HotSpot
+     * {@code DiagnosticCommand} MBean, and on JVMs without it the assertion is skipped and always
+     * passes.
+     *
+     * @param type the class, matched by its binary name (for example {@code [B} for byte arrays).
+     * @param predicate the predicate that the change in the number of instances must match.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the class or predicate is {@code null}.
+     * @see #instanceGrowthAtMost(Class, long)
+     * @since 1.2
+     */
+    static <T> Assertion<T> instancesOf(final Class<?> type, final LongPredicate predicate) {
+
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(predicate, "predicate");
+        return new NamedAssertion<>("instancesOf", (resultSupplier) -> {
+            if (!ClassHistogram.isSupported()) {
+                return;
+            }
+            final long growth = ClassHistogram.instanceGrowth(type, resultSupplier);
+            if (!predicate.test(growth)) {
+                throw new AssertionError("Change in the number of instances of <"
+                        + type.getName() + "> (<" + growth + ">) did not match the given "
+                        + "predicate");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function increases the number of live
+     * instances of the specified class by more than the specified maximum.
+     * <p>
+     * The instances are counted like {@link #instancesOf(Class, LongPredicate)}. For example, a
+     * cache that should reuse its nodes on a hit:
+     * <pre>{@code
+     * given(cache)
+     *         .when((c) -> c.get("key"))
+     *         .then(instanceGrowthAtMost(Node.class, 0));
+     * }</pre>
+     *
+     * @param type the class, matched by its binary name (for example {@code [B} for byte arrays).
+     * @param maximum the maximum increase in the number of instances.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the class is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative.
+     * @see #instancesOf(Class, LongPredicate)
+     * @since 1.2
+     */
+    static <T> Assertion<T> instanceGrowthAtMost(final Class<?> type, final long maximum) {
+
+        Objects.requireNonNull(type, "type");
+        if (maximum < 0) {
+            throw new IllegalArgumentException("maximum cannot be negative");
+        }
+        return new NamedAssertion<>("instanceGrowthAtMost", (resultSupplier) -> {
+            if (!ClassHistogram.isSupported()) {
+                return;
+            }
+            final long growth = ClassHistogram.instanceGrowth(type, resultSupplier);
+            if (growth > maximum) {
+                throw new AssertionError("Expected at most <" + maximum + "> new instances of <"
+                        + type.getName() + ">, found <" + growth + ">");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the off-heap memory used by direct and mapped buffers
+     * grows by more than the specified number of bytes once the when-function has completed.
+     * <p>
+     * The {@code direct} and {@code mapped} buffer pools are measured before and after the
+     * when-function is called once. The memory of a buffer is only released after the buffer has
+     * been garbage collected, so before each measurement garbage is collected and the cleaners
+     * are waited for. The result of the when-function is unreachable by the second measurement,
+     * so buffers that it returns are only counted if something else still references them.
+     *
+     * @param bytes the maximum growth, in bytes.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws IllegalArgumentException if the maximum is negative.
+     * @see #releasesAllDirectBuffers()
+     * @since 1.2
+     */
+    static <T> Assertion<T> directMemoryGrowthAtMost(final long bytes) {
+
+        if (bytes < 0) {
+            throw new IllegalArgumentException("bytes cannot be negative");
+        }
+        return new NamedAssertion<>("directMemoryGrowthAtMost", (resultSupplier) -> {
+            final BufferPools before = BufferPools.settle();
+            resultSupplier.get();
+            final BufferPools after = BufferPools.settle();
+            final long growth = after.memoryUsed() - before.memoryUsed();
+            if (growth > bytes) {
+                throw new AssertionError("Expected direct memory to grow by at most <" + bytes
+                        + "> bytes, found <" + growth + "> bytes (" + after.breakdown(before)
+                        + ")");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if any direct or mapped buffer allocated by the
+     * when-function is still allocated once the when-function has completed.
+     * <p>
+     * The buffers are measured like {@link #directMemoryGrowthAtMost(long)}, and the assertion
+     * fails if either the number of buffers or the memory they use has grown.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(channel)
+     *         .when((c) -> c.read(request))
+     *         .then(releasesAllDirectBuffers());
+     * }</pre>
+     *
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @see #directMemoryGrowthAtMost(long)
+     * @since 1.2
+     */
+    static <T> Assertion<T> releasesAllDirectBuffers() {
+
+        return new NamedAssertion<>("releasesAllDirectBuffers", (resultSupplier) -> {
+            final BufferPools before = BufferPools.settle();
+            resultSupplier.get();
+            final BufferPools after = BufferPools.settle();
+            if (after.count() > before.count() || after.memoryUsed() > before.memoryUsed()) {
+                throw new AssertionError("Expected all direct buffers to be released, found <"
+                        + (after.count() - before.count()) + "> unreleased buffers ("
+                        + after.breakdown(before) + ")");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function opens a file descriptor that is
+     * still open once it has completed, such as an unclosed stream, channel or socket.
+     * <p>
+     * The open file descriptors of the process are compared before and after the when-function is
+     * called once. On Linux the failure lists what the leaked descriptors refer to, and on other
+     * Unix systems only their number is known. On systems where file descriptors cannot be
+     * measured, the assertion is skipped and always passes. Descriptors opened by other threads
+     * in the meantime are counted too.
+     *
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @see #terminatesAllThreads()
+     * @since 1.2
+     */
+    static <T> Assertion<T> closesAllFileDescriptors() {
+
+        return new NamedAssertion<>("closesAllFileDescriptors", (resultSupplier) -> {
+            if (!FileDescriptors.isSupported()) {
+                return;
+            }
+            final FileDescriptors before = FileDescriptors.open();
+            resultSupplier.get();
+            final FileDescriptors after = FileDescriptors.open();
+            final long opened = after.openedSince(before);
+            if (opened > 0) {
+                throw new AssertionError("Expected all file descriptors to be closed, found <"
+                        + opened + "> open file descriptors ("
+                        + after.describeOpenedSince(before) + ")");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function starts a thread that is still
+     * alive once it has completed, such as a worker of an executor that was never shut down.
+     * <p>
+     * The live threads are compared before and after the when-function is called once, waiting
+     * briefly for the new threads to terminate. The failure lists the stack traces of the leaked
+     * threads. Threads that the JVM manages itself, such as the workers of the common fork-join
+     * pool, are ignored.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(config)
+     *         .when((c) -> {
+     *             try (Server server = Server.start(c)) {
+     *                 return server.status();
+     *             }
+     *         })
+     *         .then(terminatesAllThreads());
+     * }</pre>
+     *
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @see #closesAllFileDescriptors()
+     * @since 1.2
+     */
+    static <T> Assertion<T> terminatesAllThreads() {
+
+        return new NamedAssertion<>("terminatesAllThreads", (resultSupplier) -> {
+            final LiveThreads before = LiveThreads.alive();
+            resultSupplier.get();
+            final List<Thread> started = LiveThreads.alive().startedSince(before);
+            if (!started.isEmpty()) {
+                throw new AssertionError("Expected all threads to be terminated, found <"
+                        + started.size() + "> running threads:" + LiveThreads.describe(started));
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if a call of the when-function uses more than the
+     * specified CPU time in a steady state.
+     * <p>
+     * The when-function is warmed up, and then the CPU time of a call is measured in several
+     * batches, and the median is compared with the maximum. The CPU time of every thread is
+     * measured, so work that the when-function hands to other threads (its own threads, existing
+     * executors or the common pool) is counted, as long as those threads are still alive after
+     * each batch. Other threads that are busy at the same time are counted too. Unlike wall-clock
+     * time, CPU time is mostly independent of the load of the machine.
+     *
+     * @param maximum the maximum CPU time of a call.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the maximum is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative.
+     * @see #ioBytesAtMost(long, long)
+     * @since 1.2
+     */
+    static <T> Assertion<T> cpuTimeAtMost(final Duration maximum) {
+
+        Objects.requireNonNull(maximum, "maximum");
+        if (maximum.isNegative()) {
+            throw new IllegalArgumentException("maximum cannot be negative");
+        }
+        return new NamedAssertion<>("cpuTimeAtMost", (resultSupplier) -> {
+            if (!CpuTime.isSupported()) {
+                throw new IllegalStateException("CPU time measurement is not supported");
+            }
+            final double nanos = CpuTime.steadyState(resultSupplier);
+            if (nanos > maximum.toNanos()) {
+                throw new AssertionError("Expected at most <" + maximum + "> of CPU time per "
+                        + "call, found <" + Duration.ofNanos(Math.round(nanos)) + ">");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function reads or writes more than the
+     * specified number of bytes.
+     * <p>
+     * The bytes passed to I/O system calls by the process are measured with the {@code rchar} and
+     * {@code wchar} counters of {@code /proc/self/io}, so reads of files in the page cache are
+     * counted too. The when-function is called once first, so that class loading is not counted,
+     * and then measured for a second call. The counters are per process, so I/O by other threads
+     * in the meantime is counted too. On systems other than Linux the assertion is skipped and
+     * always passes.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(cachedRepository)
+     *         .when((repository) -> repository.find(id))
+     *         .then(ioBytesAtMost(0, 0));
+     * }</pre>
+     *
+     * @param read the maximum number of bytes read.
+     * @param written the maximum number of bytes written.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws IllegalArgumentException if either maximum is negative.
+     * @see #cpuTimeAtMost(Duration)
+     * @since 1.2
+     */
+    static <T> Assertion<T> ioBytesAtMost(final long read, final long written) {
+
+        if (read < 0 || written < 0) {
+            throw new IllegalArgumentException("read and written cannot be negative");
+        }
+        return new NamedAssertion<>("ioBytesAtMost", (resultSupplier) -> {
+            if (!IoCounters.isSupported()) {
+                return;
+            }
+            resultSupplier.get();
+            final IoCounters io = IoCounters.during(resultSupplier::get);
+            if (io.read() > read || io.written() > written) {
+                throw new AssertionError("Expected at most <" + read + "> bytes read and <"
+                        + written + "> bytes written, found <" + io.read() + "> bytes read and <"
+                        + io.written() + "> bytes written");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if threads calling the when-function concurrently spend
+     * more than the specified time blocked on monitors, using one thread per available processor
+     * (and at least two).
+     *
+     * @param maximum the maximum blocked time of all threads.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the maximum is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative.
+     * @see #blockedTimeAtMost(Duration, int)
+     * @since 1.2
+     */
+    static <T> Assertion<T> blockedTimeAtMost(final Duration maximum) {
+
+        return blockedTimeAtMost(maximum, Math.max(Runtime.getRuntime().availableProcessors(), 2));
+    }
+
+    /**
+     * Creates a new assertion that fails if threads calling the when-function concurrently spend
+     * more than the specified time blocked on monitors.
+     * <p>
+     * The when-function is called once from each of the specified number of threads, all starting
+     * at the same time, with thread contention monitoring enabled. The time each thread spent
+     * blocked entering {@code synchronized} blocks is summed and compared with the maximum, and
+     * the failure lists the blocked and waited counts and times of each thread. While the threads
+     * run, they are checked for deadlocks, and a deadlock fails the assertion immediately with the
+     * stack traces of the deadlocked threads and the locks they hold. Threads that have not
+     * finished within 30 seconds fail the assertion with their stack traces.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(registry)
+     *         .when((r) -> r.lookup("service"))
+     *         .then(blockedTimeAtMost(Duration.ofMillis(10), 8));
+     * }</pre>
+     *
+     * @param maximum the maximum blocked time of all threads.
+     * @param threads the number of threads.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the maximum is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative or the number of threads is not
+     * positive.
+     * @see #blockedTimeAtMost(Duration)
+     * @see #blockedTimeAtMost(Duration, int, Duration)
+     * @since 1.2
+     */
+    static <T> Assertion<T> blockedTimeAtMost(final Duration maximum, final int threads) {
+
+        return blockedTimeAtMost(maximum, threads, Contention.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a new assertion that fails if threads calling the when-function concurrently spend
+     * more than the specified time blocked on monitors, or do not finish within the specified
+     * timeout.
+     * <p>
+     * This is {@link #blockedTimeAtMost(Duration, int)} with a timeout. Threads that are still
+     * running when the timeout elapses are interrupted, and the failure includes their stack
+     * traces.
+     *
+     * @param maximum the maximum blocked time of all threads.
+     * @param threads the number of threads.
+     * @param timeout the maximum time to wait for the threads to finish.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the maximum or timeout is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative, the number of threads is not
+     * positive or the timeout is not positive.
+     * @see #blockedTimeAtMost(Duration, int)
+     * @since 1.2
+     */
+    static <T> Assertion<T> blockedTimeAtMost(final Duration maximum,
+                                              final int threads,
+                                              final Duration timeout) {
+
+        Objects.requireNonNull(maximum, "maximum");
+        Objects.requireNonNull(timeout, "timeout");
+        if (maximum.isNegative()) {
+            throw new IllegalArgumentException("maximum cannot be negative");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        return new NamedAssertion<>("blockedTimeAtMost", (resultSupplier) -> {
+            final Contention contention = Contention.measure(resultSupplier, threads, timeout);
+            final long blockedMillis = contention.blockedMillis();
+            if (blockedMillis > maximum.toMillis()) {
+                throw new AssertionError("Expected at most <" + maximum + "> of blocked time, "
+                        + "found <" + Duration.ofMillis(blockedMillis) + "> ("
+                        + contention.breakdown() + ")");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function blocks the thread that calls it,
+     * for code that runs on event-loop threads and must never block.
+     * <p>
+     * The when-function is called once, and fails if it sleeps, waits ({@link Object#wait()},
+     * {@code Future.get()}, {@code Lock.lock()} and anything else that parks the thread), blocks
+     * entering a {@code synchronized} block, or blocks on file or socket I/O. Waiting and
+     * blocking on monitors are detected exactly, while blocking I/O is detected by sampling the
+     * stack of the thread, so very short I/O may be missed. The failure includes the stack traces
+     * of the blocking calls that were sampled. Blocking while loading classes is ignored.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(handler)
+     *         .when((h) -> h.onMessage(message))
+     *         .then(neverBlocks());
+     * }</pre>
+     *
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @see #blockedTimeAtMost(Duration)
+     * @since 1.2
+     */
+    static <T> Assertion<T> neverBlocks() {
+
+        return new NamedAssertion<>("neverBlocks", (resultSupplier) -> {
+            final Blocking blocking = Blocking.during(resultSupplier::get);
+            if (blocking.blocked()) {
+                throw new AssertionError("Expected the when-function never to block, found "
+                        + blocking.describe());
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function invokes the specified method of a
+     * spied given without parameters more than the specified number of times.
+     *
+     * @param method a method reference to the method, such as {@code Repository::count}.
+     * @param maximum the maximum number of invocations.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @param <I> the type of the spied interface.
+     * @throws NullPointerException if the method reference is {@code null}.
+     * @throws IllegalArgumentException if the method reference is a lambda, or the maximum is
+     * negative.
+     * @see Given#withSpy(Class, Object)
+     * @see #invokesAtMost(SpyMethod.OneArg, long)
+     * @since 1.2
+     */
+    static <T, I> Assertion<T> invokesAtMost(final SpyMethod.NoArgs<I> method,
+                                             final long maximum) {
+
+        Objects.requireNonNull(method, "method");
+        return Spy.invokesAtMost(Spy.signatureOf(method), maximum);
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function invokes the specified method of a
+     * spied given more than the specified number of times.
+     *
+     * The invocations are counted while the when-function is called once, and the assertion can
+     * only be performed on givens created by {@link Given#withSpy(Class, Object)}. The method is
+     * identified from the method reference, so it must be a method reference rather than a
+     * lambda. There is an overload for each number of parameters.
+     * <p>
+     * A method reference to an overloaded method, such as {@code Repository::find} when both
+     * {@code find(long)} and {@code find(long, int)} are declared, does not compile because the
+     * overload cannot be inferred. Such methods can be passed to
+     * {@link #invokesAtMost(Method, long)} instead.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * withSpy(Repository.class, repository)
+     *         .when((r) -> new OrderService(r).loadOrders(customer))
+     *         .then(invokesAtMost(Repository::findById, 1));
+     * }</pre>
+     *
+     * @param method a method reference to the method, such as {@code Repository::findById}.
+     * @param maximum the maximum number of invocations.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @param <I> the type of the spied interface.
+     * @throws NullPointerException if the method reference is {@code null}.
+     * @throws IllegalArgumentException if the method reference is a lambda, or the maximum is
+     * negative.
+     * @see Given#withSpy(Class, Object)
+     * @see #invokesAtMost(SpyMethod.NoArgs, long)
+     * @since 1.2
+     */
+    static <T, I, A> Assertion<T> invokesAtMost(final SpyMethod.OneArg<I, A> method,
+                                                final long maximum) {
+
+        Objects.requireNonNull(method, "method");
+        return Spy.invokesAtMost(Spy.signatureOf(method), maximum);
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function invokes the specified method of a
+     * spied given with two parameters more than the specified number of times.
+     *
+     * @param method a method reference to the method, such as {@code Repository::save}.
+     * @param maximum the maximum number of invocations.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @param <I> the type of the spied interface.
+     * @throws NullPointerException if the method reference is {@code null}.
+     * @throws IllegalArgumentException if the method reference is a lambda, or the maximum is
+     * negative.
+     * @see Given#withSpy(Class, Object)
+     * @see #invokesAtMost(SpyMethod.OneArg, long)
+     * @since 1.2
+     */
+    static <T, I, A, B> Assertion<T> invokesAtMost(final SpyMethod.TwoArgs<I, A, B> method,
+                                                   final long maximum) {
+
+        Objects.requireNonNull(method, "method");
+        return Spy.invokesAtMost(Spy.signatureOf(method), maximum);
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function invokes the specified method of a
+     * spied given with three parameters more than the specified number of times.
+     *
+     * @param method a method reference to the method, such as {@code Repository::update}.
+     * @param maximum the maximum number of invocations.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @param <I> the type of the spied interface.
+     * @throws NullPointerException if the method reference is {@code null}.
+     * @throws IllegalArgumentException if the method reference is a lambda, or the maximum is
+     * negative.
+     * @see Given#withSpy(Class, Object)
+     * @see #invokesAtMost(SpyMethod.OneArg, long)
+     * @since 1.2
+     */
+    static <T, I, A, B, C> Assertion<T> invokesAtMost(final SpyMethod.ThreeArgs<I, A, B, C> method,
+                                                      final long maximum) {
+
+        Objects.requireNonNull(method, "method");
+        return Spy.invokesAtMost(Spy.signatureOf(method), maximum);
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function invokes the specified method of a
+     * spied given more than the specified number of times, like
+     * {@link #invokesAtMost(SpyMethod.OneArg, long)}.
+     * <p>
+     * This overload is useful for overloaded methods, which cannot be referred to by a method
+     * reference.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * withSpy(Repository.class, repository)
+     *         .when((r) -> new OrderService(r).loadOrders(customer))
+     *         .then(invokesAtMost(Repository.class.getMethod("find", long.class), 1));
+     * }</pre>
+     *
+     * @param method the method.
+     * @param maximum the maximum number of invocations.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the method is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative.
+     * @see Given#withSpy(Class, Object)
+     * @since 1.2
+     */
+    static <T> Assertion<T> invokesAtMost(final Method method, final long maximum) {
+
+        Objects.requireNonNull(method, "method");
+        return Spy.invokesAtMost(Spy.signature(method), maximum);
+    }
+
+    /**
+     * Creates a new assertion that fails if the specified consumer pulls more than the specified
+     * number of elements from the result.
+     * <p>
+     * The result must be an {@link java.util.Iterator}, {@link java.util.Spliterator} or
+     * {@link java.util.stream.Stream} (or primitive stream). It is wrapped so that the elements
+     * pulled from it are counted, and passed to the consumer, which should consume it like its
+     * callers do, for example with a short-circuiting operation such as {@code findFirst()}. This
+     * catches results that pull more elements than their consumers need.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(repository)
+     *         .when(Repository::streamOrders)
+     *         .then(pullsAtMost(1, Stream::findFirst));
+     * }</pre>
+     *
+     * @param maximum the maximum number of elements pulled.
+     * @param consumer the consumer of the result.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the consumer is {@code null}.
+     * @throws IllegalArgumentException if the maximum is negative.
+     * @see #isLazy()
+     * @since 1.2
+     */
+    static <T> Assertion<T> pullsAtMost(final long maximum, final Consumer<? super T> consumer) {
+
+        Objects.requireNonNull(consumer, "consumer");
+        if (maximum < 0) {
+            throw new IllegalArgumentException("maximum cannot be negative");
+        }
+        return new NamedAssertion<>("pullsAtMost", (resultSupplier) -> {
+            final LongAdder pulls = new LongAdder();
+            consumer.accept(Pulls.counting(resultSupplier.get(), pulls));
+            if (pulls.sum() > maximum) {
+                throw new AssertionError("Expected at most <" + maximum + "> elements to be "
+                        + "pulled, found <" + pulls.sum() + ">");
+            }
+        });
+    }
+
+    /**
+     * Creates a new assertion that fails if the result is not lazy, meaning that the
+     * when-function did the work of producing the elements before they were pulled.
+     * <p>
+     * The result must be an {@link java.util.Iterator}, {@link java.util.Spliterator} or
+     * {@link java.util.stream.Stream} (or primitive stream). This is a heuristic: the memory
+     * allocated by pulling one element of the result is compared with the memory allocated by
+     * pulling all of them (up to a limit, so infinite results are supported). A result that was
+     * materialized eagerly, for example by collecting to a list and streaming it, allocates its
+     * elements while it is created, so pulling more of them allocates (next to) nothing. The
+     * assertion requires allocation measurement, the when-function is called three times, and
+     * results that are {@link AutoCloseable} (such as {@code Files.lines}) are closed.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * given(file)
+     *         .when(Parser::records)
+     *         .then(isLazy())
+     *         .and(pullsAtMost(1, Stream::findFirst));
+     * }</pre>
+     *
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @see #pullsAtMost(long, Consumer)
+     * @since 1.2
+     */
+    static <T> Assertion<T> isLazy() {
+
+        return new NamedAssertion<>("isLazy", Pulls::verifyLazy);
     }
 }
@@ -0,0 +1,196 @@
+package me.sparky983.spark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A file of performance baselines.
+ * <p>
+ * Each test class has its own baseline file, in the directory specified by the
+ * {@code spark.baseline.dir} system property ({@code src/test/resources/spark-baselines} by
+ * default). The file is a properties file that maps each key to the mean, variance and number of
+ * the samples that were recorded, for example:
+ * <pre>
+ * parse.large=15234.5 1200.25 30
+ * </pre>
+ * The keys are written in order and without a timestamp, so that recording a baseline only
+ * changes its own line of the file. Samples are the mean time of a call in nanoseconds, so
+ * baselines are only meaningful on the machine they were recorded on.
+ * <p>
+ * Baselines that have not been recorded yet are recorded, unless the tests run on CI (the
+ * {@code spark.baseline.ci} system property, which defaults to whether the {@code CI} environment
+ * variable is set), where they fail instead.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class BaselineStore {
+
+    private static final Map<Path, BaselineStore> STORES = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private Properties baselines;
+
+    BaselineStore(final Path file) {
+
+        this.file = file;
+    }
+
+    /**
+     * Returns the baseline store of the specified test class.
+     *
+     * @param testClass the name of the test class.
+     * @return the baseline store.
+     */
+    static BaselineStore forClass(final String testClass) {
+
+        final Path directory = Paths.get(
+                System.getProperty("spark.baseline.dir", "src/test/resources/spark-baselines"));
+        return STORES.computeIfAbsent(
+                directory.resolve(testClass + ".properties").toAbsolutePath(),
+                BaselineStore::new);
+    }
+
+    /**
+     * Verifies that the specified samples are not significantly slower than the baseline with the
+     * specified key.
+     * <p>
+     * The samples are slower if a one-sided Welch's t-test finds that their mean is greater than
+     * the mean of the baseline multiplied by {@code 1 + tolerance}. If there is no baseline and
+     * recordsMissing is {@code true}, the samples are recorded as the baseline.
+     *
+     * @param key the key of the baseline.
+     * @param samples the samples, in nanoseconds.
+     * @param tolerance the fraction of the baseline the samples may be slower by.
+     * @param record whether to record the samples as the baseline, instead of verifying them.
+     * @param recordsMissing whether to record the samples if there is no baseline.
+     * @throws AssertionError if the samples are significantly slower than the baseline, or there
+     * is no baseline and neither record nor recordsMissing is {@code true}.
+     * @throws UncheckedIOException if an I/O error occurs.
+     */
+    synchronized void verify(final String key,
+                             final double[] samples,
+                             final double tolerance,
+                             final boolean record,
+                             final boolean recordsMissing) {
+
+        final double mean = Statistics.mean(samples);
+        final double variance = Statistics.variance(samples, mean);
+        final String baseline = baselines().getProperty(key);
+        if (baseline == null && !record && !recordsMissing) {
+            throw new AssertionError("Baseline <" + key + "> has not been recorded "
+                    + "(run with -Dspark.baseline.record=true to record it)");
+        }
+        if (baseline == null || record) {
+            baselines().setProperty(key, String.format(Locale.ROOT, "%s %s %d", mean, variance,
+                    samples.length));
+            write();
+            return;
+        }
+
+        final String[] parts = baseline.trim().split("\\s+");
+        if (parts.length != 3) {
+            throw new IllegalStateException("Malformed baseline <" + key + "=" + baseline
+                    + "> in " + file);
+        }
+        final double scale = 1 + tolerance;
+        final double baselineMean = Double.parseDouble(parts[0]) * scale;
+        final double baselineVariance = Double.parseDouble(parts[1]) * scale * scale;
+        final long baselineCount = Long.parseLong(parts[2]);
+        final double p = Statistics.welchTest(mean, variance, samples.length, baselineMean,
+                baselineVariance, baselineCount);
+        if (p < Statistics.SIGNIFICANCE) {
+            throw new AssertionError(String.format(Locale.ROOT,
+                    "Expected <%s> to take at most %.1f ns (baseline %.1f ns + %.0f%%), "
+                            + "found %.1f ns (p = %.4f, run with -Dspark.baseline.record=true "
+                            + "to record a new baseline)",
+                    key, baselineMean, baselineMean / scale, tolerance * 100, mean, p));
+        }
+    }
+
+    private Properties baselines() {
+
+        if (baselines != null) {
+            return baselines;
+        }
+        baselines = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                baselines.load(in);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return baselines;
+    }
+
+    private Map<String, String> sorted() {
+
+        final Map<String, String> sorted = new TreeMap<>();
+        for (final String key : baselines.stringPropertyNames()) {
+            sorted.put(key, baselines.getProperty(key));
+        }
+        return sorted;
+    }
+
+    /**
+     * Escapes the specified key, as {@link Properties#store} would.
+     */
+    private static String escape(final String key) {
+
+        final StringBuilder escaped = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c == '\\' || c == '=' || c == ':' || c == '#' || c == '!' || c == ' ') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                escaped.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private void write() {
+
+        try {
+            Files.createDirectories(file.getParent());
+            // written to a temporary file first, so that a crash cannot corrupt the baselines
+            final Path temporary = Files.createTempFile(file.getParent(), "baselines", ".tmp");
+            try {
+                try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.ISO_8859_1)) {
+                    for (final Map.Entry<String, String> baseline : sorted().entrySet()) {
+                        out.write(escape(baseline.getKey()));
+                        out.write('=');
+                        out.write(baseline.getValue());
+                        out.write('\n');
+                    }
+                }
+                try {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package me.sparky983.spark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures how long a supplier takes, used by the performance assertions.
+ * <p>
+ * The supplier is first warmed up, so that it is measured after it has been compiled by the JIT.
+ * While warming up, the number of calls in a batch is doubled until a batch takes long enough to
+ * be measured accurately by {@link System#nanoTime()}. Each sample is then the mean time of a call
+ * in one batch. The results of the supplier are written to a volatile field so that the calls
+ * cannot be eliminated as dead code.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Benchmark {
+
+    /**
+     * The default number of samples.
+     */
+    static final int SAMPLES = 30;
+
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_BATCH_SIZE = 1 << 30;
+    private static final long MAX_FRESH_SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @SuppressWarnings("unused")
+    private static volatile Object sink;
+
+    private final Supplier<?> supplier;
+    private final int batchSize;
+
+    private Benchmark(final Supplier<?> supplier, final int batchSize) {
+
+        this.supplier = supplier;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Warms up the specified supplier, and chooses the batch size.
+     *
+     * @param supplier the supplier.
+     * @return the benchmark of the supplier.
+     */
+    static Benchmark warmUp(final Supplier<?> supplier) {
+
+        final long deadline = System.nanoTime() + WARMUP_NANOS;
+        int batchSize = 1;
+        while (true) {
+            final long elapsed = run(supplier, batchSize);
+            if (elapsed < BATCH_NANOS && batchSize < MAX_BATCH_SIZE) {
+                batchSize *= 2;
+            } else if (System.nanoTime() - deadline >= 0) {
+                return new Benchmark(supplier, batchSize);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of calls in each batch.
+     *
+     * @return the number of calls.
+     */
+    int batchSize() {
+
+        return batchSize;
+    }
+
+    /**
+     * Measures a batch of calls.
+     *
+     * @return the mean time of a call, in nanoseconds.
+     */
+    double sample() {
+
+        return (double) run(supplier, batchSize) / batchSize;
+    }
+
+    /**
+     * Measures the specified number of batches of calls.
+     *
+     * @param count the number of samples.
+     * @return the mean time of a call in each batch, in nanoseconds.
+     */
+    double[] samples(final int count) {
+
+        final double[] samples = new double[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = sample();
+        }
+        return samples;
+    }
+
+    /**
+     * Measures the specified number of batches of calls of each benchmark, alternating between
+     * them so that drift (for example, from thermal throttling or other processes) affects both
+     * equally. The benchmark that goes first alternates too.
+     *
+     * @param first the first benchmark.
+     * @param second the second benchmark.
+     * @param count the number of samples of each benchmark.
+     * @return the samples of the first benchmark, and the samples of the second benchmark.
+     */
+    static double[][] interleave(final Benchmark first, final Benchmark second, final int count) {
+
+        final double[] firstSamples = new double[count];
+        final double[] secondSamples = new double[count];
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                firstSamples[i] = first.sample();
+                secondSamples[i] = second.sample();
+            } else {
+                secondSamples[i] = second.sample();
+                firstSamples[i] = first.sample();
+            }
+        }
+        return new double[][] {firstSamples, secondSamples};
+    }
+
+    /**
+     * Warms up and measures calls that each need a fresh input, such as when-functions that modify
+     * their input.
+     * <p>
+     * Each call is prepared by the specified supplier and timed on its own, so that preparing it
+     * is not measured and only one input is alive at a time. Each sample is the mean time of the
+     * calls made until they have taken long enough to be measured accurately, or until preparing
+     * them has taken too long.
+     *
+     * @param calls the supplier that prepares a call, which is then called once.
+     * @param count the number of samples.
+     * @return the mean time of a call in each sample, in nanoseconds.
+     */
+    static double[] freshSamples(final Supplier<? extends Supplier<?>> calls, final int count) {
+
+        final long deadline = System.nanoTime() + WARMUP_NANOS;
+        do {
+            sink = calls.get().get();
+        } while (System.nanoTime() - deadline < 0);
+
+        final double[] samples = new double[count];
+        for (int i = 0; i < count; i++) {
+            final long limit = System.nanoTime() + MAX_FRESH_SAMPLE_NANOS;
+            long measured = 0;
+            int made = 0;
+            do {
+                final Supplier<?> call = calls.get();
+                final long start = System.nanoTime();
+                sink = call.get();
+                measured += System.nanoTime() - start;
+                made++;
+            } while (measured < BATCH_NANOS && System.nanoTime() - limit < 0);
+            samples[i] = (double) measured / made;
+        }
+        return samples;
+    }
+
+    private static long run(final Supplier<?> supplier, final int batchSize) {
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < batchSize; i++) {
+            sink = supplier.get();
+        }
+        return System.nanoTime() - start;
+    }
+}
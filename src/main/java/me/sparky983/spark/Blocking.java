@@ -0,0 +1,242 @@
+package me.sparky983.spark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Detects blocking by the current thread while an action runs, used by
+ * {@link Assertion#neverBlocks()}.
+ * <p>
+ * Waiting ({@link Thread#sleep(long)}, {@link Object#wait()}, {@link LockSupport#park()} and
+ * everything built on it, such as {@code Future.get()} and {@code Lock.lock()}) and blocking on
+ * monitors are detected exactly, by the waited and blocked counts of the {@link ThreadMXBean}.
+ * Blocking I/O is detected by sampling the stack of the thread every
+ * {@value #SAMPLE_INTERVAL_MICROS} microseconds, for native methods that block on files and
+ * sockets, so I/O that completes faster than that may be missed. The stack traces of blocking are
+ * sampled too, so waits that are shorter than the interval are reported without one. Stacks that
+ * are loading a class are ignored, since class loading reads class files.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Blocking {
+
+    private static final long SAMPLE_INTERVAL_MICROS = 1000;
+    private static final int MAX_STACK_TRACES = 3;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * The native methods that block on files and sockets, across JDK versions.
+     */
+    private static final Set<String> BLOCKING_METHODS = new HashSet<>(Arrays.asList(
+            "java.io.FileInputStream.read0",
+            "java.io.FileInputStream.readBytes",
+            "java.io.FileOutputStream.write",
+            "java.io.FileOutputStream.writeBytes",
+            "java.io.RandomAccessFile.read0",
+            "java.io.RandomAccessFile.readBytes",
+            "java.io.RandomAccessFile.write0",
+            "java.io.RandomAccessFile.writeBytes",
+            "java.net.PlainSocketImpl.socketAccept",
+            "java.net.PlainSocketImpl.socketConnect",
+            "java.net.SocketInputStream.socketRead0",
+            "java.net.SocketOutputStream.socketWrite0",
+            "sun.nio.ch.Net.accept",
+            "sun.nio.ch.Net.connect0",
+            "sun.nio.ch.Net.poll",
+            "sun.nio.ch.ServerSocketChannelImpl.accept0",
+            "sun.nio.ch.EPoll.wait",
+            "sun.nio.ch.EPollArrayWrapper.epollWait",
+            "sun.nio.ch.KQueue.poll",
+            "sun.nio.ch.KQueueArrayWrapper.kevent0"));
+
+    /**
+     * The native methods of the NIO dispatchers (such as {@code FileDispatcherImpl},
+     * {@code UnixFileDispatcherImpl} on JDK 20 and later, and {@code SocketDispatcher}) that block
+     * on files and sockets.
+     */
+    private static final Set<String> DISPATCHER_METHODS = new HashSet<>(Arrays.asList(
+            "read0",
+            "pread0",
+            "readv0",
+            "write0",
+            "pwrite0",
+            "writev0",
+            "force0",
+            "transferTo0",
+            "transferFrom0"));
+
+    private final long waits;
+    private final long blocks;
+    private final long ioSamples;
+    private final List<String> stackTraces;
+
+    private Blocking(final long waits,
+                     final long blocks,
+                     final long ioSamples,
+                     final List<String> stackTraces) {
+
+        this.waits = waits;
+        this.blocks = blocks;
+        this.ioSamples = ioSamples;
+        this.stackTraces = stackTraces;
+    }
+
+    /**
+     * Runs the specified action on the current thread and detects its blocking.
+     *
+     * @param action the action.
+     * @return the blocking.
+     */
+    static Blocking during(final Runnable action) {
+
+        final long id = Thread.currentThread().getId();
+        final Sampler sampler = new Sampler(Thread.currentThread());
+        sampler.start();
+        final ThreadInfo before = THREADS.getThreadInfo(id);
+        final ThreadInfo after;
+        try {
+            action.run();
+        } finally {
+            // before stopping the sampler, since joining it waits
+            after = THREADS.getThreadInfo(id);
+            sampler.stopSampling();
+        }
+        return new Blocking(after.getWaitedCount() - before.getWaitedCount(),
+                after.getBlockedCount() - before.getBlockedCount(),
+                sampler.ioSamples,
+                sampler.stackTraces);
+    }
+
+    /**
+     * Returns whether the thread blocked.
+     *
+     * @return {@code true} if the thread blocked, otherwise {@code false}.
+     */
+    boolean blocked() {
+
+        return waits > 0 || blocks > 0 || ioSamples > 0;
+    }
+
+    /**
+     * Describes the blocking, for example
+     * {@code <1> waits, <0> blocked monitor entries and <0> blocking I/O samples}, followed by the
+     * sampled stack traces.
+     *
+     * @return the description.
+     */
+    String describe() {
+
+        final StringBuilder description = new StringBuilder()
+                .append('<').append(waits).append("> waits, <")
+                .append(blocks).append("> blocked monitor entries and <")
+                .append(ioSamples).append("> blocking I/O samples");
+        if (stackTraces.isEmpty()) {
+            description.append(" (no stack trace was sampled)");
+        }
+        for (final String stackTrace : stackTraces) {
+            description.append('\n').append(stackTrace);
+        }
+        return description.toString();
+    }
+
+    private static final class Sampler extends Thread {
+
+        private final Thread thread;
+        private final List<String> stackTraces = new ArrayList<>();
+        private volatile boolean sampling = true;
+        private long ioSamples;
+
+        private Sampler(final Thread thread) {
+
+            super("spark-blocking-sampler");
+            this.thread = thread;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+
+            while (sampling) {
+                final State state = thread.getState();
+                final StackTraceElement[] stackTrace = thread.getStackTrace();
+                // the sample is discarded if it may have been taken while the thread was
+                // stopping this sampler
+                if (!sampling) {
+                    break;
+                }
+                if (isLoadingClass(stackTrace)) {
+                    // class loading reads class files
+                } else if (state == State.RUNNABLE && isBlockingIo(stackTrace)) {
+                    ioSamples++;
+                    record(state, stackTrace);
+                } else if (state == State.BLOCKED || state == State.WAITING
+                        || state == State.TIMED_WAITING) {
+                    record(state, stackTrace);
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(SAMPLE_INTERVAL_MICROS));
+            }
+        }
+
+        private void stopSampling() {
+
+            sampling = false;
+            try {
+                join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void record(final State state, final StackTraceElement[] stackTrace) {
+
+            if (stackTraces.size() == MAX_STACK_TRACES) {
+                return;
+            }
+            final StringBuilder description = new StringBuilder()
+                    .append('"').append(thread.getName()).append("\" ").append(state);
+            for (final StackTraceElement element : stackTrace) {
+                // the frames below the action are spark's
+                if (element.getClassName().equals(Blocking.class.getName())) {
+                    break;
+                }
+                description.append("\n\tat ").append(element);
+            }
+            if (!stackTraces.contains(description.toString())) {
+                stackTraces.add(description.toString());
+            }
+        }
+
+        private static boolean isBlockingIo(final StackTraceElement[] stackTrace) {
+
+            if (stackTrace.length == 0) {
+                return false;
+            }
+            final String className = stackTrace[0].getClassName();
+            final String methodName = stackTrace[0].getMethodName();
+            if (className.startsWith("sun.nio.ch.") && className.contains("Dispatcher")) {
+                return DISPATCHER_METHODS.contains(methodName);
+            }
+            return BLOCKING_METHODS.contains(className + "." + methodName);
+        }
+
+        private static boolean isLoadingClass(final StackTraceElement[] stackTrace) {
+
+            for (final StackTraceElement element : stackTrace) {
+                if (element.getMethodName().equals("loadClass")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package me.sparky983.spark;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The off-heap memory used by the {@code direct} and {@code mapped} buffer pools, measured with
+ * the {@link BufferPoolMXBean BufferPoolMXBeans}, used by
+ * {@link Assertion#directMemoryGrowthAtMost(long)} and
+ * {@link Assertion#releasesAllDirectBuffers()}.
+ * <p>
+ * The memory of a direct or mapped buffer is only released by a cleaner once the buffer has been
+ * garbage collected, and cleaners run on another thread after the collection, so the pools are
+ * {@linkplain #settle() settled} by collecting garbage and waiting for the cleaners until the
+ * pools stop shrinking.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class BufferPools {
+
+    private static final int MAX_ROUNDS = 10;
+    private static final long WAIT_MILLIS = 10;
+
+    private static final List<BufferPoolMXBean> POOLS = offHeapPools();
+
+    private final long[] counts;
+    private final long[] bytes;
+
+    private BufferPools(final long[] counts, final long[] bytes) {
+
+        this.counts = counts;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Collects garbage and waits for cleaners until the pools stop shrinking, and then measures
+     * them.
+     *
+     * @return the measurement.
+     */
+    static BufferPools settle() {
+
+        BufferPools pools = measure();
+        for (int i = 0; i < MAX_ROUNDS; i++) {
+            Heap.settle();
+            try {
+                Thread.sleep(WAIT_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for cleaners", e);
+            }
+            final BufferPools settled = measure();
+            if (settled.memoryUsed() >= pools.memoryUsed() && settled.count() >= pools.count()) {
+                return settled;
+            }
+            pools = settled;
+        }
+        return pools;
+    }
+
+    private static BufferPools measure() {
+
+        final long[] counts = new long[POOLS.size()];
+        final long[] bytes = new long[POOLS.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(POOLS.get(i).getCount(), 0);
+            bytes[i] = Math.max(POOLS.get(i).getMemoryUsed(), 0);
+        }
+        return new BufferPools(counts, bytes);
+    }
+
+    /**
+     * Returns the number of buffers in all pools.
+     *
+     * @return the number of buffers.
+     */
+    long count() {
+
+        long count = 0;
+        for (final long c : counts) {
+            count += c;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the memory used by all pools.
+     *
+     * @return the memory used, in bytes.
+     */
+    long memoryUsed() {
+
+        long memoryUsed = 0;
+        for (final long b : bytes) {
+            memoryUsed += b;
+        }
+        return memoryUsed;
+    }
+
+    /**
+     * Describes the change of each pool since the specified measurement, for example
+     * {@code direct: +2 buffers (+2048 bytes)}.
+     *
+     * @param before the earlier measurement.
+     * @return the description.
+     */
+    String breakdown(final BufferPools before) {
+
+        final StringBuilder breakdown = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                breakdown.append(", ");
+            }
+            final long buffers = counts[i] - before.counts[i];
+            breakdown.append(POOLS.get(i).getName())
+                    .append(": ")
+                    .append(signed(buffers))
+                    .append(Math.abs(buffers) == 1 ? " buffer (" : " buffers (")
+                    .append(signed(bytes[i] - before.bytes[i]))
+                    .append(" bytes)");
+        }
+        return breakdown.toString();
+    }
+
+    private static String signed(final long value) {
+
+        return value > 0 ? "+" + value : Long.toString(value);
+    }
+
+    private static List<BufferPoolMXBean> offHeapPools() {
+
+        final List<BufferPoolMXBean> pools = new ArrayList<>();
+        for (final BufferPoolMXBean pool
+                : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            // JDK 14+ also has "mapped - 'non-volatile memory'"
+            if (pool.getName().equals("direct") || pool.getName().startsWith("mapped")) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,85 @@
+package me.sparky983.spark;
+
+/**
+ * Finds the classes that call into spark.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Callers {
+
+    private Callers() {
+
+    }
+
+    /**
+     * Returns the name of the class that called the specified class.
+     * <p>
+     * This is the class of the first stack frame after the outermost frame of the specified class,
+     * for example, the test class that called an {@link Assertion} factory.
+     *
+     * @param callee the called class.
+     * @return the name of the calling class.
+     * @throws IllegalStateException if the specified class is not on the current stack.
+     */
+    static String callerOf(final Class<?> callee) {
+
+        final StackTraceElement caller = callerFrame(callee);
+        if (caller == null) {
+            throw new IllegalStateException(callee.getName() + " is not on the stack");
+        }
+        return caller.getClassName();
+    }
+
+    /**
+     * Returns the location that called any of the specified classes.
+     * <p>
+     * This is the first stack frame after the outermost frame of the specified classes, for
+     * example, the line of a test that called {@link When#then(Assertion)}.
+     *
+     * @param callees the called classes.
+     * @return the location, in the form {@code class#method:line}.
+     * @throws IllegalStateException if none of the specified classes are on the current stack.
+     */
+    static String callSiteOf(final Class<?>... callees) {
+
+        final StackTraceElement caller = callerFrame(callees);
+        if (caller == null) {
+            throw new IllegalStateException("None of the callees are on the stack");
+        }
+        return location(caller);
+    }
+
+    /**
+     * Returns the location of the specified stack frame.
+     *
+     * @param frame the stack frame.
+     * @return the location, in the form {@code class#method:line}.
+     */
+    static String location(final StackTraceElement frame) {
+
+        return frame.getClassName() + "#" + frame.getMethodName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Returns the stack frame after the outermost frame of the specified classes.
+     * <p>
+     * The stack is scanned from the outermost frame, so frames of other classes that run between
+     * the callees, such as the lambdas of fixtures that wrap {@link Fixture#perform}, are skipped.
+     *
+     * @param callees the called classes.
+     * @return the stack frame, or {@code null} if none of the classes are on the stack.
+     */
+    static StackTraceElement callerFrame(final Class<?>... callees) {
+
+        final StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        for (int i = stackTrace.length - 2; i >= 0; i--) {
+            for (final Class<?> callee : callees) {
+                if (stackTrace[i].getClassName().equals(callee.getName())) {
+                    return stackTrace[i + 1];
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,279 @@
+package me.sparky983.spark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashes the bytecode of classes and of the classes they depend on.
+ * <p>
+ * The dependencies of a class are the classes referenced by its constant pool, which includes
+ * every class whose members it accesses or that it instantiates. The dependencies of JDK classes
+ * are not followed. The hash of a class therefore changes whenever the bytecode of any class it
+ * (transitively) depends on changes, except for classes that are only reached by reflection.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ClassDependencies {
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final Map<String, ClassFile> CLASS_FILES = new ConcurrentHashMap<>();
+
+    private static final ClassValue<Long> HASHES = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(final Class<?> type) {
+
+            return hashClosure(type);
+        }
+    };
+
+    private ClassDependencies() {
+
+    }
+
+    /**
+     * Returns the hash of the bytecode of the specified class and all the classes it depends on.
+     * <p>
+     * Lambdas are hashed as the class that declares them.
+     *
+     * @param type the class.
+     * @return the hash.
+     */
+    static long hashOf(final Class<?> type) {
+
+        return HASHES.get(type);
+    }
+
+    /**
+     * Returns whether the specified class name is the name of a JDK class.
+     *
+     * @param name the binary or internal name of the class.
+     * @return whether the class is a JDK class.
+     */
+    static boolean isJdkClass(final String name) {
+
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.") || name.startsWith("com.sun.")
+                || name.startsWith("java/") || name.startsWith("javax/")
+                || name.startsWith("jdk/") || name.startsWith("sun/")
+                || name.startsWith("com/sun/");
+    }
+
+    /**
+     * Returns the name of the specified class that is stable between runs.
+     * <p>
+     * The names of lambda classes contain a counter or an address, so they are replaced by the
+     * name of the class that declares the lambda.
+     *
+     * @param type the class.
+     * @return the stable name.
+     */
+    static String stableName(final Class<?> type) {
+
+        final String name = type.getName();
+        final int lambda = name.indexOf("$$Lambda");
+        return lambda == -1 ? name : name.substring(0, lambda + "$$Lambda".length());
+    }
+
+    private static long hashClosure(Class<?> type) {
+
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return 0;
+        }
+        final String name = type.getName();
+        final int lambda = name.indexOf("$$Lambda");
+        if (lambda != -1) {
+            try {
+                return hashOf(Class.forName(name.substring(0, lambda), false,
+                        type.getClassLoader()));
+            } catch (final ClassNotFoundException | LinkageError e) {
+                return hash(name.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        final ClassLoader loader = type.getClassLoader() == null
+                ? ClassLoader.getSystemClassLoader()
+                : type.getClassLoader();
+        // sorted, so that the hash does not depend on the order the classes were found in
+        final Map<String, Long> hashes = new TreeMap<>();
+        final Deque<String> pending = new ArrayDeque<>();
+        pending.push(name.replace('.', '/'));
+        while (!pending.isEmpty()) {
+            final String next = pending.pop();
+            if (hashes.containsKey(next) || isJdkClass(next)) {
+                continue;
+            }
+            final ClassFile classFile =
+                    CLASS_FILES.computeIfAbsent(next, (key) -> read(loader, key));
+            hashes.put(next, classFile.hash);
+            for (final String reference : classFile.references) {
+                pending.push(reference);
+            }
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        for (final Map.Entry<String, Long> entry : hashes.entrySet()) {
+            hash = (hash ^ entry.getKey().hashCode()) * 0x100000001b3L;
+            hash = (hash ^ entry.getValue()) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static ClassFile read(final ClassLoader loader, final String name) {
+
+        final byte[] bytes;
+        try (InputStream in = loader.getResourceAsStream(name + ".class")) {
+            if (in == null) {
+                // generated at runtime, so there is no bytecode to hash
+                return new ClassFile(hash(name.getBytes(StandardCharsets.UTF_8)),
+                        Collections.emptyList());
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            bytes = out.toByteArray();
+        } catch (final IOException e) {
+            return new ClassFile(hash(name.getBytes(StandardCharsets.UTF_8)),
+                    Collections.emptyList());
+        }
+
+        List<String> references;
+        try {
+            references = references(bytes);
+        } catch (final IOException | RuntimeException e) {
+            // not a class file that we understand, so only its bytes are hashed
+            references = Collections.emptyList();
+        }
+        return new ClassFile(hash(bytes), references);
+    }
+
+    /**
+     * Returns the internal names of the classes referenced by the constant pool of the specified
+     * class file.
+     */
+    private static List<String> references(final byte[] bytes) throws IOException {
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        final int count = in.readUnsignedShort();
+        final String[] utf8s = new String[count];
+        final List<Integer> classes = new ArrayList<>();
+        for (int i = 1; i < count; i++) {
+            final int tag = in.readUnsignedByte();
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    utf8s[i] = in.readUTF();
+                    break;
+                case CONSTANT_CLASS:
+                    classes.add(in.readUnsignedShort());
+                    break;
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    in.readUnsignedShort();
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    in.readInt();
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    in.readLong();
+                    i++; // takes two entries
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        final List<String> references = new ArrayList<>(classes.size());
+        for (final int index : classes) {
+            String reference = utf8s[index];
+            if (reference.startsWith("[")) {
+                // an array descriptor, for example [[Ljava/lang/String;
+                final int start = reference.indexOf('L');
+                if (start == -1) {
+                    continue;
+                }
+                reference = reference.substring(start + 1, reference.length() - 1);
+            }
+            references.add(reference);
+        }
+        return references;
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of the specified bytes.
+     */
+    private static long hash(final byte[] bytes) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class ClassFile {
+
+        private final long hash;
+        private final List<String> references;
+
+        private ClassFile(final long hash, final List<String> references) {
+
+            this.hash = hash;
+            this.references = references;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package me.sparky983.spark;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A histogram of the live objects on the heap, taken with the {@code gcClassHistogram} operation of
+ * the HotSpot {@code DiagnosticCommand} MBean, used by
+ * {@link Assertion#instancesOf(Class, java.util.function.LongPredicate)} and
+ * {@link Assertion#instanceGrowthAtMost(Class, long)}.
+ * <p>
+ * Taking a histogram performs a full collection, so only reachable objects are counted. The
+ * histogram is kept as the text returned by the MBean and only the lines of the classes that are
+ * looked up are parsed, since a histogram usually has thousands of lines. Classes are matched by
+ * their {@linkplain Class#getName() binary name}, and the counts of classes of the same name
+ * defined by different class loaders are summed.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ClassHistogram {
+
+    private static final String OPERATION = "gcClassHistogram";
+
+    private static final MBeanServer SERVER = ManagementFactory.getPlatformMBeanServer();
+    private static final ObjectName DIAGNOSTIC_COMMAND = diagnosticCommand();
+
+    /**
+     * Keeps the result of the when-function reachable until the second histogram has been taken
+     * (see {@link #keepReachable(Object)}).
+     */
+    private static final AtomicReference<Object> REACHABLE = new AtomicReference<>();
+
+    private final String histogram;
+
+    private ClassHistogram(final String histogram) {
+
+        this.histogram = histogram;
+    }
+
+    /**
+     * Returns whether histograms can be taken on this JVM.
+     *
+     * @return {@code true} if the {@code DiagnosticCommand} MBean is available, otherwise
+     * {@code false}.
+     */
+    static boolean isSupported() {
+
+        return DIAGNOSTIC_COMMAND != null;
+    }
+
+    /**
+     * Takes a histogram of the live objects on the heap.
+     *
+     * @return the histogram.
+     * @throws IllegalStateException if histograms are not supported or the MBean fails.
+     */
+    static ClassHistogram take() {
+
+        if (DIAGNOSTIC_COMMAND == null) {
+            throw new IllegalStateException("Class histograms are not supported");
+        }
+        try {
+            return new ClassHistogram((String) SERVER.invoke(DIAGNOSTIC_COMMAND, OPERATION,
+                    new Object[] {new String[0]}, new String[] {String[].class.getName()}));
+        } catch (final JMException e) {
+            throw new IllegalStateException("Failed to take a class histogram", e);
+        }
+    }
+
+    /**
+     * Returns the change in the number of live instances of the specified class caused by calling
+     * the specified supplier once. The result of the supplier is kept reachable until the change
+     * has been measured.
+     *
+     * @param type the class.
+     * @param supplier the supplier.
+     * @return the change in the number of instances.
+     * @throws IllegalStateException if histograms are not supported or the MBean fails.
+     */
+    static long instanceGrowth(final Class<?> type, final Supplier<?> supplier) {
+
+        final long before = take().instances(type);
+        final Object result = supplier.get();
+        final long after = take().instances(type);
+        keepReachable(result);
+        return after - before;
+    }
+
+    /**
+     * Keeps the specified object reachable until this method is called, like
+     * {@code Reference.reachabilityFence} in Java 9. The object is written to a field, which
+     * cannot be elided, and is cleared again unless another thread has written its own object
+     * since, so that concurrent measurements do not release each other's results.
+     *
+     * @param o the object.
+     */
+    private static void keepReachable(final Object o) {
+
+        REACHABLE.set(o);
+        REACHABLE.compareAndSet(o, null);
+    }
+
+    /**
+     * Returns the number of live instances of the specified class.
+     *
+     * @param type the class.
+     * @return the number of instances.
+     */
+    long instances(final Class<?> type) {
+
+        final String name = type.getName();
+        long instances = 0;
+        int index = histogram.indexOf(name);
+        while (index != -1) {
+            final int end = index + name.length();
+            final boolean endsName = end == histogram.length()
+                    || Character.isWhitespace(histogram.charAt(end));
+            if (index > 0 && histogram.charAt(index - 1) == ' ' && endsName) {
+                instances += instancesOfLine(histogram.lastIndexOf('\n', index) + 1, index);
+            }
+            index = histogram.indexOf(name, end);
+        }
+        return instances;
+    }
+
+    /**
+     * Parses the number of instances of a line such as {@code 1:  1234  56789  [B}, which is the
+     * number after the colon.
+     */
+    private long instancesOfLine(final int start, final int end) {
+
+        final int colon = histogram.indexOf(':', start);
+        if (colon == -1 || colon >= end) {
+            return 0;
+        }
+        int i = colon + 1;
+        while (i < end && histogram.charAt(i) == ' ') {
+            i++;
+        }
+        long instances = 0;
+        for (; i < end && Character.isDigit(histogram.charAt(i)); i++) {
+            instances = instances * 10 + (histogram.charAt(i) - '0');
+        }
+        return instances;
+    }
+
+    private static ObjectName diagnosticCommand() {
+
+        try {
+            final ObjectName name = new ObjectName("com.sun.management:type=DiagnosticCommand");
+            return SERVER.isRegistered(name) ? name : null;
+        } catch (final JMException | RuntimeException e) {
+            return null;
+        }
+    }
+}
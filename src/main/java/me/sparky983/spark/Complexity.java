@@ -0,0 +1,82 @@
+package me.sparky983.spark;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntFunction;
+
+/**
+ * The growth rate of the cost of a when-function as the size of its input grows.
+ *
+ * @author Sparky983
+ * @see Assertion#scalesAtMost(Complexity)
+ * @see Given#sized(IntFunction, int...)
+ * @since 1.2
+ */
+public enum Complexity {
+
+    /**
+     * The cost does not depend on the size of the input, {@code O(1)}.
+     *
+     * @since 1.2
+     */
+    O_1("O(1)", (n) -> 1),
+
+    /**
+     * The cost grows logarithmically, {@code O(log n)}.
+     *
+     * @since 1.2
+     */
+    LOG_N("O(log n)", Math::log),
+
+    /**
+     * The cost grows linearly, {@code O(n)}.
+     *
+     * @since 1.2
+     */
+    N("O(n)", (n) -> n),
+
+    /**
+     * The cost grows linearithmically, {@code O(n log n)}.
+     *
+     * @since 1.2
+     */
+    N_LOG_N("O(n log n)", (n) -> n * Math.log(n)),
+
+    /**
+     * The cost grows quadratically, {@code O(n^2)}.
+     *
+     * @since 1.2
+     */
+    N_SQUARED("O(n^2)", (n) -> n * n);
+
+    private final String notation;
+    private final DoubleUnaryOperator function;
+
+    Complexity(final String notation, final DoubleUnaryOperator function) {
+
+        this.notation = notation;
+        this.function = function;
+    }
+
+    /**
+     * Evaluates the growth function at the specified size.
+     *
+     * @param n the size.
+     * @return the value of the growth function.
+     */
+    double apply(final double n) {
+
+        return function.applyAsDouble(n);
+    }
+
+    /**
+     * Returns the big O notation of this complexity, for example {@code O(n log n)}.
+     *
+     * @return the big O notation.
+     * @since 1.2
+     */
+    @Override
+    public String toString() {
+
+        return notation;
+    }
+}
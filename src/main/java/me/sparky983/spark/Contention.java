@@ -0,0 +1,274 @@
+package me.sparky983.spark;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * The lock contention of a supplier called concurrently from several threads, measured with
+ * thread contention monitoring of the {@link ThreadMXBean}, used by
+ * {@link Assertion#blockedTimeAtMost(java.time.Duration, int)}.
+ * <p>
+ * Contention monitoring is enabled while the threads run, and restored afterwards. While the
+ * threads run, they are checked for deadlocks every {@value #WATCHDOG_INTERVAL_MILLIS}
+ * milliseconds, and a deadlock fails immediately with the stack traces of the deadlocked threads
+ * and the locks they hold, instead of hanging. Threads that have not finished within a timeout
+ * (which is {@link #DEFAULT_TIMEOUT} by default) fail with their stack traces too, and are
+ * interrupted. The threads are daemon threads, so they do not prevent the JVM from exiting.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Contention {
+
+    /**
+     * How long the threads may run for if no timeout is specified.
+     */
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final long WATCHDOG_INTERVAL_MILLIS = 100;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String[] names;
+    private final long[] blockedCounts;
+    private final long[] blockedMillis;
+    private final long[] waitedCounts;
+    private final long[] waitedMillis;
+
+    private Contention(final int threads) {
+
+        this.names = new String[threads];
+        this.blockedCounts = new long[threads];
+        this.blockedMillis = new long[threads];
+        this.waitedCounts = new long[threads];
+        this.waitedMillis = new long[threads];
+    }
+
+    /**
+     * Calls the specified supplier once from each of the specified number of threads, all
+     * starting at the same time, and measures their contention.
+     *
+     * @param supplier the supplier.
+     * @param threads the number of threads.
+     * @param timeout the maximum time to wait for the threads to finish.
+     * @return the contention.
+     * @throws AssertionError if the threads deadlock or do not finish within the timeout.
+     * @throws IllegalStateException if contention monitoring is not supported.
+     */
+    static synchronized Contention measure(final Supplier<?> supplier,
+                                           final int threads,
+                                           final Duration timeout) {
+
+        if (!THREADS.isThreadContentionMonitoringSupported()) {
+            throw new IllegalStateException("Thread contention monitoring is not supported");
+        }
+        final boolean wasEnabled = THREADS.isThreadContentionMonitoringEnabled();
+        THREADS.setThreadContentionMonitoringEnabled(true);
+        try {
+            return run(supplier, threads, timeout);
+        } finally {
+            THREADS.setThreadContentionMonitoringEnabled(wasEnabled);
+        }
+    }
+
+    private static Contention run(final Supplier<?> supplier,
+                                  final int threads,
+                                  final Duration timeout) {
+
+        final Contention contention = new Contention(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread[] workers = new Thread[threads];
+        final Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < threads; i++) {
+            final int index = i;
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    final ThreadInfo before = THREADS.getThreadInfo(Thread.currentThread().getId());
+                    supplier.get();
+                    final ThreadInfo after = THREADS.getThreadInfo(Thread.currentThread().getId());
+                    contention.record(index, before, after);
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }, "spark-contention-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+            ids.add(workers[i].getId());
+        }
+        start.countDown();
+
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        for (final Thread worker : workers) {
+            while (worker.isAlive()) {
+                final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(
+                        deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    throw timedOut(workers, timeout);
+                }
+                try {
+                    worker.join(Math.min(remainingMillis, WATCHDOG_INTERVAL_MILLIS));
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for threads", e);
+                }
+                checkDeadlocks(ids);
+            }
+        }
+
+        final Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new IllegalStateException(t);
+        }
+        return contention;
+    }
+
+    private void record(final int index, final ThreadInfo before, final ThreadInfo after) {
+
+        names[index] = after.getThreadName();
+        blockedCounts[index] = after.getBlockedCount() - before.getBlockedCount();
+        blockedMillis[index] = Math.max(after.getBlockedTime() - before.getBlockedTime(), 0);
+        waitedCounts[index] = after.getWaitedCount() - before.getWaitedCount();
+        waitedMillis[index] = Math.max(after.getWaitedTime() - before.getWaitedTime(), 0);
+    }
+
+    /**
+     * Returns the total time that the threads were blocked entering or re-entering monitors.
+     *
+     * @return the blocked time, in milliseconds.
+     */
+    long blockedMillis() {
+
+        long total = 0;
+        for (final long millis : blockedMillis) {
+            total += millis;
+        }
+        return total;
+    }
+
+    /**
+     * Describes the contention of each thread, for example
+     * {@code spark-contention-1: blocked 3 times (12 ms), waited 0 times (0 ms)}.
+     *
+     * @return the description.
+     */
+    String breakdown() {
+
+        final StringBuilder breakdown = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                breakdown.append(", ");
+            }
+            breakdown.append(names[i])
+                    .append(": blocked ")
+                    .append(blockedCounts[i])
+                    .append(blockedCounts[i] == 1 ? " time (" : " times (")
+                    .append(blockedMillis[i])
+                    .append(" ms), waited ")
+                    .append(waitedCounts[i])
+                    .append(waitedCounts[i] == 1 ? " time (" : " times (")
+                    .append(waitedMillis[i])
+                    .append(" ms)");
+        }
+        return breakdown.toString();
+    }
+
+    private static void checkDeadlocks(final Set<Long> workers) {
+
+        final long[] deadlocked = THREADS.isSynchronizerUsageSupported()
+                ? THREADS.findDeadlockedThreads()
+                : THREADS.findMonitorDeadlockedThreads();
+        if (deadlocked == null) {
+            return;
+        }
+        boolean involvesWorker = false;
+        for (final long id : deadlocked) {
+            involvesWorker |= workers.contains(id);
+        }
+        if (!involvesWorker) {
+            return;
+        }
+        final StringBuilder message = new StringBuilder("Expected no deadlock, found <")
+                .append(deadlocked.length)
+                .append("> deadlocked threads:");
+        for (final ThreadInfo info : THREADS.getThreadInfo(deadlocked,
+                THREADS.isObjectMonitorUsageSupported(), THREADS.isSynchronizerUsageSupported())) {
+            if (info != null) {
+                describe(info, message);
+            }
+        }
+        throw new AssertionError(message.toString());
+    }
+
+    private static AssertionError timedOut(final Thread[] workers, final Duration timeout) {
+
+        final List<Long> running = new ArrayList<>();
+        for (final Thread worker : workers) {
+            if (worker.isAlive()) {
+                running.add(worker.getId());
+            }
+        }
+        final long[] ids = new long[running.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = running.get(i);
+        }
+        final StringBuilder message = new StringBuilder("Expected the threads to finish within <")
+                .append(timeout)
+                .append(">, found <")
+                .append(ids.length)
+                .append("> running threads:");
+        for (final ThreadInfo info : THREADS.getThreadInfo(ids,
+                THREADS.isObjectMonitorUsageSupported(), THREADS.isSynchronizerUsageSupported())) {
+            if (info != null) {
+                describe(info, message);
+            }
+        }
+        for (final Thread worker : workers) {
+            worker.interrupt();
+        }
+        return new AssertionError(message.toString());
+    }
+
+    private static void describe(final ThreadInfo info, final StringBuilder description) {
+
+        description.append("\n\"")
+                .append(info.getThreadName())
+                .append("\" ")
+                .append(info.getThreadState());
+        if (info.getLockName() != null) {
+            description.append(" on ").append(info.getLockName());
+        }
+        if (info.getLockOwnerName() != null) {
+            description.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+        }
+        final StackTraceElement[] stackTrace = info.getStackTrace();
+        for (int depth = 0; depth < stackTrace.length; depth++) {
+            description.append("\n\tat ").append(stackTrace[depth]);
+            for (final MonitorInfo monitor : info.getLockedMonitors()) {
+                if (monitor.getLockedStackDepth() == depth) {
+                    description.append("\n\t- locked ").append(monitor);
+                }
+            }
+        }
+        for (final LockInfo synchronizer : info.getLockedSynchronizers()) {
+            description.append("\n\t- locked ").append(synchronizer);
+        }
+    }
+}
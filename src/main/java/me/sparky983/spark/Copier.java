@@ -0,0 +1,65 @@
+package me.sparky983.spark;
+
+import java.util.Objects;
+
+/**
+ * Copies given objects, used by {@link Given#snapshot(Copier)}.
+ *
+ * @author Sparky983
+ * @param <T> the type of the copied objects.
+ * @since 1.2
+ */
+@FunctionalInterface
+public interface Copier<T> {
+
+    /**
+     * Copies the specified object.
+     * <p>
+     * The copy must not share any mutable state with the original.
+     *
+     * @param original the object to copy.
+     * @return the copy.
+     * @since 1.2
+     */
+    T copy(T original);
+
+    /**
+     * Returns a copier that copies object graphs field by field.
+     * <p>
+     * Instances of immutable types (such as strings, boxed primitives, enums, {@code java.time}
+     * types, and classes whose fields are all final and of immutable types) are shared rather
+     * than copied. JDK collections and maps are copied element by element, arrays are copied
+     * element by element, and all other objects are copied field by field (without calling their
+     * constructors). How to copy each class is worked out once and is then cached.
+     *
+     * @return the copier.
+     * @param <T> the type of the copied objects.
+     * @since 1.2
+     */
+    static <T> Copier<T> deep() {
+
+        return DeepCopier.copier();
+    }
+
+    /**
+     * Returns a copier that copies object graphs field by field, like {@link #deep()}, but which
+     * also shares instances of the specified types.
+     * <p>
+     * This is intended for persistent (immutable) collections and other immutable types that are
+     * not detected as immutable, which can then be shared between copies instead of being copied.
+     *
+     * @param sharedTypes the types whose instances (including instances of subtypes) are shared.
+     * @return the copier.
+     * @param <T> the type of the copied objects.
+     * @throws NullPointerException if any of the shared types are {@code null}.
+     * @since 1.2
+     */
+    static <T> Copier<T> deep(final Class<?>... sharedTypes) {
+
+        Objects.requireNonNull(sharedTypes, "sharedTypes");
+        for (final Class<?> sharedType : sharedTypes) {
+            Objects.requireNonNull(sharedType, "sharedTypes cannot contain null");
+        }
+        return DeepCopier.copier(sharedTypes.clone());
+    }
+}
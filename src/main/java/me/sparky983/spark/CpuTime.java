@@ -0,0 +1,114 @@
+package me.sparky983.spark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Measures the CPU time used by an action, used by {@link Assertion#cpuTimeAtMost(java.time.Duration)}.
+ * <p>
+ * The CPU time of every thread is read before and after the action, and the differences are
+ * summed, so work handed to other threads is counted: threads started by the action (or by an
+ * earlier action, such as a pool started while warming up), existing executors and the
+ * {@linkplain java.util.concurrent.ForkJoinPool#commonPool() common pool}. Threads of the
+ * {@code system} thread group, which the JVM manages itself, are ignored. Threads that are busy
+ * with other work at the same time (such as tests running in parallel) are counted too, and the
+ * CPU time of threads that terminate before the action completes is no longer available, so it is
+ * not counted. Unlike wall-clock time, CPU time does not include time spent waiting for the CPU
+ * while the machine is busy.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class CpuTime {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private CpuTime() {
+
+    }
+
+    /**
+     * Returns whether CPU time can be measured on this JVM.
+     *
+     * @return {@code true} if CPU time measurement is supported and enabled, otherwise
+     * {@code false}.
+     */
+    static boolean isSupported() {
+
+        return THREADS.isThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * Measures the CPU time used by the specified action.
+     *
+     * @param action the action.
+     * @return the CPU time, in nanoseconds.
+     */
+    static long during(final Runnable action) {
+
+        final Map<Long, Long> before = otherThreads();
+        final long start = THREADS.getCurrentThreadCpuTime();
+        action.run();
+        long nanos = THREADS.getCurrentThreadCpuTime() - start;
+        for (final Map.Entry<Long, Long> thread : otherThreads().entrySet()) {
+            // threads started during the action had no CPU time before it
+            nanos += Math.max(thread.getValue() - before.getOrDefault(thread.getKey(), 0L), 0);
+        }
+        return nanos;
+    }
+
+    /**
+     * Reads the CPU time of the live threads other than the current thread and the threads of
+     * the {@code system} thread group.
+     *
+     * @return the CPU time of each thread, in nanoseconds, by thread ID.
+     */
+    private static Map<Long, Long> otherThreads() {
+
+        ThreadGroup system = Thread.currentThread().getThreadGroup();
+        while (system.getParent() != null) {
+            system = system.getParent();
+        }
+        Thread[] threads;
+        int count;
+        do {
+            threads = new Thread[system.activeCount() * 2 + 1];
+            count = system.enumerate(threads, true);
+        } while (count == threads.length);
+
+        final Map<Long, Long> cpuTimes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            final Thread thread = threads[i];
+            if (thread == Thread.currentThread() || thread.getThreadGroup() == system) {
+                continue;
+            }
+            // -1 if the thread has terminated since
+            final long nanos = THREADS.getThreadCpuTime(thread.getId());
+            if (nanos != -1) {
+                cpuTimes.put(thread.getId(), nanos);
+            }
+        }
+        return cpuTimes;
+    }
+
+    /**
+     * Measures the CPU time of a call of the specified supplier in a steady state: after it has
+     * been warmed up, the median CPU time of a call in each of the batches of a
+     * {@link Benchmark}.
+     *
+     * @param supplier the supplier.
+     * @return the CPU time, in nanoseconds.
+     */
+    static double steadyState(final Supplier<?> supplier) {
+
+        final Benchmark benchmark = Benchmark.warmUp(supplier);
+        final double[] samples = new double[Benchmark.SAMPLES];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (double) during(benchmark::sample) / benchmark.batchSize();
+        }
+        return Statistics.median(samples);
+    }
+}
@@ -0,0 +1,508 @@
+package me.sparky983.spark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Copies object graphs field by field.
+ * <p>
+ * How to copy each class is worked out once and is cached in a {@link ClassValue}. Objects are
+ * copied iteratively (so that deep graphs do not overflow the stack), except for the elements of
+ * collections and maps, which are copied completely before they are added (so that their hash
+ * codes are final). Each object is only copied once, so shared references and cycles are
+ * preserved.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class DeepCopier {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class, Void.class, BigInteger.class,
+            BigDecimal.class, Class.class, UUID.class, Currency.class, Locale.class,
+            Pattern.class, URI.class, OptionalInt.class, OptionalLong.class,
+            OptionalDouble.class));
+
+    private static final MethodHandle ALLOCATE_INSTANCE = allocateInstance();
+
+    private static final ClassValue<Plan> PLANS = new ClassValue<Plan>() {
+        @Override
+        protected Plan computeValue(final Class<?> type) {
+
+            return plan(type);
+        }
+    };
+
+    private final Class<?>[] sharedTypes;
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+
+    private DeepCopier(final Class<?>[] sharedTypes) {
+
+        this.sharedTypes = sharedTypes;
+    }
+
+    /**
+     * Creates a copier.
+     *
+     * @param sharedTypes the types whose instances are shared rather than copied.
+     * @return the copier.
+     * @param <T> the type of the copied objects.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Copier<T> copier(final Class<?>... sharedTypes) {
+
+        return (original) -> (T) new DeepCopier(sharedTypes).copy(original);
+    }
+
+    private Object copy(final Object original) {
+
+        final Object copy = copyValue(original);
+        while (!pending.isEmpty()) {
+            pending.pop().run();
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the specified object, but may leave the fields and elements of the copy to be filled
+     * in by the pending tasks.
+     */
+    private Object copyValue(final Object original) {
+
+        if (original == null) {
+            return null;
+        }
+        final Class<?> type = original.getClass();
+        final Plan plan = PLANS.get(type);
+        if (plan.kind == Kind.SHARED || isShared(type)) {
+            return original;
+        }
+        final Object existing = copies.get(original);
+        if (existing != null) {
+            return existing;
+        }
+
+        switch (plan.kind) {
+            case PRIMITIVE_ARRAY: {
+                final int length = Array.getLength(original);
+                final Object copy = Array.newInstance(type.getComponentType(), length);
+                System.arraycopy(original, 0, copy, 0, length);
+                copies.put(original, copy);
+                return copy;
+            }
+            case ARRAY: {
+                final Object[] elements = (Object[]) original;
+                final Object[] copy =
+                        (Object[]) Array.newInstance(type.getComponentType(), elements.length);
+                copies.put(original, copy);
+                pending.push(() -> {
+                    for (int i = 0; i < elements.length; i++) {
+                        copy[i] = copyValue(elements[i]);
+                    }
+                });
+                return copy;
+            }
+            case OPTIONAL: {
+                final Optional<?> copy = Optional.ofNullable(copyValue(((Optional<?>) original)
+                        .orElse(null)));
+                copies.put(original, copy);
+                return copy;
+            }
+            case COLLECTION:
+                return copyCollection(plan, (Collection<?>) original);
+            case MAP:
+                return copyMap(plan, (Map<?, ?>) original);
+            case CLONE: {
+                final Object copy = invoke(plan.constructor, original);
+                copies.put(original, copy);
+                return copy;
+            }
+            case FIELDS: {
+                final Object copy = invoke(plan.constructor, (Object) type);
+                copies.put(original, copy);
+                pending.push(() -> {
+                    for (final FieldCopier field : plan.fields) {
+                        field.copy(this, original, copy);
+                    }
+                });
+                return copy;
+            }
+            default:
+                throw new IllegalArgumentException("Cannot copy <" + type.getName()
+                        + ">, use a custom Copier instead");
+        }
+    }
+
+    /**
+     * Copies the specified object completely.
+     */
+    private Object copyCompletely(final Object original) {
+
+        final int depth = pending.size();
+        final Object copy = copyValue(original);
+        while (pending.size() > depth) {
+            pending.pop().run();
+        }
+        return copy;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object copyCollection(final Plan plan, final Collection<?> original) {
+
+        if (original instanceof EnumSet) {
+            final Object copy = ((EnumSet<?>) original).clone();
+            copies.put(original, copy);
+            return copy;
+        }
+
+        final Collection<Object> target;
+        final Collection<Object> copy;
+        if (original instanceof TreeSet) {
+            target = new TreeSet<>((Comparator) ((SortedSet<?>) original).comparator());
+            copy = target;
+        } else if (original instanceof PriorityQueue) {
+            target = new PriorityQueue<>(Math.max(1, original.size()),
+                    (Comparator) ((PriorityQueue<?>) original).comparator());
+            copy = target;
+        } else if (plan.constructor != null) {
+            target = (Collection<Object>) invoke(plan.constructor);
+            copy = target;
+        } else {
+            // not instantiable (for example, an unmodifiable view), so the nearest equivalent
+            final boolean unmodifiable = isUnmodifiable(original.getClass());
+            if (original instanceof List) {
+                target = new ArrayList<>(original.size());
+                copy = unmodifiable ? Collections.unmodifiableList((List) target) : target;
+            } else if (original instanceof SortedSet) {
+                target = new TreeSet<>((Comparator) ((SortedSet<?>) original).comparator());
+                copy = unmodifiable
+                        ? Collections.unmodifiableSortedSet((SortedSet) target)
+                        : target;
+            } else if (original instanceof Set) {
+                target = new LinkedHashSet<>();
+                copy = unmodifiable ? Collections.unmodifiableSet((Set) target) : target;
+            } else if (original instanceof Queue) {
+                target = new ArrayDeque<>(original.size());
+                copy = target;
+            } else {
+                target = new ArrayList<>(original.size());
+                copy = unmodifiable ? Collections.unmodifiableCollection(target) : target;
+            }
+        }
+        copies.put(original, copy);
+        for (final Object element : original) {
+            target.add(copyCompletely(element));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object copyMap(final Plan plan, final Map<?, ?> original) {
+
+        final Map<Object, Object> target;
+        final Map<Object, Object> copy;
+        if (original instanceof EnumMap) {
+            target = new EnumMap((EnumMap) original);
+            copy = target;
+        } else if (original instanceof TreeMap) {
+            target = new TreeMap<>((Comparator) ((SortedMap<?, ?>) original).comparator());
+            copy = target;
+        } else if (plan.constructor != null) {
+            target = (Map<Object, Object>) invoke(plan.constructor);
+            copy = target;
+        } else {
+            // not instantiable (for example, an unmodifiable view), so the nearest equivalent
+            final boolean unmodifiable = isUnmodifiable(original.getClass());
+            if (original instanceof SortedMap) {
+                target = new TreeMap<>((Comparator) ((SortedMap<?, ?>) original).comparator());
+                copy = unmodifiable
+                        ? Collections.unmodifiableSortedMap((SortedMap) target)
+                        : target;
+            } else {
+                target = new LinkedHashMap<>();
+                copy = unmodifiable ? Collections.unmodifiableMap(target) : target;
+            }
+        }
+        copies.put(original, copy);
+        for (final Map.Entry<?, ?> entry : original.entrySet()) {
+            target.put(copyCompletely(entry.getKey()), copyCompletely(entry.getValue()));
+        }
+        return copy;
+    }
+
+    private boolean isShared(final Class<?> type) {
+
+        for (final Class<?> sharedType : sharedTypes) {
+            if (sharedType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnmodifiable(final Class<?> type) {
+
+        final String name = type.getName();
+        return name.contains("Unmodifiable") || name.contains("Immutable");
+    }
+
+    private static Plan plan(final Class<?> type) {
+
+        if (isImmutable(type) || Path.class.isAssignableFrom(type)) {
+            return new Plan(Kind.SHARED, null, null);
+        }
+        if (type.isArray()) {
+            return new Plan(type.getComponentType().isPrimitive()
+                    ? Kind.PRIMITIVE_ARRAY
+                    : Kind.ARRAY, null, null);
+        }
+        if (type == Optional.class) {
+            return new Plan(Kind.OPTIONAL, null, null);
+        }
+        if (isJdkType(type) && Collection.class.isAssignableFrom(type)) {
+            return new Plan(Kind.COLLECTION, publicConstructor(type), null);
+        }
+        if (isJdkType(type) && Map.class.isAssignableFrom(type)) {
+            return new Plan(Kind.MAP, publicConstructor(type), null);
+        }
+
+        final Plan fields = fieldsPlan(type);
+        if (fields != null) {
+            return fields;
+        }
+        final MethodHandle clone = publicClone(type);
+        if (clone != null) {
+            return new Plan(Kind.CLONE, clone, null);
+        }
+        return new Plan(Kind.UNCOPYABLE, null, null);
+    }
+
+    private static Plan fieldsPlan(final Class<?> type) {
+
+        if (ALLOCATE_INSTANCE == null) {
+            return null;
+        }
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final List<FieldCopier> fields = new ArrayList<>();
+        for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            for (final Field field : cls.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    fields.add(new FieldCopier(field.getType().isPrimitive(),
+                            lookup.unreflectGetter(field)
+                                    .asType(MethodType.methodType(Object.class, Object.class)),
+                            lookup.unreflectSetter(field).asType(MethodType.methodType(
+                                    void.class, Object.class, Object.class))));
+                } catch (final RuntimeException | IllegalAccessException e) {
+                    // InaccessibleObjectException is only available in Java 9+, and the final
+                    // fields of records and hidden classes cannot be set
+                    return null;
+                }
+            }
+        }
+        return new Plan(Kind.FIELDS, ALLOCATE_INSTANCE, fields.toArray(new FieldCopier[0]));
+    }
+
+    /**
+     * Returns whether instances of the specified class are immutable, either because the class is
+     * known to be immutable or because all of its fields are final and of immutable types.
+     */
+    private static boolean isImmutable(final Class<?> type) {
+
+        if (isImmutableValue(type)) {
+            return true;
+        }
+        if (type.isArray() || isJdkType(type)) {
+            return false;
+        }
+        for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            for (final Field field : cls.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                final Class<?> fieldType = field.getType();
+                if (!Modifier.isFinal(field.getModifiers()) || !isImmutableValue(fieldType)
+                        || !(fieldType.isPrimitive() || Modifier.isFinal(fieldType.getModifiers())
+                                || Enum.class.isAssignableFrom(fieldType))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutableValue(final Class<?> type) {
+
+        return type.isPrimitive() || Enum.class.isAssignableFrom(type)
+                || IMMUTABLE_TYPES.contains(type) || type.getName().startsWith("java.time.");
+    }
+
+    private static boolean isJdkType(final Class<?> type) {
+
+        final String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.") || name.startsWith("com.sun.");
+    }
+
+    private static MethodHandle publicConstructor(final Class<?> type) {
+
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle publicClone(final Class<?> type) {
+
+        if (!Cloneable.class.isAssignableFrom(type)) {
+            return null;
+        }
+        try {
+            final Method clone = type.getMethod("clone");
+            return MethodHandles.publicLookup()
+                    .unreflect(clone)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle allocateInstance() {
+
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .unreflect(unsafeClass.getMethod("allocateInstance", Class.class))
+                    .bindTo(theUnsafe.get(null))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Object invoke(final MethodHandle handle) {
+
+        try {
+            return (Object) handle.invokeExact();
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private static Object invoke(final MethodHandle handle, final Object argument) {
+
+        try {
+            return (Object) handle.invokeExact(argument);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    /**
+     * How instances of a class are copied.
+     */
+    private enum Kind {
+        SHARED, PRIMITIVE_ARRAY, ARRAY, OPTIONAL, COLLECTION, MAP, CLONE, FIELDS, UNCOPYABLE
+    }
+
+    /**
+     * The cached plan for copying instances of a class.
+     */
+    private static final class Plan {
+
+        private final Kind kind;
+        private final MethodHandle constructor;
+        private final FieldCopier[] fields;
+
+        private Plan(final Kind kind, final MethodHandle constructor, final FieldCopier[] fields) {
+
+            this.kind = kind;
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Copies an instance field.
+     */
+    private static final class FieldCopier {
+
+        private final boolean primitive;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private FieldCopier(final boolean primitive,
+                            final MethodHandle getter,
+                            final MethodHandle setter) {
+
+            this.primitive = primitive;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private void copy(final DeepCopier copier, final Object original, final Object copy) {
+
+            try {
+                final Object value = (Object) getter.invokeExact(original);
+                setter.invokeExact(copy, primitive ? value : copier.copyValue(value));
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+        }
+    }
+}
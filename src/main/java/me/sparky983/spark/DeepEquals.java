@@ -0,0 +1,598 @@
+package me.sparky983.spark;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compares object graphs field by field.
+ * <p>
+ * The graphs are walked iteratively (so that deep graphs do not overflow the stack), and each pair
+ * of objects is only compared once (so that cycles terminate). Objects of JDK classes that
+ * override {@link Object#equals(Object)} (other than arrays, collections, maps and optionals) and
+ * enums are compared with {@code equals}. String builders and atomic holders are compared by their
+ * contents, and all other objects are compared by their fields, except for objects of JDK classes
+ * whose fields are not accessible, which can only be compared with {@code equals}. The elements of
+ * sets and the keys of maps are matched structurally: they are bucketed by a hash that is
+ * consistent with deep equality, and then paired with a deeply equal element of the same bucket.
+ * <p>
+ * The path of a pair is only built when a difference is reported. To match ignored paths, a pair
+ * only keeps its path while it is a prefix of an ignored path.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class DeepEquals {
+
+    /**
+     * How deep the structural hash of a set element or map key looks into its fields.
+     */
+    private static final int HASH_DEPTH = 3;
+    /**
+     * Stands in for a matched {@code null} set element or map key.
+     */
+    private static final Object NULL = new Object();
+
+    private static final ClassValue<Boolean> VALUE_TYPES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+
+            if (type.isEnum() || type.isPrimitive()) {
+                return true;
+            }
+            final String name = type.getName();
+            if (!name.startsWith("java.") && !name.startsWith("javax.")
+                    && !name.startsWith("jdk.") && !name.startsWith("sun.")
+                    && !name.startsWith("com.sun.")) {
+                return false;
+            }
+            try {
+                return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+            } catch (final NoSuchMethodException e) {
+                throw new AssertionError(e);
+            }
+        }
+    };
+
+    private final Set<String> ignoredFields;
+    private final Set<String> ignoredPrefixes;
+    /**
+     * The actual object that each expected object has been compared with, or {@link Actuals} if
+     * an expected object has been compared with more than one actual object.
+     */
+    private final Map<Object, Object> visited = new IdentityHashMap<>();
+    private final Deque<Node> nodes = new ArrayDeque<>();
+
+    private DeepEquals(final Set<String> ignoredFields, final Set<String> ignoredPrefixes) {
+
+        this.ignoredFields = ignoredFields;
+        this.ignoredPrefixes = ignoredPrefixes;
+    }
+
+    /**
+     * Describes the first difference between the specified object graphs.
+     *
+     * @param expected the expected object graph.
+     * @param actual the actual object graph.
+     * @param ignoredFields the names or paths (for example, {@code address.street}) of the fields
+     * that are ignored.
+     * @return the description of the first difference, or {@code null} if the object graphs are
+     * deeply equal.
+     */
+    static String difference(final Object expected,
+                             final Object actual,
+                             final Set<String> ignoredFields) {
+
+        final Set<String> ignoredPrefixes = new HashSet<>();
+        for (final String field : ignoredFields) {
+            for (int dot = field.indexOf('.'); dot != -1; dot = field.indexOf('.', dot + 1)) {
+                ignoredPrefixes.add(field.substring(0, dot));
+            }
+        }
+        final DeepEquals deepEquals = new DeepEquals(ignoredFields, ignoredPrefixes);
+        final Node root = new Node(null, "result", false, expected, actual, "");
+        final Node difference = deepEquals.difference(root);
+        return difference == null ? null : difference.path() + ": " + difference.difference;
+    }
+
+    /**
+     * Creates the set of ignored fields.
+     *
+     * @param ignoredFields the names or paths of the ignored fields.
+     * @return the set of ignored fields.
+     * @throws NullPointerException if any of the ignored fields are {@code null}.
+     */
+    static Set<String> ignoredFields(final String... ignoredFields) {
+
+        final Set<String> fields = new HashSet<>();
+        for (final String field : ignoredFields) {
+            fields.add(Objects.requireNonNull(field, "ignoredFields cannot contain null"));
+        }
+        return fields;
+    }
+
+    private Node difference(final Node root) {
+
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            final Node node = nodes.pop();
+            final String difference = compare(node);
+            if (difference != null) {
+                node.difference = difference;
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the specified objects are deeply equal, comparing them as a child of the
+     * specified node, so that ignored paths apply.
+     */
+    private boolean isDeeplyEqual(final Node parent, final Object expected, final Object actual) {
+
+        if (expected == actual) {
+            return true;
+        }
+        final DeepEquals deepEquals = new DeepEquals(ignoredFields, ignoredPrefixes);
+        return deepEquals.difference(child(parent, "?", false, expected, actual)) == null;
+    }
+
+    private String compare(final Node node) {
+
+        final Object expected = node.expected;
+        final Object actual = node.actual;
+        if (expected == actual) {
+            return null;
+        }
+        if (expected == null || actual == null) {
+            return "expected <" + expected + ">, found <" + actual + ">";
+        }
+
+        final Class<?> type = expected.getClass();
+        if (expected instanceof Optional && actual instanceof Optional) {
+            return compareOptionals(node, (Optional<?>) expected, (Optional<?>) actual);
+        }
+        if (!type.isArray() && !(expected instanceof Collection) && !(expected instanceof Map)
+                && isValue(type)) {
+            return compareValues(expected, actual);
+        }
+        final Object contents = contentsOf(expected);
+        if (contents != null && type == actual.getClass()) {
+            return compareValues(contents, contentsOf(actual));
+        }
+        if (!visit(expected, actual)) {
+            // already compared (or being compared), which happens in cyclic graphs
+            return null;
+        }
+
+        if (type.isArray()) {
+            return compareArrays(node, expected, actual);
+        }
+        if (type == AtomicReference.class && actual.getClass() == AtomicReference.class) {
+            nodes.push(child(node, "get()", true, ((AtomicReference<?>) expected).get(),
+                    ((AtomicReference<?>) actual).get()));
+            return null;
+        }
+        if (expected instanceof Set && actual instanceof Set) {
+            return compareSets(node, (Set<?>) expected, (Set<?>) actual);
+        }
+        if (expected instanceof List && actual instanceof List) {
+            return compareIterables(node, (List<?>) expected, (List<?>) actual);
+        }
+        if (expected instanceof Map && actual instanceof Map) {
+            return compareMaps(node, (Map<?, ?>) expected, (Map<?, ?>) actual);
+        }
+        if (expected instanceof Collection && actual instanceof Collection
+                && !(expected instanceof List) && !(actual instanceof List)) {
+            return compareIterables(node, (Collection<?>) expected, (Collection<?>) actual);
+        }
+        if (type != actual.getClass()) {
+            return "expected type <" + type.getName() + ">, found type <"
+                    + actual.getClass().getName() + ">";
+        }
+
+        final FieldAccessors.FieldAccessor[] accessors = FieldAccessors.of(type);
+        if (accessors == null) {
+            return compareValues(expected, actual);
+        }
+        for (int i = accessors.length - 1; i >= 0; i--) {
+            final FieldAccessors.FieldAccessor accessor = accessors[i];
+            if (isIgnored(node, accessor.name())) {
+                continue;
+            }
+            nodes.push(child(node, accessor.name(), true, accessor.get(expected),
+                    accessor.get(actual)));
+        }
+        return null;
+    }
+
+    /**
+     * Records that the specified objects are compared.
+     *
+     * @return {@code true} if they have not been compared before, otherwise {@code false}.
+     */
+    private boolean visit(final Object expected, final Object actual) {
+
+        final Object visitedActual = visited.get(expected);
+        if (visitedActual == null) {
+            visited.put(expected, actual);
+            return true;
+        }
+        if (visitedActual == actual) {
+            return false;
+        }
+        if (visitedActual instanceof Actuals) {
+            return ((Actuals) visitedActual).actuals.add(actual);
+        }
+        final Actuals actuals = new Actuals();
+        actuals.actuals.add(visitedActual);
+        actuals.actuals.add(actual);
+        visited.put(expected, actuals);
+        return true;
+    }
+
+    private String compareOptionals(final Node node,
+                                    final Optional<?> expected,
+                                    final Optional<?> actual) {
+
+        if (expected.isPresent() != actual.isPresent()) {
+            return "expected <" + expected + ">, found <" + actual + ">";
+        }
+        if (expected.isPresent()) {
+            nodes.push(child(node, "get()", true, expected.get(), actual.get()));
+        }
+        return null;
+    }
+
+    private String compareArrays(final Node node, final Object expected, final Object actual) {
+
+        if (expected.getClass() != actual.getClass()) {
+            return "expected type <" + expected.getClass().getTypeName() + ">, found type <"
+                    + actual.getClass().getTypeName() + ">";
+        }
+        final int length = Array.getLength(expected);
+        if (length != Array.getLength(actual)) {
+            return "expected length <" + length + ">, found length <" + Array.getLength(actual)
+                    + ">";
+        }
+        if (expected.getClass().getComponentType().isPrimitive()) {
+            for (int i = 0; i < length; i++) {
+                final Object expectedElement = Array.get(expected, i);
+                final Object actualElement = Array.get(actual, i);
+                if (!expectedElement.equals(actualElement)) {
+                    nodes.push(child(node, i, false, expectedElement, actualElement));
+                    return null;
+                }
+            }
+            return null;
+        }
+        final Object[] expectedElements = (Object[]) expected;
+        final Object[] actualElements = (Object[]) actual;
+        for (int i = length - 1; i >= 0; i--) {
+            nodes.push(child(node, i, false, expectedElements[i], actualElements[i]));
+        }
+        return null;
+    }
+
+    private String compareIterables(final Node node,
+                                    final Collection<?> expected,
+                                    final Collection<?> actual) {
+
+        if (expected.size() != actual.size()) {
+            return "expected size <" + expected.size() + ">, found size <" + actual.size() + ">";
+        }
+        // pushed in reverse so that the first difference is found first
+        final Deque<Node> elements = new ArrayDeque<>(expected.size());
+        final Iterator<?> expectedIterator = expected.iterator();
+        final Iterator<?> actualIterator = actual.iterator();
+        for (int i = 0; expectedIterator.hasNext() && actualIterator.hasNext(); i++) {
+            elements.push(child(node, i, false, expectedIterator.next(), actualIterator.next()));
+        }
+        while (!elements.isEmpty()) {
+            nodes.push(elements.pop());
+        }
+        return null;
+    }
+
+    private String compareSets(final Node node, final Set<?> expected, final Set<?> actual) {
+
+        if (expected.size() != actual.size()) {
+            return "expected size <" + expected.size() + ">, found size <" + actual.size() + ">";
+        }
+        final Buckets buckets = new Buckets(actual);
+        for (final Object element : expected) {
+            if (buckets.match(node, element) == null) {
+                return "expected element <" + element + ">, found elements <" + actual + ">";
+            }
+        }
+        return null;
+    }
+
+    private String compareMaps(final Node node, final Map<?, ?> expected, final Map<?, ?> actual) {
+
+        if (expected.size() != actual.size()) {
+            return "expected size <" + expected.size() + ">, found size <" + actual.size() + ">";
+        }
+        final Buckets buckets = new Buckets(actual.keySet());
+        for (final Map.Entry<?, ?> entry : expected.entrySet()) {
+            final Object key = buckets.match(node, entry.getKey());
+            if (key == null) {
+                return "expected key <" + entry.getKey() + ">, found keys <" + actual.keySet()
+                        + ">";
+            }
+            nodes.push(child(node, entry.getKey(), false, entry.getValue(),
+                    actual.get(key == NULL ? null : key)));
+        }
+        return null;
+    }
+
+    private static String compareValues(final Object expected, final Object actual) {
+
+        if (expected.equals(actual)) {
+            return null;
+        }
+        return "expected <" + expected + ">, found <" + actual + ">";
+    }
+
+    private boolean isIgnored(final Node parent, final String field) {
+
+        if (ignoredFields.isEmpty()) {
+            return false;
+        }
+        if (ignoredFields.contains(field)) {
+            return true;
+        }
+        return parent.ignorablePath != null
+                && ignoredFields.contains(join(parent.ignorablePath, field, true));
+    }
+
+    /**
+     * Creates a child of the specified node, which keeps its path if it may be the prefix of an
+     * ignored path.
+     */
+    private Node child(final Node parent,
+                       final Object segment,
+                       final boolean isField,
+                       final Object expected,
+                       final Object actual) {
+
+        String ignorablePath = null;
+        if (parent.ignorablePath != null && !ignoredPrefixes.isEmpty()) {
+            final String path = join(parent.ignorablePath, segment, isField);
+            if (ignoredPrefixes.contains(path)) {
+                ignorablePath = path;
+            }
+        }
+        return new Node(parent, segment, isField, expected, actual, ignorablePath);
+    }
+
+    private static String join(final String path, final Object segment, final boolean isField) {
+
+        if (!isField) {
+            return path + "[" + segment + "]";
+        }
+        return path.isEmpty() ? segment.toString() : path + "." + segment;
+    }
+
+    private static boolean isValue(final Class<?> type) {
+
+        return VALUE_TYPES.get(type);
+    }
+
+    /**
+     * Returns the contents of the specified object if it is a string builder or an atomic holder
+     * of a primitive, whose classes do not override {@code equals}.
+     *
+     * @return the contents, or {@code null} if the object is not a string builder or atomic
+     * holder.
+     */
+    private static Object contentsOf(final Object o) {
+
+        final Class<?> type = o.getClass();
+        if (type == StringBuilder.class || type == StringBuffer.class) {
+            return o.toString();
+        } else if (type == AtomicInteger.class) {
+            return ((AtomicInteger) o).get();
+        } else if (type == AtomicLong.class) {
+            return ((AtomicLong) o).get();
+        } else if (type == AtomicBoolean.class) {
+            return ((AtomicBoolean) o).get();
+        }
+        return null;
+    }
+
+    /**
+     * Hashes the specified object consistently with deep equality: deeply equal objects have the
+     * same hash. Only the fields of the first {@value #HASH_DEPTH} levels of objects are hashed,
+     * so hashing terminates for cyclic graphs.
+     */
+    private int structuralHash(final Object o, final int depth) {
+
+        if (o == null || depth == 0) {
+            return 0;
+        }
+        final Class<?> type = o.getClass();
+        if (o instanceof Optional) {
+            return structuralHash(((Optional<?>) o).orElse(null), depth);
+        }
+        if (type.isArray()) {
+            int hash = 0;
+            for (int i = 0; i < Array.getLength(o); i++) {
+                hash += structuralHash(Array.get(o, i), depth - 1);
+            }
+            return hash;
+        }
+        if (o instanceof Collection) {
+            int hash = 0;
+            for (final Object element : (Collection<?>) o) {
+                hash += structuralHash(element, depth - 1);
+            }
+            return hash;
+        }
+        if (o instanceof Map) {
+            int hash = 0;
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+                hash += structuralHash(entry.getKey(), depth - 1)
+                        ^ structuralHash(entry.getValue(), depth - 1);
+            }
+            return hash;
+        }
+        if (isValue(type)) {
+            return o.hashCode();
+        }
+        final Object contents = contentsOf(o);
+        if (contents != null) {
+            return contents.hashCode();
+        }
+        if (type == AtomicReference.class) {
+            return structuralHash(((AtomicReference<?>) o).get(), depth - 1);
+        }
+        final FieldAccessors.FieldAccessor[] accessors = FieldAccessors.of(type);
+        if (accessors == null) {
+            return o.hashCode();
+        }
+        // fields may be ignored by a path, which is not known here
+        if (!ignoredPrefixes.isEmpty()) {
+            return type.hashCode();
+        }
+        int hash = type.hashCode();
+        for (final FieldAccessors.FieldAccessor accessor : accessors) {
+            if (!ignoredFields.contains(accessor.name())) {
+                hash = 31 * hash + structuralHash(accessor.get(o), depth - 1);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * The elements of a set (or keys of a map) that have not been matched yet, bucketed by their
+     * structural hash. Elements of JDK classes that override {@code equals} are matched by
+     * {@code equals} without being bucketed.
+     */
+    private final class Buckets {
+
+        private final Collection<?> elements;
+        private Map<Integer, List<Object>> buckets;
+
+        private Buckets(final Collection<?> elements) {
+
+            this.elements = elements;
+        }
+
+        /**
+         * Matches the specified expected element with a deeply equal element.
+         *
+         * @return the matched element ({@link #NULL} for {@code null}), or {@code null} if there
+         * is none.
+         */
+        private Object match(final Node node, final Object expected) {
+
+            if (expected == null) {
+                return elements.contains(null) ? NULL : null;
+            }
+            final Class<?> type = expected.getClass();
+            if (!type.isArray() && !(expected instanceof Collection)
+                    && !(expected instanceof Map) && !(expected instanceof Optional)
+                    && isValue(type)) {
+                return elements.contains(expected) ? expected : null;
+            }
+            if (buckets == null) {
+                buckets = new HashMap<>();
+                for (final Object element : elements) {
+                    if (element != null) {
+                        buckets.computeIfAbsent(structuralHash(element, HASH_DEPTH),
+                                (hash) -> new ArrayList<>()).add(element);
+                    }
+                }
+            }
+            final List<Object> bucket = buckets.get(structuralHash(expected, HASH_DEPTH));
+            if (bucket == null) {
+                return null;
+            }
+            for (final Iterator<Object> candidates = bucket.iterator(); candidates.hasNext(); ) {
+                final Object candidate = candidates.next();
+                if (isDeeplyEqual(node, expected, candidate)) {
+                    candidates.remove();
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The actual objects that an expected object has been compared with.
+     */
+    private static final class Actuals {
+
+        private final Set<Object> actuals = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * A pair of objects in the compared graphs, with a link to its parent to build its path.
+     */
+    private static final class Node {
+
+        private final Node parent;
+        private final Object segment;
+        private final boolean isField;
+        private final Object expected;
+        private final Object actual;
+        /**
+         * The path from the result, if it is a prefix of an ignored path, otherwise {@code null}.
+         */
+        private final String ignorablePath;
+        private String difference;
+
+        private Node(final Node parent,
+                     final Object segment,
+                     final boolean isField,
+                     final Object expected,
+                     final Object actual,
+                     final String ignorablePath) {
+
+            this.parent = parent;
+            this.segment = segment;
+            this.isField = isField;
+            this.expected = expected;
+            this.actual = actual;
+            this.ignorablePath = ignorablePath;
+        }
+
+        private String path() {
+
+            final Deque<Node> path = new ArrayDeque<>();
+            for (Node node = this; node != null; node = node.parent) {
+                path.push(node);
+            }
+            final StringBuilder builder = new StringBuilder();
+            for (final Node node : path) {
+                if (node.parent == null) {
+                    builder.append(node.segment);
+                } else if (node.isField) {
+                    builder.append('.').append(node.segment);
+                } else {
+                    builder.append('[').append(node.segment).append(']');
+                }
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package me.sparky983.spark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Caches accessors for the instance fields of classes.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class FieldAccessors {
+
+    private static final FieldAccessor[] INACCESSIBLE = new FieldAccessor[0];
+
+    private static final ClassValue<FieldAccessor[]> ACCESSORS = new ClassValue<FieldAccessor[]>() {
+        @Override
+        protected FieldAccessor[] computeValue(final Class<?> type) {
+
+            return createAccessors(type);
+        }
+    };
+
+    private FieldAccessors() {
+
+    }
+
+    /**
+     * Returns the accessors of the instance fields of the specified class, including inherited
+     * fields.
+     *
+     * @param type the class.
+     * @return the accessors, or {@code null} if the fields are not accessible (for example, the
+     * fields of a JDK class in a module that is not open).
+     */
+    static FieldAccessor[] of(final Class<?> type) {
+
+        final FieldAccessor[] accessors = ACCESSORS.get(type);
+        return accessors == INACCESSIBLE ? null : accessors;
+    }
+
+    private static FieldAccessor[] createAccessors(final Class<?> type) {
+
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodType getterType = MethodType.methodType(Object.class, Object.class);
+        final List<FieldAccessor> accessors = new ArrayList<>();
+        for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            for (final Field field : cls.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    accessors.add(new FieldAccessor(field,
+                            lookup.unreflectGetter(field).asType(getterType)));
+                } catch (final RuntimeException | IllegalAccessException e) {
+                    // InaccessibleObjectException is only available in Java 9+
+                    return INACCESSIBLE;
+                }
+            }
+        }
+        return accessors.toArray(new FieldAccessor[0]);
+    }
+
+    /**
+     * An accessor of an instance field.
+     */
+    static final class FieldAccessor {
+
+        private final Field field;
+        private final MethodHandle getter;
+
+        private FieldAccessor(final Field field, final MethodHandle getter) {
+
+            this.field = field;
+            this.getter = getter;
+        }
+
+        String name() {
+
+            return field.getName();
+        }
+
+        Field field() {
+
+            return field;
+        }
+
+        Object get(final Object object) {
+
+            try {
+                return (Object) getter.invokeExact(object);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package me.sparky983.spark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * The file descriptors open in this process, used by
+ * {@link Assertion#closesAllFileDescriptors()}.
+ * <p>
+ * On Linux the descriptors are listed from {@code /proc/self/fd} along with what they refer to
+ * (such as {@code /tmp/data.bin} or {@code socket:[12345]}), excluding the descriptor used to list
+ * them. On other Unix systems only the number of open descriptors is known, from HotSpot's
+ * {@code com.sun.management.UnixOperatingSystemMXBean}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class FileDescriptors {
+
+    private static final Path PROC_FDS = Paths.get("/proc/self/fd");
+
+    private static final com.sun.management.UnixOperatingSystemMXBean OPERATING_SYSTEM;
+
+    static {
+        final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+            OPERATING_SYSTEM = (com.sun.management.UnixOperatingSystemMXBean) os;
+        } else {
+            OPERATING_SYSTEM = null;
+        }
+    }
+
+    /**
+     * The targets of the descriptors by descriptor number, or {@code null} if only the number of
+     * descriptors is known.
+     */
+    private final Map<Integer, String> targets;
+    private final long count;
+
+    private FileDescriptors(final Map<Integer, String> targets, final long count) {
+
+        this.targets = targets;
+        this.count = count;
+    }
+
+    /**
+     * Returns whether the open file descriptors can be measured on this system.
+     *
+     * @return {@code true} if the open file descriptors can be measured, otherwise {@code false}.
+     */
+    static boolean isSupported() {
+
+        return Files.isDirectory(PROC_FDS) || OPERATING_SYSTEM != null;
+    }
+
+    /**
+     * Measures the open file descriptors.
+     *
+     * @return the open file descriptors.
+     * @throws IllegalStateException if the file descriptors cannot be measured.
+     */
+    static FileDescriptors open() {
+
+        if (Files.isDirectory(PROC_FDS)) {
+            final Map<Integer, String> targets = new TreeMap<>();
+            try (DirectoryStream<Path> fds = Files.newDirectoryStream(PROC_FDS)) {
+                for (final Path fd : fds) {
+                    final String target = target(fd);
+                    final boolean isStream = target != null
+                            && target.startsWith("/proc/") && target.endsWith("/fd");
+                    if (target != null && !isStream) {
+                        targets.put(Integer.valueOf(fd.getFileName().toString()), target);
+                    }
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new FileDescriptors(targets, targets.size());
+        }
+        if (OPERATING_SYSTEM == null) {
+            throw new IllegalStateException("File descriptor measurement is not supported");
+        }
+        return new FileDescriptors(null, OPERATING_SYSTEM.getOpenFileDescriptorCount());
+    }
+
+    /**
+     * Returns the number of descriptors that were opened since the specified measurement and are
+     * still open.
+     *
+     * @param before the earlier measurement.
+     * @return the number of descriptors.
+     */
+    long openedSince(final FileDescriptors before) {
+
+        if (targets == null || before.targets == null) {
+            return Math.max(count - before.count, 0);
+        }
+        long opened = 0;
+        for (final Map.Entry<Integer, String> fd : targets.entrySet()) {
+            if (!fd.getValue().equals(before.targets.get(fd.getKey()))) {
+                opened++;
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * Describes the descriptors that were opened since the specified measurement, for example
+     * {@code 42 -> /tmp/data.bin, 43 -> socket:[12345]}.
+     *
+     * @param before the earlier measurement.
+     * @return the description.
+     */
+    String describeOpenedSince(final FileDescriptors before) {
+
+        if (targets == null || before.targets == null) {
+            return "targets are unknown";
+        }
+        final StringJoiner description = new StringJoiner(", ");
+        for (final Map.Entry<Integer, String> fd : targets.entrySet()) {
+            if (!fd.getValue().equals(before.targets.get(fd.getKey()))) {
+                description.add(fd.getKey() + " -> " + fd.getValue());
+            }
+        }
+        return description.toString();
+    }
+
+    private static String target(final Path fd) {
+
+        try {
+            return Files.readSymbolicLink(fd).toString();
+        } catch (final IOException e) {
+            // closed while listing
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package me.sparky983.spark;
+
+import java.util.function.Function;
+
+/**
+ * Provides the given object to each assertion of a given.
+ * <p>
+ * The given object is acquired before an assertion is performed and is released once the
+ * assertion has completed, so a given object can be lent out to many assertions (possibly on
+ * different threads) over its lifetime.
+ *
+ * @author Sparky983
+ * @param <T> the type of the given object.
+ * @since 1.2
+ */
+interface Fixture<T> {
+
+    /**
+     * Creates a fixture that always provides the specified given object.
+     *
+     * @param given the given object.
+     * @return the fixture.
+     * @param <T> the type of the given object.
+     */
+    static <T> Fixture<T> constant(final T given) {
+
+        return new Fixture<T>() {
+            @Override
+            public T acquire() {
+
+                return given;
+            }
+
+            @Override
+            public void release(final T given) {
+
+            }
+        };
+    }
+
+    /**
+     * Acquires the given object.
+     *
+     * @return the given object.
+     */
+    T acquire();
+
+    /**
+     * Releases the specified given object, which was returned by {@link #acquire()}.
+     *
+     * @param given the given object.
+     */
+    void release(T given);
+
+    /**
+     * Performs the specified assertion on the result of the specified when-function, which is
+     * applied to an acquired given object.
+     * <p>
+     * If the {@link ImpactCache impact cache} is enabled, the assertion is skipped if it passed in
+     * a previous run and nothing it depends on has changed.
+     *
+     * @param when the when-function.
+     * @param assertion the assertion.
+     * @param <R> the type of the result of the when-function.
+     */
+    default <R> void perform(final Function<T, R> when, final Assertion<R> assertion) {
+
+        final T given = acquire();
+        Throwable failure = null;
+        try {
+            final ImpactCache cache = ImpactCache.enabled();
+            if (cache == null) {
+                Instruments.perform(assertion, () -> when.apply(given));
+            } else {
+                cache.perform(Callers.callSiteOf(Fixture.class, When.class, Then.class), given,
+                        when, assertion, () -> Instruments.perform(assertion,
+                                () -> when.apply(given)));
+            }
+        } catch (final RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            try {
+                release(given);
+            } catch (final RuntimeException | Error e) {
+                if (failure == null) {
+                    throw e;
+                }
+                failure.addSuppressed(e);
+            }
+        }
+    }
+}
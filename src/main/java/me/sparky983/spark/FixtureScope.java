@@ -0,0 +1,36 @@
+package me.sparky983.spark;
+
+import java.util.function.Supplier;
+
+/**
+ * The scope of a shared given object, which determines how often it is built.
+ *
+ * @author Sparky983
+ * @see Given#shared(String, FixtureScope, Supplier)
+ * @since 1.2
+ */
+public enum FixtureScope {
+
+    /**
+     * The given object is built once per given (the first time it is needed), and is not shared
+     * with other givens.
+     *
+     * @since 1.2
+     */
+    SCENARIO,
+
+    /**
+     * The given object is built once per test class, and is shared by all givens of the class
+     * with the same name.
+     *
+     * @since 1.2
+     */
+    CLASS,
+
+    /**
+     * The given object is built once per JVM, and is shared by all givens with the same name.
+     *
+     * @since 1.2
+     */
+    JVM
+}
@@ -0,0 +1,321 @@
+package me.sparky983.spark;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Creates shared, pooled and snapshot fixtures.
+ * <p>
+ * Shared given objects that are {@link AutoCloseable} are closed when the JVM shuts down.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Fixtures {
+
+    private static final Map<String, Map<String, Fixture<?>>> CLASS_FIXTURES =
+            new ConcurrentHashMap<>();
+    private static final Map<String, Fixture<?>> JVM_FIXTURES = new ConcurrentHashMap<>();
+
+    private static final Queue<AutoCloseable> CLOSEABLES = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean CLOSES_ON_SHUTDOWN = new AtomicBoolean();
+
+    private Fixtures() {
+
+    }
+
+    /**
+     * Returns the shared fixture with the specified name and scope.
+     *
+     * @param name the name of the fixture.
+     * @param scope the scope of the fixture.
+     * @param supplier the supplier that builds the given object, if it has not been built yet.
+     * @return the fixture.
+     * @param <T> the type of the given object.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Fixture<T> shared(final String name,
+                                 final FixtureScope scope,
+                                 final Supplier<? extends T> supplier) {
+
+        switch (scope) {
+            case SCENARIO:
+                return new Lazy<>(supplier, false);
+            case CLASS:
+                return (Fixture<T>) CLASS_FIXTURES
+                        .computeIfAbsent(Callers.callerOf(Given.class),
+                                (key) -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(name, (key) -> new Lazy<>(supplier, true));
+            case JVM:
+                return (Fixture<T>) JVM_FIXTURES.computeIfAbsent(name,
+                        (key) -> new Lazy<>(supplier, true));
+            default:
+                throw new AssertionError(scope);
+        }
+    }
+
+    /**
+     * Creates a bounded pool of given objects.
+     *
+     * @param supplier the supplier that builds the given objects.
+     * @param reset the function that resets a given object before it is returned to the pool.
+     * @param size the maximum number of given objects.
+     * @return the pool.
+     * @param <T> the type of the given objects.
+     */
+    static <T> Fixture<T> pooled(final Supplier<? extends T> supplier,
+                                 final Consumer<? super T> reset,
+                                 final int size) {
+
+        return new Pool<>(supplier, reset, size);
+    }
+
+    /**
+     * Creates a fixture that generates a given object of each of the specified sizes, for
+     * assertions on how the when-function scales.
+     * <p>
+     * Assertions other than the scaling assertions are performed on the given object of the
+     * largest size.
+     *
+     * @param generator the function that generates a given object of a size.
+     * @param sizes the sizes, in ascending order.
+     * @return the fixture.
+     * @param <T> the type of the given objects.
+     * @see Scaling
+     */
+    static <T> Fixture<T> sized(final IntFunction<? extends T> generator, final int[] sizes) {
+
+        return new Sized<>(generator, sizes);
+    }
+
+    /**
+     * Creates a fixture whose given object is a spy that counts the invocations of the methods of
+     * the specified interface, for assertions on the invocations made by the when-function.
+     *
+     * @param type the interface.
+     * @param delegate the object that invocations are delegated to.
+     * @return the fixture.
+     * @param <I> the type of the interface.
+     * @see Spy
+     */
+    static <I> Fixture<I> spied(final Class<I> type, final I delegate) {
+
+        final Spy<I> spy = new Spy<>(type, delegate);
+        return new Fixture<I>() {
+            @Override
+            public I acquire() {
+
+                return spy.proxy();
+            }
+
+            @Override
+            public void release(final I given) {
+
+            }
+
+            @Override
+            public <R> void perform(final Function<I, R> when, final Assertion<R> assertion) {
+
+                spy.run(() -> Fixture.super.perform(when, assertion));
+            }
+        };
+    }
+
+    /**
+     * Creates a fixture that captures a copy of the given object of the specified fixture, and
+     * provides a new copy of the captured state to each assertion.
+     *
+     * @param fixture the fixture whose given object is captured.
+     * @param copier the copier.
+     * @return the fixture.
+     * @param <T> the type of the given object.
+     */
+    static <T> Fixture<T> snapshot(final Fixture<T> fixture, final Copier<T> copier) {
+
+        final T given = fixture.acquire();
+        final T captured;
+        try {
+            captured = copier.copy(given);
+        } finally {
+            fixture.release(given);
+        }
+        return new Fixture<T>() {
+            @Override
+            public T acquire() {
+
+                return copier.copy(captured);
+            }
+
+            @Override
+            public void release(final T given) {
+
+            }
+        };
+    }
+
+    private static void closeOnShutdown(final Object given) {
+
+        if (!(given instanceof AutoCloseable)) {
+            return;
+        }
+        CLOSEABLES.add((AutoCloseable) given);
+        if (CLOSES_ON_SHUTDOWN.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                AutoCloseable closeable;
+                while ((closeable = CLOSEABLES.poll()) != null) {
+                    try {
+                        closeable.close();
+                    } catch (final Exception e) {
+                        // nothing can be done about it during shutdown
+                    }
+                }
+            }, "spark-fixtures"));
+        }
+    }
+
+    /**
+     * A fixture whose given object is built the first time it is acquired.
+     */
+    private static final class Lazy<T> implements Fixture<T> {
+
+        private final Supplier<? extends T> supplier;
+        private final boolean shared;
+        private volatile boolean built;
+        private T given;
+
+        private Lazy(final Supplier<? extends T> supplier, final boolean shared) {
+
+            this.supplier = supplier;
+            this.shared = shared;
+        }
+
+        @Override
+        public T acquire() {
+
+            if (!built) {
+                synchronized (this) {
+                    if (!built) {
+                        given = Instruments.supplyGiven(supplier);
+                        built = true;
+                        if (shared) {
+                            closeOnShutdown(given);
+                        }
+                    }
+                }
+            }
+            return given;
+        }
+
+        @Override
+        public void release(final T given) {
+
+        }
+    }
+
+    /**
+     * A fixture that lends out given objects from a bounded pool.
+     * <p>
+     * The pool has a permit for each object it may build. {@link #acquire()} takes a permit,
+     * waiting without polling until an object is released or discarded if all the permits are
+     * taken, and then takes an idle object or builds a new one if there is none. Objects that fail
+     * to reset are discarded.
+     */
+    private static final class Pool<T> implements Fixture<T> {
+
+        private final Supplier<? extends T> supplier;
+        private final Consumer<? super T> reset;
+        private final Semaphore permits;
+        private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+
+        private Pool(final Supplier<? extends T> supplier,
+                     final Consumer<? super T> reset,
+                     final int size) {
+
+            this.supplier = supplier;
+            this.reset = reset;
+            this.permits = new Semaphore(size);
+        }
+
+        @Override
+        public T acquire() {
+
+            try {
+                permits.acquire();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a pooled given", e);
+            }
+            final T given = idle.poll();
+            if (given != null) {
+                return given;
+            }
+            try {
+                return Objects.requireNonNull(Instruments.supplyGiven(supplier),
+                        "supplier returned null");
+            } catch (final RuntimeException | Error e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void release(final T given) {
+
+            try {
+                reset.accept(given);
+            } catch (final RuntimeException | Error e) {
+                // the object may be in any state, so it is discarded rather than reused
+                permits.release();
+                throw e;
+            }
+            idle.add(given);
+            permits.release();
+        }
+    }
+
+    /**
+     * A fixture that makes the given objects of all its sizes available to the scaling
+     * assertions, generating a new given object for every call of the when-function.
+     */
+    private static final class Sized<T> implements Fixture<T> {
+
+        private final IntFunction<? extends T> generator;
+        private final int[] sizes;
+
+        private Sized(final IntFunction<? extends T> generator, final int[] sizes) {
+
+            this.generator = generator;
+            this.sizes = sizes;
+        }
+
+        @Override
+        public T acquire() {
+
+            return generator.apply(sizes[sizes.length - 1]);
+        }
+
+        @Override
+        public void release(final T given) {
+
+        }
+
+        @Override
+        public <R> void perform(final Function<T, R> when, final Assertion<R> assertion) {
+
+            final Scaling scaling = new Scaling(sizes, (size) -> {
+                final T given = generator.apply(size);
+                return () -> when.apply(given);
+            });
+            scaling.run(() -> Fixture.super.perform(when, assertion));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package me.sparky983.spark;
+
+/**
+ * Emits JDK Flight Recorder events for the given, when and assertion stages of a test.
+ * <p>
+ * JFR is not available on every JVM that spark supports, so the implementation is compiled
+ * separately against Java 11 and is loaded reflectively. On older JVMs no events are emitted.
+ * <p>
+ * The events are disabled by default, and can be enabled in a recording's settings (for example
+ * {@code jfr configure me.sparky983.spark.Assertion#enabled=true}).
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+abstract class FlightRecorder {
+
+    private static final FlightRecorder RECORDER = load();
+
+    private static FlightRecorder load() {
+
+        try {
+            return (FlightRecorder) Class.forName("me.sparky983.spark.JfrFlightRecorder")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (final ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the flight recorder if any of its events are enabled.
+     *
+     * @return the flight recorder, or {@code null} if JFR is not available or none of the events
+     * are enabled.
+     */
+    static FlightRecorder enabled() {
+
+        final FlightRecorder recorder = RECORDER;
+        return recorder != null && recorder.isEnabled() ? recorder : null;
+    }
+
+    abstract boolean isEnabled();
+
+    abstract Object beginGiven();
+
+    abstract void endGiven(Object event, Object given);
+
+    abstract Object beginWhen();
+
+    abstract void endWhen(Object event, Object result);
+
+    abstract Object beginAssertion();
+
+    abstract void endAssertion(Object event, String assertion, boolean passed);
+
+    abstract void cachedAssertion(String assertion);
+}
@@ -0,0 +1,169 @@
+package me.sparky983.spark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The garbage collections that happened while an action ran, measured with the
+ * {@link GarbageCollectorMXBean GarbageCollectorMXBeans}.
+ * <p>
+ * Collectors are classified as young (minor) or old (major and full) collectors by their names.
+ * The time of collectors that report concurrent cycles rather than pauses (such as
+ * {@code G1 Concurrent GC} and {@code ZGC Cycles}) is not counted as pause time. Neither those
+ * nor the collectors that report the pauses of concurrent collectors (such as {@code ZGC Pauses}
+ * and {@code Shenandoah Pauses}) are counted as old collections, since their counts are of
+ * concurrent cycles and pauses rather than of major collections. The minor cycles of
+ * generational ZGC are counted as young collections. Garbage collection is global, so
+ * collections caused by other threads are measured too.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class GcActivity {
+
+    private final List<GarbageCollectorMXBean> collectors;
+    private final long[] counts;
+    private final long[] millis;
+
+    private GcActivity(final List<GarbageCollectorMXBean> collectors,
+                       final long[] counts,
+                       final long[] millis) {
+
+        this.collectors = collectors;
+        this.counts = counts;
+        this.millis = millis;
+    }
+
+    /**
+     * Measures the collections that happen while the specified action runs.
+     *
+     * @param action the action.
+     * @return the collections.
+     */
+    static GcActivity during(final Runnable action) {
+
+        final List<GarbageCollectorMXBean> collectors =
+                ManagementFactory.getGarbageCollectorMXBeans();
+        final long[] counts = new long[collectors.size()];
+        final long[] millis = new long[collectors.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(collectors.get(i).getCollectionCount(), 0);
+            millis[i] = Math.max(collectors.get(i).getCollectionTime(), 0);
+        }
+        action.run();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(collectors.get(i).getCollectionCount(), 0) - counts[i];
+            millis[i] = Math.max(collectors.get(i).getCollectionTime(), 0) - millis[i];
+        }
+        return new GcActivity(collectors, counts, millis);
+    }
+
+    /**
+     * Measures the collections that happen while the specified supplier runs in a steady state:
+     * after it has been warmed up, for the same number of calls as a {@link Benchmark}.
+     *
+     * @param supplier the supplier.
+     * @return the collections.
+     */
+    static GcActivity steadyState(final Supplier<?> supplier) {
+
+        final Benchmark benchmark = Benchmark.warmUp(supplier);
+        return during(() -> benchmark.samples(Benchmark.SAMPLES));
+    }
+
+    /**
+     * Returns the number of young or old collections.
+     *
+     * @param young whether to count young collections, otherwise old collections are counted.
+     * @return the number of collections.
+     */
+    long collections(final boolean young) {
+
+        long collections = 0;
+        for (int i = 0; i < counts.length; i++) {
+            final String name = collectors.get(i).getName();
+            if (young ? isYoung(name) : isOld(name)) {
+                collections += counts[i];
+            }
+        }
+        return collections;
+    }
+
+    /**
+     * Returns the time spent in collection pauses.
+     *
+     * @return the pause time, in milliseconds.
+     */
+    long pauseMillis() {
+
+        long pauseMillis = 0;
+        for (int i = 0; i < millis.length; i++) {
+            if (isPause(collectors.get(i).getName())) {
+                pauseMillis += millis[i];
+            }
+        }
+        return pauseMillis;
+    }
+
+    /**
+     * Describes the collections of each collector, for example
+     * {@code G1 Young Generation: 2 collections (5 ms)}.
+     *
+     * @return the description.
+     */
+    String breakdown() {
+
+        final StringBuilder breakdown = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                breakdown.append(", ");
+            }
+            breakdown.append(collectors.get(i).getName())
+                    .append(": ")
+                    .append(counts[i])
+                    .append(counts[i] == 1 ? " collection (" : " collections (")
+                    .append(millis[i])
+                    .append(" ms)");
+        }
+        return breakdown.toString();
+    }
+
+    /**
+     * Returns whether the collector with the specified name counts young collections.
+     */
+    static boolean isYoung(final String name) {
+
+        return isCollections(name) && isYoungName(name);
+    }
+
+    /**
+     * Returns whether the collector with the specified name counts old collections.
+     */
+    static boolean isOld(final String name) {
+
+        return isCollections(name) && !isYoungName(name);
+    }
+
+    private static boolean isYoungName(final String name) {
+
+        return name.contains("Young") || name.contains("Scavenge") || name.contains("ParNew")
+                || name.equals("Copy") || name.contains("Minor");
+    }
+
+    /**
+     * Returns whether the collector with the specified name counts collections, rather than the
+     * pauses or concurrent cycles of a concurrent collector (except for minor cycles).
+     */
+    private static boolean isCollections(final String name) {
+
+        return !name.contains("Pauses") && !name.contains("Concurrent GC")
+                && (!name.contains("Cycles") || name.contains("Minor"));
+    }
+
+    private static boolean isPause(final String name) {
+
+        return !name.contains("Cycles") && !name.contains("Concurrent GC");
+    }
+}
@@ -1,9 +1,12 @@
 package me.sparky983.spark;
 
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Represents given object and the start of a test.
@@ -19,9 +22,9 @@ import java.util.function.Supplier;
  */
 public final class Given<T> {
 
-    private final T given;
+    private final Fixture<T> given;
 
-    private Given(final T given) {
+    private Given(final Fixture<T> given) {
 
         this.given = given;
     }
@@ -59,7 +62,7 @@ public final class Given<T> {
      */
     public static <T> Given<T> given(final T given) {
 
-        return new Given<>(given);
+        return new Given<>(Fixture.constant(given));
     }
 
     /**
@@ -93,7 +96,194 @@ public final class Given<T> {
 
         Objects.requireNonNull(given, "given cannot be null");
 
-        return given(given.get());
+        return given(Instruments.supplyGiven(given));
+    }
+
+    /**
+     * Creates a new given whose given object is built lazily and is shared within the specified
+     * scope.
+     * <p>
+     * Unlike {@link #getGiven(Supplier)}, which builds the given object for every given, a shared
+     * given object is only built the first time an assertion is performed in its scope, by the
+     * supplier of the first given with its name. This is useful for given objects that are
+     * expensive to build, such as warmed caches or embedded stores. Shared given objects must be
+     * thread-safe if scenarios are run in parallel, and those that are {@link AutoCloseable} are
+     * closed when the JVM shuts down.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * shared("store", FixtureScope.CLASS, EmbeddedStore::start)
+     *         .when((store) -> store.get("key"))
+     *         .then(isEqualTo("value"));
+     * }</pre>
+     *
+     * @param name the name of the given object, which identifies it within its scope.
+     * @param scope the scope that the given object is shared within.
+     * @param supplier the supplier that builds the given object.
+     * @return the newly created given.
+     * @param <T> the type of the given object.
+     * @throws NullPointerException if the name, scope or supplier is {@code null}.
+     * @see #pooled(Supplier, Consumer, int)
+     * @since 1.2
+     */
+    public static <T> Given<T> shared(final String name,
+                                      final FixtureScope scope,
+                                      final Supplier<? extends T> supplier) {
+
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(scope, "scope");
+        Objects.requireNonNull(supplier, "supplier");
+        return new Given<>(Fixtures.shared(name, scope, supplier));
+    }
+
+    /**
+     * Creates a new given whose given objects are lent out from a bounded, thread-safe pool.
+     * <p>
+     * Each assertion borrows a given object from the pool and returns it once the assertion has
+     * completed, after resetting it with the specified function. Given objects are only built when
+     * all the built objects are borrowed, so at most {@code size} objects are ever built (unless
+     * they fail to reset, in which case they are discarded). If all objects are borrowed, the
+     * assertion waits until one is returned.
+     * <p>
+     * The returned given is typically stored in a field and reused by many scenarios:
+     * <pre>{@code
+     * static final Given<Cache> CACHE = pooled(Cache::warmed, Cache::clearWrites, 4);
+     *
+     * CACHE.whenDo((cache) -> cache.put("key", "value"))
+     *         .then((cache) -> ...);
+     * }</pre>
+     *
+     * @param supplier the supplier that builds the given objects (which must not be
+     * {@code null}).
+     * @param reset the function that resets a given object before it is returned to the pool.
+     * @param size the maximum number of given objects.
+     * @return the newly created given.
+     * @param <T> the type of the given objects.
+     * @throws NullPointerException if the supplier or reset function is {@code null}.
+     * @throws IllegalArgumentException if the size is not positive.
+     * @see #shared(String, FixtureScope, Supplier)
+     * @since 1.2
+     */
+    public static <T> Given<T> pooled(final Supplier<? extends T> supplier,
+                                      final Consumer<? super T> reset,
+                                      final int size) {
+
+        Objects.requireNonNull(supplier, "supplier");
+        Objects.requireNonNull(reset, "reset");
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        return new Given<>(Fixtures.pooled(supplier, reset, size));
+    }
+
+    /**
+     * Creates a new given of inputs of increasing sizes, for asserting how the cost of the
+     * when-function grows with the size of its input.
+     * <p>
+     * The scaling assertions, {@link Assertion#scalesAtMost(Complexity)} and
+     * {@link Assertion#allocationScalesAtMost(Complexity)}, measure the when-function on an input
+     * of each size. Every call of the when-function is given a newly generated input, and
+     * generating it is not measured, so when-functions that modify their input (such as in-place
+     * sorts) are measured correctly. All other assertions are performed on an input of the
+     * largest size. The sizes should span at least an order of magnitude for the complexities to
+     * be told apart.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * sized((n) -> randomList(n), 1_000, 10_000, 100_000)
+     *         .when(Sorter::sort)
+     *         .then(scalesAtMost(Complexity.N_LOG_N));
+     * }</pre>
+     *
+     * @param generator the function that generates an input of the specified size.
+     * @param sizes the sizes of the inputs.
+     * @return the newly created given.
+     * @param <T> the type of the inputs.
+     * @throws NullPointerException if the generator or sizes are {@code null}.
+     * @throws IllegalArgumentException if there are fewer than 3 distinct sizes, or any size is
+     * not positive.
+     * @since 1.2
+     */
+    public static <T> Given<T> sized(final IntFunction<? extends T> generator,
+                                     final int... sizes) {
+
+        Objects.requireNonNull(generator, "generator");
+        Objects.requireNonNull(sizes, "sizes");
+        final int[] sorted = IntStream.of(sizes).distinct().sorted().toArray();
+        if (sorted.length < 3) {
+            throw new IllegalArgumentException("At least 3 distinct sizes are required");
+        }
+        if (sorted[0] <= 0) {
+            throw new IllegalArgumentException("sizes must be positive");
+        }
+        return new Given<>(Fixtures.sized(generator, sorted));
+    }
+
+    /**
+     * Creates a new given whose given object is a spy of the specified interface, which counts
+     * the invocations of each of its methods and delegates them to the specified object.
+     * <p>
+     * The invocation assertions, such as {@link Assertion#invokesAtMost(SpyMethod.OneArg, long)},
+     * count the invocations that the when-function makes, which catches redundant calls such as
+     * N+1 queries that assertions on the result cannot. The spy is a
+     * {@link java.lang.reflect.Proxy}, and counting an invocation does not lock.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * withSpy(Repository.class, repository)
+     *         .when((r) -> new OrderService(r).loadOrders(customer))
+     *         .then(isNotNull())
+     *         .and(invokesAtMost(Repository::findOrders, 1));
+     * }</pre>
+     *
+     * @param type the interface.
+     * @param delegate the object that invocations are delegated to.
+     * @return the newly created given.
+     * @param <I> the type of the interface.
+     * @throws NullPointerException if the interface or delegate is {@code null}.
+     * @throws IllegalArgumentException if the type is not an interface.
+     * @since 1.2
+     */
+    public static <I> Given<I> withSpy(final Class<I> type, final I delegate) {
+
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(delegate, "delegate");
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type.getName() + " is not an interface");
+        }
+        return new Given<>(Fixtures.spied(type, delegate));
+    }
+
+    /**
+     * Creates given objects from the rows of a CSV or JSON-lines file.
+     * <p>
+     * The file is streamed rather than loaded into memory, so it may have millions of rows. Files
+     * with the {@code .jsonl} or {@code .ndjson} extension are read as JSON-lines files (each row
+     * is a line), all other files are read as CSV files whose first line is the header.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * import static me.sparky983.spark.Given.fromRows;
+     *
+     * fromRows(Paths.get("names.csv"), (row) -> row.get("name"))
+     *         .parallelism(4)
+     *         .forEach((given) -> given
+     *                 .noop()
+     *                 .then(isNotNull()));
+     * }</pre>
+     *
+     * @param file the file.
+     * @param mapper the function that maps each row to a given object.
+     * @return the rows.
+     * @param <T> the type of the given objects.
+     * @throws NullPointerException if the file or mapper is {@code null}.
+     * @since 1.2
+     */
+    public static <T> GivenRows<T> fromRows(final Path file, final RowMapper<? extends T> mapper) {
+
+        Objects.requireNonNull(file, "file");
+        Objects.requireNonNull(mapper, "mapper");
+        return GivenRows.of(file, mapper);
     }
 
     /**
@@ -130,7 +320,7 @@ public final class Given<T> {
      */
     public static <T> Given<T> givenNull() {
 
-        return new Given<>(null);
+        return new Given<>(Fixture.constant(null));
     }
 
     /**
@@ -170,7 +360,54 @@ public final class Given<T> {
     public static <T> Given<T> givenNull(final Class<T> cls) {
 
         Objects.requireNonNull(cls, "cls");
-        return new Given<>(null);
+        return new Given<>(Fixture.constant(null));
+    }
+
+    /**
+     * Creates a new given that captures the state of the given object once, and hands a new copy
+     * of it to each assertion.
+     * <p>
+     * This is equivalent to {@code snapshot(Copier.deep())}.
+     *
+     * @return the newly created given.
+     * @throws IllegalArgumentException if the given object cannot be copied.
+     * @see #snapshot(Copier)
+     * @see Copier#deep()
+     * @since 1.2
+     */
+    public Given<T> snapshot() {
+
+        return snapshot(Copier.deep());
+    }
+
+    /**
+     * Creates a new given that captures the state of the given object once with the specified
+     * copier, and hands a new copy of it to each assertion.
+     * <p>
+     * This is useful when the when-function mutates a given object that is expensive to build:
+     * instead of building the given object for every scenario, it is built once and each scenario
+     * is handed a copy, which is typically much cheaper.
+     * <p>
+     * Example:
+     * <pre>{@code
+     * static final Given<Library> LIBRARY = given(Library.load(catalog)).snapshot();
+     *
+     * LIBRARY.whenDo((library) -> library.borrow("Dune"))
+     *         .then(...);
+     * LIBRARY.whenDo((library) -> library.remove("Dune"))
+     *         .then(...);
+     * }</pre>
+     *
+     * @param copier the copier.
+     * @return the newly created given.
+     * @throws NullPointerException if the copier is {@code null}.
+     * @see #snapshot()
+     * @since 1.2
+     */
+    public Given<T> snapshot(final Copier<T> copier) {
+
+        Objects.requireNonNull(copier, "copier");
+        return new Given<>(Fixtures.snapshot(given, copier));
     }
 
     /**
@@ -244,6 +481,6 @@ public final class Given<T> {
      */
     public When<T, T> noop() {
 
-        return new When<>(given, (__) -> given);
+        return new When<>(given, (given) -> given);
     }
 }
@@ -0,0 +1,327 @@
+package me.sparky983.spark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Represents the rows of a data file, each of which is mapped to a given object.
+ * <p>
+ * The file is streamed: rows are read incrementally and are handed out in batches, so only a
+ * bounded number of rows is held in memory at a time, however large the file is.
+ * <p>
+ * Instances of this class are immutable, each configuration method returns a new instance.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * Given.fromRows(Paths.get("additions.csv"), (row) -> new Addition(
+ *                 Integer.parseInt(row.get("a")),
+ *                 Integer.parseInt(row.get("b")),
+ *                 Integer.parseInt(row.get("sum"))))
+ *         .parallelism(8)
+ *         .stopAfterFailures(10)
+ *         .forEach((given) -> given
+ *                 .when((addition) -> addition.a() + addition.b() == addition.sum())
+ *                 .then(isTrue()));
+ * }</pre>
+ *
+ * @author Sparky983
+ * @param <T> the type of the given objects.
+ * @see Given#fromRows(Path, RowMapper)
+ * @since 1.2
+ */
+public final class GivenRows<T> {
+
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    private final Path file;
+    private final RowMapper<? extends T> mapper;
+    private final int batchSize;
+    private final int parallelism;
+    private final int maxFailures;
+
+    private GivenRows(final Path file,
+                      final RowMapper<? extends T> mapper,
+                      final int batchSize,
+                      final int parallelism,
+                      final int maxFailures) {
+
+        this.file = file;
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.maxFailures = maxFailures;
+    }
+
+    static <T> GivenRows<T> of(final Path file, final RowMapper<? extends T> mapper) {
+
+        return new GivenRows<>(file, mapper, 256, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns rows that are handed out in batches of the specified size.
+     * <p>
+     * The default batch size is {@code 256}.
+     *
+     * @param batchSize the number of rows in each batch.
+     * @return the new rows.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     * @since 1.2
+     */
+    public GivenRows<T> batchSize(final int batchSize) {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        return new GivenRows<>(file, mapper, batchSize, parallelism, maxFailures);
+    }
+
+    /**
+     * Returns rows whose batches are run by the specified number of threads.
+     * <p>
+     * The default parallelism is {@code 1}, in which case the rows are run on the calling thread.
+     *
+     * @param parallelism the number of threads.
+     * @return the new rows.
+     * @throws IllegalArgumentException if the parallelism is not positive.
+     * @since 1.2
+     */
+    public GivenRows<T> parallelism(final int parallelism) {
+
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        return new GivenRows<>(file, mapper, batchSize, parallelism, maxFailures);
+    }
+
+    /**
+     * Returns rows that stop being run once the specified number of rows have failed.
+     * <p>
+     * By default, all rows are run.
+     *
+     * @param maxFailures the number of failures after which no more rows are run.
+     * @return the new rows.
+     * @throws IllegalArgumentException if the number of failures is not positive.
+     * @since 1.2
+     */
+    public GivenRows<T> stopAfterFailures(final int maxFailures) {
+
+        if (maxFailures <= 0) {
+            throw new IllegalArgumentException("maxFailures must be positive");
+        }
+        return new GivenRows<>(file, mapper, batchSize, parallelism, maxFailures);
+    }
+
+    /**
+     * Runs the specified scenario for the given object of each row.
+     * <p>
+     * A row fails if it cannot be mapped or if the scenario throws. Failures do not stop the other
+     * rows from being run (unless {@link #stopAfterFailures(int)} is reached), instead they are
+     * reported together once the rows have been run. All failed rows are counted, but only the
+     * causes of the first {@value #MAX_REPORTED_FAILURES} by line number are kept and reported
+     * (as the cause and suppressed exceptions of the error).
+     *
+     * @param scenario the scenario, typically a {@code when/then} chain.
+     * @throws NullPointerException if the scenario is {@code null}.
+     * @throws UncheckedIOException if the file could not be read.
+     * @throws AssertionError if any of the rows failed.
+     * @since 1.2
+     */
+    public void forEach(final Consumer<? super Given<T>> scenario) {
+
+        Objects.requireNonNull(scenario, "scenario");
+
+        final Run run = new Run(scenario);
+        final ExecutorService executor = parallelism == 1
+                ? null
+                : Executors.newFixedThreadPool(parallelism, (runnable) -> {
+                    final Thread thread = new Thread(runnable, "spark-rows");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // bounds the number of batches that have been read but not run
+        final Semaphore pendingBatches = new Semaphore(parallelism * 2);
+        try (RowReader reader = RowReader.open(file)) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            Row row;
+            while (!run.isStopped() && (row = reader.next()) != null) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    submit(executor, pendingBatches, run, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(executor, pendingBatches, run, batch);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Could not read rows of " + file, e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running rows of " + file, e);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+                awaitTermination(executor);
+            }
+        }
+        run.report();
+    }
+
+    private void submit(final ExecutorService executor,
+                        final Semaphore pendingBatches,
+                        final Run run,
+                        final List<Row> batch) throws InterruptedException {
+
+        if (executor == null) {
+            run.run(batch);
+            return;
+        }
+        pendingBatches.acquire();
+        executor.execute(() -> {
+            try {
+                run.run(batch);
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    private static void awaitTermination(final ExecutorService executor) {
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A single run of the rows, which collects their failures.
+     */
+    private final class Run {
+
+        private final Consumer<? super Given<T>> scenario;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicInteger failureCount = new AtomicInteger();
+        private final AtomicLong failed = new AtomicLong();
+        /**
+         * The failures of the first {@value GivenRows#MAX_REPORTED_FAILURES} failed rows by line
+         * number, with the last of them at the head, guarded by itself.
+         */
+        private final Queue<Failure> failures = new PriorityQueue<>(
+                (a, b) -> Long.compare(b.row.getLineNumber(), a.row.getLineNumber()));
+
+        private Run(final Consumer<? super Given<T>> scenario) {
+
+            this.scenario = scenario;
+        }
+
+        private boolean isStopped() {
+
+            return failureCount.get() >= maxFailures;
+        }
+
+        private void run(final List<Row> batch) {
+
+            for (final Row row : batch) {
+                if (isStopped()) {
+                    return;
+                }
+                rows.incrementAndGet();
+                try {
+                    scenario.accept(Given.given(mapper.map(row)));
+                } catch (final Throwable throwable) {
+                    if (failureCount.incrementAndGet() <= maxFailures) {
+                        failed.incrementAndGet();
+                        record(new Failure(row, throwable));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Records the specified failure if it is one of the first
+         * {@value GivenRows#MAX_REPORTED_FAILURES} by line number, so that the memory used by
+         * failures is bounded however many rows fail.
+         */
+        private void record(final Failure failure) {
+
+            synchronized (failures) {
+                failures.add(failure);
+                if (failures.size() > MAX_REPORTED_FAILURES) {
+                    failures.remove();
+                }
+            }
+        }
+
+        private void report() {
+
+            final List<Failure> sorted;
+            synchronized (failures) {
+                sorted = new ArrayList<>(failures);
+            }
+            if (sorted.isEmpty()) {
+                return;
+            }
+            sorted.sort((a, b) -> Long.compare(a.row.getLineNumber(), b.row.getLineNumber()));
+
+            final StringBuilder message = new StringBuilder()
+                    .append("Expected all rows of <").append(file).append("> to pass, found ")
+                    .append(failed.get()).append(" failed of ").append(rows.get()).append(" run");
+            if (isStopped()) {
+                message.append(" (stopped after ").append(maxFailures).append(" failures)");
+            }
+            for (final Failure failure : sorted) {
+                message.append("\n    line ").append(failure.row.getLineNumber()).append(": ")
+                        .append(failure.cause);
+            }
+            if (failed.get() > sorted.size()) {
+                message.append("\n    ... and ").append(failed.get() - sorted.size())
+                        .append(" more");
+            }
+
+            final AssertionError error = new AssertionError(message.toString(),
+                    sorted.get(0).cause);
+            for (int i = 1; i < sorted.size(); i++) {
+                error.addSuppressed(sorted.get(i).cause);
+            }
+            throw error;
+        }
+    }
+
+    /**
+     * A failed row.
+     */
+    private static final class Failure {
+
+        private final Row row;
+        private final Throwable cause;
+
+        private Failure(final Row row, final Throwable cause) {
+
+            this.row = row;
+            this.cause = cause;
+        }
+    }
+}
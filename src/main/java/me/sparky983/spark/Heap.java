@@ -0,0 +1,80 @@
+package me.sparky983.spark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Settles the heap by requesting garbage collections, used by the memory assertions.
+ * <p>
+ * {@link System#gc()} is only a request, and a single collection may not collect everything
+ * (for example, a young collection does not collect the old generation), so collections are
+ * requested until a sentinel object has been collected and the used heap has stopped shrinking.
+ * If explicit collections are disabled, the measurements are less accurate but still terminate.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Heap {
+
+    private static final int MAX_COLLECTIONS = 10;
+    private static final long WAIT_MILLIS = 50;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private Heap() {
+
+    }
+
+    /**
+     * Collects garbage until the used heap is stable.
+     *
+     * @return the used heap after collection, in bytes.
+     */
+    static long settle() {
+
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < MAX_COLLECTIONS; i++) {
+            final WeakReference<Object> sentinel = new WeakReference<>(new Object());
+            collect(sentinel);
+            final long after = MEMORY.getHeapMemoryUsage().getUsed();
+            if (after >= used) {
+                return after;
+            }
+            used = after;
+        }
+        return used;
+    }
+
+    /**
+     * Collects garbage until the referent of the specified reference has been collected.
+     *
+     * @param reference the reference, which must be registered with the specified queue.
+     * @param queue the queue.
+     * @return whether the referent was collected.
+     */
+    static boolean isCollected(final Reference<?> reference, final ReferenceQueue<?> queue) {
+
+        for (int i = 0; i < MAX_COLLECTIONS; i++) {
+            System.gc();
+            try {
+                if (queue.remove(WAIT_MILLIS) == reference) {
+                    return true;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a collection", e);
+            }
+        }
+        return reference.get() == null;
+    }
+
+    private static void collect(final WeakReference<Object> sentinel) {
+
+        for (int i = 0; i < MAX_COLLECTIONS && sentinel.get() != null; i++) {
+            System.gc();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package me.sparky983.spark;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Skips assertions that passed in a previous run and whose inputs have not changed since.
+ * <p>
+ * If the {@code spark.impact.cache} system property is set, every assertion is fingerprinted
+ * before it is performed. The fingerprint combines:
+ * <ul>
+ *     <li>the location of the assertion (the line that called {@link When#then(Assertion)} or
+ *     {@link Then#and(Assertion)})</li>
+ *     <li>a hash of the object graphs of the given object, the when-function and the assertion,
+ *     including the values captured by lambdas</li>
+ *     <li>a hash of the bytecode of every class in those object graphs, and of every class that
+ *     they depend on (see {@link ClassDependencies})</li>
+ * </ul>
+ * If an assertion with the same fingerprint passed in a previous run, it is skipped and reported
+ * as a cached pass to the {@link Instrumentation instrumentations} and JFR (see
+ * {@link Instruments#performCached(Assertion)}). Otherwise it is performed, and the fingerprint is
+ * recorded in the cache directory if it passes. Failures are never cached.
+ * <p>
+ * Each fingerprint is recorded in its own file, which is written to a temporary file and then
+ * atomically moved into place, so the cache can be shared by assertions running in parallel and
+ * by concurrent test JVMs.
+ * <p>
+ * Changes that are not visible in bytecode or in the object graphs, such as changes to files
+ * read by the when-function or to classes only reached by reflection, are not detected. The
+ * cache directory can be deleted at any time to rerun all assertions.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class ImpactCache {
+
+    private static final long NULL = 1;
+    private static final long BACK_REFERENCE = 2;
+
+    private static final ImpactCache CACHE = create();
+
+    private final Path directory;
+
+    ImpactCache(final Path directory) {
+
+        this.directory = directory;
+    }
+
+    private static ImpactCache create() {
+
+        final String directory = System.getProperty("spark.impact.cache");
+        return directory == null ? null : new ImpactCache(Paths.get(directory));
+    }
+
+    /**
+     * Returns the impact cache, if the {@code spark.impact.cache} system property is set.
+     *
+     * @return the impact cache, or {@code null} if it is not enabled.
+     */
+    static ImpactCache enabled() {
+
+        return CACHE;
+    }
+
+    /**
+     * Performs the specified assertion unless it passed in a previous run with the same
+     * fingerprint, in which case it is reported as a cached pass.
+     *
+     * @param scenario the location of the assertion.
+     * @param given the given object.
+     * @param when the when-function.
+     * @param assertion the assertion.
+     * @param perform the action that performs the assertion.
+     * @throws AssertionError if the assertion fails.
+     */
+    void perform(final String scenario,
+                 final Object given,
+                 final Object when,
+                 final Assertion<?> assertion,
+                 final Runnable perform) {
+
+        final Path entry = directory.resolve(Long.toHexString(hash(scenario)) + "-"
+                + Long.toHexString(fingerprint(given, when, assertion)));
+        if (Files.exists(entry)) {
+            Instruments.performCached(assertion);
+            return;
+        }
+
+        perform.run();
+        record(scenario, entry);
+    }
+
+    private void record(final String scenario, final Path entry) {
+
+        try {
+            Files.createDirectories(directory);
+            final Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+            try {
+                Files.write(temporary, scenario.getBytes(StandardCharsets.UTF_8));
+                try {
+                    Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (final IOException e) {
+            // the cache only saves time, so the assertion is simply performed again next run
+        }
+    }
+
+    /**
+     * Hashes the object graphs of the specified objects, and the bytecode of their classes.
+     *
+     * @param roots the objects.
+     * @return the fingerprint.
+     */
+    static long fingerprint(final Object... roots) {
+
+        final Map<Object, Integer> visited = new IdentityHashMap<>();
+        final Set<Class<?>> classes = new LinkedHashSet<>();
+        final Deque<Object> pending = new ArrayDeque<>();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = roots.length - 1; i >= 0; i--) {
+            pending.push(roots[i] == null ? Null.NULL : roots[i]);
+        }
+
+        while (!pending.isEmpty()) {
+            final Object object = pending.pop();
+            final Class<?> type = object.getClass();
+            if (object == Null.NULL) {
+                hash = mix(hash, NULL);
+                continue;
+            }
+            if (object instanceof String || object instanceof Number
+                    || object instanceof Boolean || object instanceof Character) {
+                hash = mix(mix(hash, type.getName().hashCode()), object.hashCode());
+                continue;
+            }
+            if (object instanceof Enum) {
+                hash = mix(mix(hash, type.getName().hashCode()), ((Enum<?>) object).name()
+                        .hashCode());
+                continue;
+            }
+            if (object instanceof Class) {
+                final Class<?> value = (Class<?>) object;
+                classes.add(value);
+                hash = mix(hash, ClassDependencies.stableName(value).hashCode());
+                continue;
+            }
+
+            final Integer index = visited.get(object);
+            if (index != null) {
+                // a cycle or shared object, which is hashed by when it was first visited
+                hash = mix(mix(hash, BACK_REFERENCE), index);
+                continue;
+            }
+            visited.put(object, visited.size());
+            hash = mix(hash, ClassDependencies.stableName(type).hashCode());
+
+            if (type.isArray()) {
+                hash = mix(hash, Array.getLength(object));
+                if (type.getComponentType().isPrimitive()) {
+                    hash = mix(hash, primitiveArrayHash(object));
+                } else {
+                    final Object[] elements = (Object[]) object;
+                    for (int i = elements.length - 1; i >= 0; i--) {
+                        pending.push(elements[i] == null ? Null.NULL : elements[i]);
+                    }
+                }
+                continue;
+            }
+            if (object instanceof Map) {
+                final Map<?, ?> map = (Map<?, ?>) object;
+                hash = mix(hash, map.size());
+                for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                    pending.push(entry.getValue() == null ? Null.NULL : entry.getValue());
+                    pending.push(entry.getKey() == null ? Null.NULL : entry.getKey());
+                }
+                continue;
+            }
+            if (object instanceof Collection) {
+                final Collection<?> collection = (Collection<?>) object;
+                hash = mix(hash, collection.size());
+                for (final Object element : collection) {
+                    pending.push(element == null ? Null.NULL : element);
+                }
+                continue;
+            }
+
+            final FieldAccessors.FieldAccessor[] accessors =
+                    ClassDependencies.isJdkClass(type.getName()) ? null : FieldAccessors.of(type);
+            if (accessors == null) {
+                // if hashCode is not overridden, this is unstable and the assertion is never
+                // skipped
+                hash = mix(hash, object.hashCode());
+                continue;
+            }
+            classes.add(type);
+            for (int i = accessors.length - 1; i >= 0; i--) {
+                final Object value = accessors[i].get(object);
+                pending.push(value == null ? Null.NULL : value);
+            }
+        }
+
+        for (final Class<?> type : classes) {
+            hash = mix(hash, ClassDependencies.hashOf(type));
+        }
+        return hash;
+    }
+
+    private static long primitiveArrayHash(final Object array) {
+
+        if (array instanceof byte[]) {
+            return Arrays.hashCode((byte[]) array);
+        } else if (array instanceof short[]) {
+            return Arrays.hashCode((short[]) array);
+        } else if (array instanceof int[]) {
+            return Arrays.hashCode((int[]) array);
+        } else if (array instanceof long[]) {
+            return Arrays.hashCode((long[]) array);
+        } else if (array instanceof char[]) {
+            return Arrays.hashCode((char[]) array);
+        } else if (array instanceof float[]) {
+            return Arrays.hashCode((float[]) array);
+        } else if (array instanceof double[]) {
+            return Arrays.hashCode((double[]) array);
+        } else {
+            return Arrays.hashCode((boolean[]) array);
+        }
+    }
+
+    private static long mix(final long hash, final long value) {
+
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+    private static long hash(final String string) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : string.getBytes(StandardCharsets.UTF_8)) {
+            hash = mix(hash, b & 0xff);
+        }
+        return hash;
+    }
+
+    /**
+     * Stands in for {@code null}, which cannot be pushed onto an {@link ArrayDeque}.
+     */
+    private enum Null {
+        NULL
+    }
+}
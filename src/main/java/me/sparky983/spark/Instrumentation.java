@@ -0,0 +1,87 @@
+package me.sparky983.spark;
+
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+/**
+ * Receives measurements of the assertions made with {@link When#then(Assertion)} and
+ * {@link Then#and(Assertion)}.
+ * <p>
+ * Instrumentations are either registered with {@link #register(Instrumentation)}, or discovered
+ * with the {@link ServiceLoader} before the first assertion is made. When no instrumentations are
+ * registered, assertions are performed without being measured.
+ * <p>
+ * If the {@code spark.metrics.file} system property is set, an instrumentation that aggregates the
+ * measurements by assertion is registered, and the aggregated metrics are written to that file
+ * when the JVM shuts down. The metrics are written as CSV if the file name ends with
+ * {@code .csv}, otherwise they are written as JSON. Cached passes are counted separately.
+ * <p>
+ * Implementations must be thread-safe, and should not throw exceptions.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+@FunctionalInterface
+public interface Instrumentation {
+
+    /**
+     * Called after an assertion has been performed.
+     *
+     * @param assertion the name of the assertion. For assertions created by the factories in
+     * {@link Assertion} this is the name of the factory, for example {@code isEqualTo}. Other
+     * assertions are named after their class, and lambdas also after the location that performs
+     * them, for example {@code com.example.OrderTest$$Lambda@com.example.OrderTest#testTotal:42}.
+     * @param passed whether the assertion passed.
+     * @param whenNanos the time spent in the when-function, in nanoseconds.
+     * @param assertionNanos the time spent in the assertion, excluding the when-function, in
+     * nanoseconds.
+     * @param allocatedBytes the bytes allocated by the asserting thread while the assertion was
+     * performed, or {@code -1} if allocation measurement is not supported by the JVM.
+     * @since 1.2
+     */
+    void assertionPerformed(String assertion,
+                            boolean passed,
+                            long whenNanos,
+                            long assertionNanos,
+                            long allocatedBytes);
+
+    /**
+     * Called instead of {@link #assertionPerformed(String, boolean, long, long, long)} when an
+     * assertion is skipped because it passed in a previous run and nothing it depends on has
+     * changed (if the {@code spark.impact.cache} system property is set).
+     *
+     * @param assertion the name of the assertion.
+     * @since 1.2
+     */
+    default void assertionCached(final String assertion) {
+
+    }
+
+    /**
+     * Registers the specified instrumentation.
+     *
+     * @param instrumentation the instrumentation.
+     * @throws NullPointerException if the instrumentation is {@code null}.
+     * @see #unregister(Instrumentation)
+     * @since 1.2
+     */
+    static void register(final Instrumentation instrumentation) {
+
+        Objects.requireNonNull(instrumentation, "instrumentation");
+        Instruments.register(instrumentation);
+    }
+
+    /**
+     * Unregisters the specified instrumentation.
+     *
+     * @param instrumentation the instrumentation.
+     * @throws NullPointerException if the instrumentation is {@code null}.
+     * @see #register(Instrumentation)
+     * @since 1.2
+     */
+    static void unregister(final Instrumentation instrumentation) {
+
+        Objects.requireNonNull(instrumentation, "instrumentation");
+        Instruments.unregister(instrumentation);
+    }
+}
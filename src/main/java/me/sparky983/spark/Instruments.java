@@ -0,0 +1,150 @@
+package me.sparky983.spark;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The registry of {@link Instrumentation instrumentations}, and the point where assertions are
+ * measured and {@link FlightRecorder JFR events} are emitted.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Instruments {
+
+    private static final List<Instrumentation> INSTRUMENTATIONS = new CopyOnWriteArrayList<>();
+
+    static {
+        for (final Instrumentation instrumentation : ServiceLoader.load(Instrumentation.class)) {
+            INSTRUMENTATIONS.add(instrumentation);
+        }
+
+        final String metricsFile = System.getProperty("spark.metrics.file");
+        if (metricsFile != null) {
+            final MetricsRecorder recorder = new MetricsRecorder();
+            INSTRUMENTATIONS.add(recorder);
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(() -> recorder.write(Paths.get(metricsFile)), "spark-metrics"));
+        }
+    }
+
+    private Instruments() {
+
+    }
+
+    static void register(final Instrumentation instrumentation) {
+
+        INSTRUMENTATIONS.add(instrumentation);
+    }
+
+    static void unregister(final Instrumentation instrumentation) {
+
+        INSTRUMENTATIONS.remove(instrumentation);
+    }
+
+    /**
+     * Supplies the given object, emitting a given event if JFR is recording.
+     *
+     * @param given the given object supplier.
+     * @return the given object.
+     * @param <T> the type of the given object.
+     */
+    static <T> T supplyGiven(final Supplier<T> given) {
+
+        final FlightRecorder recorder = FlightRecorder.enabled();
+        if (recorder == null) {
+            return given.get();
+        }
+
+        final Object event = recorder.beginGiven();
+        T result = null;
+        try {
+            result = given.get();
+            return result;
+        } finally {
+            recorder.endGiven(event, result);
+        }
+    }
+
+    /**
+     * Reports the assertion as a cached pass, which was skipped by the {@link ImpactCache}.
+     *
+     * @param assertion the assertion.
+     */
+    static void performCached(final Assertion<?> assertion) {
+
+        final FlightRecorder recorder = FlightRecorder.enabled();
+        if (INSTRUMENTATIONS.isEmpty() && recorder == null) {
+            return;
+        }
+
+        final String name = NamedAssertion.nameOf(assertion);
+        if (recorder != null) {
+            recorder.cachedAssertion(name);
+        }
+        for (final Instrumentation instrumentation : INSTRUMENTATIONS) {
+            instrumentation.assertionCached(name);
+        }
+    }
+
+    /**
+     * Performs the assertion, measuring it if any instrumentations are registered or JFR is
+     * recording.
+     *
+     * @param assertion the assertion.
+     * @param when the when-argument.
+     * @param <R> the type of the result.
+     * @throws AssertionError if the assertion fails.
+     */
+    static <R> void perform(final Assertion<R> assertion, final Supplier<R> when) {
+
+        final FlightRecorder recorder = FlightRecorder.enabled();
+        if (INSTRUMENTATIONS.isEmpty() && recorder == null) {
+            assertion.doAssertion(when);
+            return;
+        }
+
+        final AtomicLong whenNanos = new AtomicLong();
+        final Supplier<R> measuredWhen = () -> {
+            final Object event = recorder == null ? null : recorder.beginWhen();
+            final long start = System.nanoTime();
+            R result = null;
+            try {
+                result = when.get();
+                return result;
+            } finally {
+                whenNanos.addAndGet(System.nanoTime() - start);
+                if (recorder != null) {
+                    recorder.endWhen(event, result);
+                }
+            }
+        };
+
+        final Object event = recorder == null ? null : recorder.beginAssertion();
+        final long allocatedBefore = Allocations.allocatedBytes();
+        final long start = System.nanoTime();
+        boolean passed = false;
+        try {
+            assertion.doAssertion(measuredWhen);
+            passed = true;
+        } finally {
+            final long totalNanos = System.nanoTime() - start;
+            final long allocatedAfter = Allocations.allocatedBytes();
+            final long allocatedBytes = allocatedBefore == -1 || allocatedAfter == -1
+                    ? -1
+                    : allocatedAfter - allocatedBefore;
+            final String name = NamedAssertion.nameOf(assertion);
+            if (recorder != null) {
+                recorder.endAssertion(event, name, passed);
+            }
+            for (final Instrumentation instrumentation : INSTRUMENTATIONS) {
+                instrumentation.assertionPerformed(name, passed, whenNanos.get(),
+                        totalNanos - whenNanos.get(), allocatedBytes);
+            }
+        }
+    }
+}
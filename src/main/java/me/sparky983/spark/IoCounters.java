@@ -0,0 +1,113 @@
+package me.sparky983.spark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The bytes read and written by this process while an action ran, measured with the
+ * {@code rchar} and {@code wchar} counters of {@code /proc/self/io} on Linux, used by
+ * {@link Assertion#ioBytesAtMost(long, long)}.
+ * <p>
+ * The counters count the bytes passed to I/O system calls (such as {@code read} and
+ * {@code write}) on files, pipes and sockets, whether or not the file was in the page cache, so a
+ * code path that is meant to avoid I/O is caught even when the disk would not have been touched.
+ * The counters are per process, so the I/O of other threads is counted too. Reading
+ * {@code /proc/self/io} is itself a read, and its bytes are subtracted.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class IoCounters {
+
+    private static final Path PROC_IO = Paths.get("/proc/self/io");
+
+    private final long read;
+    private final long written;
+
+    private IoCounters(final long read, final long written) {
+
+        this.read = read;
+        this.written = written;
+    }
+
+    /**
+     * Returns whether I/O can be measured on this system.
+     *
+     * @return {@code true} if {@code /proc/self/io} is readable, otherwise {@code false}.
+     */
+    static boolean isSupported() {
+
+        return Files.isReadable(PROC_IO);
+    }
+
+    /**
+     * Measures the bytes read and written while the specified action runs.
+     *
+     * @param action the action.
+     * @return the bytes read and written.
+     * @throws UncheckedIOException if {@code /proc/self/io} cannot be read.
+     */
+    static IoCounters during(final Runnable action) {
+
+        final IoCounters first = sample();
+        // the bytes of reading the counters, which the counters read after the action include
+        final IoCounters before = sample();
+        action.run();
+        final IoCounters after = sample();
+        final long overhead = before.read - first.read;
+        return new IoCounters(Math.max(after.read - before.read - overhead, 0),
+                Math.max(after.written - before.written, 0));
+    }
+
+    /**
+     * Returns the bytes read.
+     *
+     * @return the bytes read.
+     */
+    long read() {
+
+        return read;
+    }
+
+    /**
+     * Returns the bytes written.
+     *
+     * @return the bytes written.
+     */
+    long written() {
+
+        return written;
+    }
+
+    private static IoCounters sample() {
+
+        final String io;
+        try {
+            io = new String(Files.readAllBytes(PROC_IO), StandardCharsets.US_ASCII);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new IoCounters(counter(io, "rchar:"), counter(io, "wchar:"));
+    }
+
+    private static long counter(final String io, final String name) {
+
+        final int start = io.indexOf(name);
+        if (start == -1) {
+            throw new IllegalStateException("/proc/self/io has no " + name + " counter");
+        }
+        long value = 0;
+        int i = start + name.length();
+        while (i < io.length() && io.charAt(i) == ' ') {
+            i++;
+        }
+        for (; i < io.length() && Character.isDigit(io.charAt(i)); i++) {
+            value = value * 10 + (io.charAt(i) - '0');
+        }
+        return value;
+    }
+}
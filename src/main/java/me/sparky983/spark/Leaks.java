@@ -0,0 +1,115 @@
+package me.sparky983.spark;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Detects memory leaks, used by {@link Assertion#doesNotLeak(int)} and
+ * {@link Assertion#doesNotRetain(Function)}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Leaks {
+
+    private static final int PHASES = 4;
+    private static final long GROWTH_THRESHOLD = 64 * 1024;
+
+    private Leaks() {
+
+    }
+
+    /**
+     * Verifies that the heap does not keep growing while the specified supplier is called.
+     * <p>
+     * The supplier is called the specified number of times to warm up, and then for each of
+     * {@value #PHASES} phases. The heap is settled after the warm-up and after each phase, and the
+     * supplier leaks if the heap grew after every phase, by more than
+     * {@value #GROWTH_THRESHOLD} bytes in total.
+     *
+     * @param supplier the supplier.
+     * @param iterations the number of calls of each phase.
+     * @throws AssertionError if the supplier leaks.
+     */
+    static void verifyNoGrowth(final Supplier<?> supplier, final int iterations) {
+
+        run(supplier, iterations);
+        final long[] used = new long[PHASES + 1];
+        used[0] = Heap.settle();
+        boolean grew = true;
+        for (int phase = 1; phase <= PHASES; phase++) {
+            run(supplier, iterations);
+            used[phase] = Heap.settle();
+            grew &= used[phase] > used[phase - 1];
+        }
+
+        final long growth = used[PHASES] - used[0];
+        if (grew && growth > GROWTH_THRESHOLD) {
+            final StringBuilder phases = new StringBuilder();
+            for (int phase = 0; phase <= PHASES; phase++) {
+                if (phase > 0) {
+                    phases.append(", ");
+                }
+                phases.append(used[phase]);
+            }
+            throw new AssertionError("Expected heap not to grow, found growth of <" + growth
+                    + "> bytes over <" + (long) PHASES * iterations + "> calls (used heap after "
+                    + "each phase: " + phases + " bytes)");
+        }
+    }
+
+    /**
+     * Verifies that the object extracted from the result of the specified supplier becomes
+     * unreachable once the result is no longer used.
+     *
+     * @param supplier the supplier.
+     * @param extractor the function that extracts the object from the result.
+     * @param <T> the type of the result.
+     * @throws AssertionError if the extracted object is still reachable.
+     */
+    static <T> void verifyCollected(final Supplier<T> supplier,
+                                    final Function<? super T, ?> extractor) {
+
+        final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        final Tracked tracked = track(supplier, extractor, queue);
+        if (!Heap.isCollected(tracked, queue)) {
+            throw new AssertionError("Expected <" + tracked.type + "> to be unreachable once the "
+                    + "scenario ended, but it was still reachable");
+        }
+    }
+
+    /**
+     * Tracks the extracted object, in its own method so that no local variable of the caller
+     * keeps the result reachable.
+     */
+    private static <T> Tracked track(final Supplier<T> supplier,
+                                     final Function<? super T, ?> extractor,
+                                     final ReferenceQueue<Object> queue) {
+
+        final Object extracted = extractor.apply(supplier.get());
+        if (extracted == null) {
+            throw new AssertionError("Extracted object was <null>");
+        }
+        return new Tracked(extracted, queue);
+    }
+
+    private static void run(final Supplier<?> supplier, final int iterations) {
+
+        for (int i = 0; i < iterations; i++) {
+            supplier.get();
+        }
+    }
+
+    private static final class Tracked extends WeakReference<Object> {
+
+        private final String type;
+
+        private Tracked(final Object referent, final ReferenceQueue<Object> queue) {
+
+            super(referent, queue);
+            this.type = referent.getClass().getName();
+        }
+    }
+}
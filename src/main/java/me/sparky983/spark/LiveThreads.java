@@ -0,0 +1,113 @@
+package me.sparky983.spark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * The threads alive in this JVM, used by {@link Assertion#terminatesAllThreads()}.
+ * <p>
+ * Threads that the JVM manages itself are ignored, since they are started lazily and outlive
+ * their users by design: threads of the {@code system} thread group (such as cleaner threads) and
+ * the workers of the {@linkplain ForkJoinPool#commonPool() common pool}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class LiveThreads {
+
+    private static final long TERMINATION_TIMEOUT_MILLIS = 1000;
+
+    private final Set<Thread> threads;
+
+    private LiveThreads(final Set<Thread> threads) {
+
+        this.threads = threads;
+    }
+
+    /**
+     * Measures the live threads.
+     *
+     * @return the live threads.
+     */
+    static LiveThreads alive() {
+
+        final Set<Thread> threads = new HashSet<>();
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!isManaged(thread)) {
+                threads.add(thread);
+            }
+        }
+        return new LiveThreads(threads);
+    }
+
+    /**
+     * Returns the threads that were started since the specified measurement and are still alive,
+     * waiting up to {@value #TERMINATION_TIMEOUT_MILLIS} milliseconds for them to terminate, since
+     * threads that have been asked to stop (for example by {@code ExecutorService.shutdown()})
+     * usually terminate shortly after.
+     *
+     * @param before the earlier measurement.
+     * @return the threads.
+     */
+    List<Thread> startedSince(final LiveThreads before) {
+
+        final long deadline = System.nanoTime() + TERMINATION_TIMEOUT_MILLIS * 1_000_000;
+        final List<Thread> started = new ArrayList<>();
+        for (final Thread thread : threads) {
+            if (before.threads.contains(thread)) {
+                continue;
+            }
+            final long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            try {
+                if (remainingMillis > 0) {
+                    thread.join(remainingMillis);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for threads", e);
+            }
+            if (thread.isAlive()) {
+                started.add(thread);
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Describes the specified threads and their stack traces.
+     *
+     * @param threads the threads.
+     * @return the description.
+     */
+    static String describe(final List<Thread> threads) {
+
+        final StringBuilder description = new StringBuilder();
+        for (final Thread thread : threads) {
+            description.append('\n')
+                    .append('"')
+                    .append(thread.getName())
+                    .append('"')
+                    .append(thread.isDaemon() ? " daemon" : "")
+                    .append(' ')
+                    .append(thread.getState());
+            for (final StackTraceElement element : thread.getStackTrace()) {
+                description.append("\n\tat ").append(element);
+            }
+        }
+        return description.toString();
+    }
+
+    private static boolean isManaged(final Thread thread) {
+
+        final ThreadGroup group = thread.getThreadGroup();
+        if (group != null && group.getParent() == null) {
+            return true;
+        }
+        return thread instanceof ForkJoinWorkerThread
+                && ((ForkJoinWorkerThread) thread).getPool() == ForkJoinPool.commonPool();
+    }
+}
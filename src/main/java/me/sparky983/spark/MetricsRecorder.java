@@ -0,0 +1,148 @@
+package me.sparky983.spark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An instrumentation that aggregates measurements by assertion, and writes them as JSON or CSV.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class MetricsRecorder implements Instrumentation {
+
+    private static final String[] COLUMNS = {"assertion", "invocations", "passed", "failed",
+            "cached", "whenNanos", "assertionNanos", "allocatedBytes"};
+
+    private final Map<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void assertionPerformed(final String assertion,
+                                   final boolean passed,
+                                   final long whenNanos,
+                                   final long assertionNanos,
+                                   final long allocatedBytes) {
+
+        final Metrics metrics = this.metrics.computeIfAbsent(assertion, (key) -> new Metrics());
+        (passed ? metrics.passed : metrics.failed).increment();
+        metrics.whenNanos.add(whenNanos);
+        metrics.assertionNanos.add(assertionNanos);
+        if (allocatedBytes != -1) {
+            metrics.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    @Override
+    public void assertionCached(final String assertion) {
+
+        metrics.computeIfAbsent(assertion, (key) -> new Metrics()).cached.increment();
+    }
+
+    /**
+     * Writes the aggregated metrics to the specified file, sorted by the total time spent, in
+     * descending order.
+     * <p>
+     * The metrics are written as CSV if the file name ends with {@code .csv}, otherwise they are
+     * written as JSON.
+     *
+     * @param file the file.
+     * @throws UncheckedIOException if an I/O error occurs.
+     */
+    void write(final Path file) {
+
+        final List<Map.Entry<String, Metrics>> entries = new ArrayList<>(metrics.entrySet());
+        entries.sort(Comparator.comparingLong(
+                (Map.Entry<String, Metrics> entry) -> -entry.getValue().totalNanos()));
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (file.getFileName().toString().endsWith(".csv")) {
+                writeCsv(writer, entries);
+            } else {
+                writeJson(writer, entries);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(final Writer writer,
+                                 final List<Map.Entry<String, Metrics>> entries) throws IOException {
+
+        writer.write(String.join(",", COLUMNS));
+        writer.write('\n');
+        for (final Map.Entry<String, Metrics> entry : entries) {
+            writer.write('"' + entry.getKey().replace("\"", "\"\"") + '"');
+            for (final long value : entry.getValue().values()) {
+                writer.write("," + value);
+            }
+            writer.write('\n');
+        }
+    }
+
+    private static void writeJson(final Writer writer,
+                                  final List<Map.Entry<String, Metrics>> entries) throws IOException {
+
+        writer.write("[");
+        for (int i = 0; i < entries.size(); i++) {
+            final Map.Entry<String, Metrics> entry = entries.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("  {\"" + COLUMNS[0] + "\": \"" + escapeJson(entry.getKey()) + "\"");
+            final long[] values = entry.getValue().values();
+            for (int column = 0; column < values.length; column++) {
+                writer.write(", \"" + COLUMNS[column + 1] + "\": " + values[column]);
+            }
+            writer.write("}");
+        }
+        writer.write("\n]\n");
+    }
+
+    private static String escapeJson(final String string) {
+
+        final StringBuilder builder = new StringBuilder(string.length());
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static final class Metrics {
+
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder cached = new LongAdder();
+        private final LongAdder whenNanos = new LongAdder();
+        private final LongAdder assertionNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private long totalNanos() {
+
+            return whenNanos.sum() + assertionNanos.sum();
+        }
+
+        private long[] values() {
+
+            final long passed = this.passed.sum();
+            final long failed = this.failed.sum();
+            final long cached = this.cached.sum();
+            return new long[] {passed + failed + cached, passed, failed, cached, whenNanos.sum(),
+                    assertionNanos.sum(), allocatedBytes.sum()};
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.sparky983.spark;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * An assertion that is named after the factory method that created it.
+ * <p>
+ * The name is used as the key for {@link Instrumentation instrumentations}, and as the string
+ * representation of the assertion in failure messages.
+ *
+ * @author Sparky983
+ * @param <T> the type of the object where the assertion is being made on.
+ * @since 1.2
+ */
+final class NamedAssertion<T> implements Assertion<T> {
+
+    private static final String LAMBDA = "$$Lambda";
+
+    private final String name;
+    private final Assertion<T> assertion;
+
+    NamedAssertion(final String name, final Assertion<T> assertion) {
+
+        this.name = Objects.requireNonNull(name, "name");
+        this.assertion = Objects.requireNonNull(assertion, "assertion");
+    }
+
+    /**
+     * Returns the name of the specified assertion.
+     * <p>
+     * Assertions created by the factories in {@link Assertion} are named after the factory,
+     * otherwise the name of the assertion's class is used. The names of lambda classes are not
+     * stable between runs, so lambdas are named after their declaring class and the location
+     * of the test that performs them, for example
+     * {@code com.example.OrderTest$$Lambda@com.example.OrderTest#testTotal:42}, so that the
+     * lambdas of a test class are told apart.
+     *
+     * @param assertion the assertion.
+     * @return the name of the assertion.
+     * @since 1.2
+     */
+    static String nameOf(final Assertion<?> assertion) {
+
+        if (assertion instanceof NamedAssertion) {
+            return ((NamedAssertion<?>) assertion).name;
+        }
+        final String className = assertion.getClass().getName();
+        final int lambda = className.indexOf(LAMBDA);
+        if (lambda == -1) {
+            return className;
+        }
+        final String name = className.substring(0, lambda + LAMBDA.length());
+        final StackTraceElement caller = Callers.callerFrame(Fixture.class, When.class,
+                Then.class);
+        return caller == null ? name : name + "@" + Callers.location(caller);
+    }
+
+    @Override
+    public void doAssertion(final Supplier<T> when) {
+
+        assertion.doAssertion(when);
+    }
+
+    @Override
+    public String toString() {
+
+        return name;
+    }
+}
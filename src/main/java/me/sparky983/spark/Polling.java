@@ -0,0 +1,148 @@
+package me.sparky983.spark;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Polls assertions until they pass, used by {@link Assertion#eventually(Assertion, Duration)}.
+ * <p>
+ * The delay between polls starts small and doubles after every poll that fails in the same way
+ * as the previous poll, up to a maximum. It is reset when the failure changes (which suggests that
+ * the system is making progress) and when a change is signalled. Between polls the calling thread
+ * parks in a timed wait that a change signal cuts short, so polling needs no thread or scheduled
+ * task of its own and many concurrent polls stay cheap.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Polling {
+
+    private static final long INITIAL_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private Polling() {
+
+    }
+
+    /**
+     * Polls the specified assertion until it passes.
+     *
+     * @param assertion the assertion.
+     * @param when the supplier of the result, which is called again by every poll.
+     * @param timeout the maximum time to poll for.
+     * @param onChange the function that registers the change signal and returns its
+     * registration, which is closed once polling has finished, or {@code null}.
+     * @param <T> the type of the result.
+     * @throws AssertionError if the assertion did not pass within the timeout.
+     * @throws IllegalStateException if the registration could not be closed.
+     */
+    static <T> void poll(final Assertion<T> assertion,
+                         final Supplier<T> when,
+                         final Duration timeout,
+                         final Function<? super Runnable, ? extends AutoCloseable> onChange) {
+
+        final Wakeup wakeup = new Wakeup();
+        if (onChange == null) {
+            poll(assertion, when, timeout, wakeup);
+            return;
+        }
+
+        final AutoCloseable registration = Objects.requireNonNull(
+                onChange.apply((Runnable) wakeup::signal), "onChange returned null");
+        Throwable failure = null;
+        try {
+            poll(assertion, when, timeout, wakeup);
+        } catch (final RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            try {
+                registration.close();
+            } catch (final Exception e) {
+                final IllegalStateException closeFailure =
+                        new IllegalStateException("Failed to unregister the change signal", e);
+                if (failure == null) {
+                    throw closeFailure;
+                }
+                failure.addSuppressed(closeFailure);
+            }
+        }
+    }
+
+    private static <T> void poll(final Assertion<T> assertion,
+                                 final Supplier<T> when,
+                                 final Duration timeout,
+                                 final Wakeup wakeup) {
+
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        long delay = INITIAL_DELAY_NANOS;
+        int polls = 0;
+        Throwable lastFailure = null;
+        while (true) {
+            polls++;
+            final Throwable failure;
+            try {
+                assertion.doAssertion(when);
+                return;
+            } catch (final AssertionError | RuntimeException e) {
+                failure = e;
+            }
+
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new AssertionError("Expected <" + assertion + "> to pass within <" + timeout
+                        + ">, found <" + failure.getMessage() + "> after " + polls
+                        + (polls == 1 ? " poll" : " polls"), failure);
+            }
+            final boolean progressed = lastFailure != null
+                    && !Objects.equals(lastFailure.getMessage(), failure.getMessage());
+            lastFailure = failure;
+            if (progressed) {
+                delay = INITIAL_DELAY_NANOS;
+            }
+
+            final boolean signalled = wakeup.await(Math.min(delay, remaining));
+            delay = signalled ? INITIAL_DELAY_NANOS : Math.min(delay * 2, MAX_DELAY_NANOS);
+        }
+    }
+
+    /**
+     * Wakes up a polling thread when a change is signalled.
+     */
+    private static final class Wakeup {
+
+        private boolean signalled;
+
+        private synchronized void signal() {
+
+            signalled = true;
+            notifyAll();
+        }
+
+        /**
+         * Waits until the specified delay has elapsed or a change is signalled.
+         *
+         * @return whether a change was signalled.
+         */
+        private synchronized boolean await(final long delayNanos) {
+
+            final long deadline = System.nanoTime() + delayNanos;
+            try {
+                long remaining = delayNanos;
+                while (!signalled && remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while polling", e);
+            }
+            final boolean wasSignalled = signalled;
+            signalled = false;
+            return wasSignalled;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package me.sparky983.spark;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Represents an expected property of a result, used with
+ * {@link Assertion#hasProperties(Property[])}.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * import static me.sparky983.spark.Property.property;
+ *
+ * given(new Person("Sparky", 18))
+ *         .noop()
+ *         .then(hasProperties(
+ *                 property(Person::getName, "Sparky"),
+ *                 property("age", 18)));
+ * }</pre>
+ *
+ * @author Sparky983
+ * @param <T> the type of the result.
+ * @since 1.2
+ */
+public final class Property<T> {
+
+    private final String name;
+    private final Function<? super T, ?> extractor;
+    private final Object expected;
+
+    private Property(final String name,
+                     final Function<? super T, ?> extractor,
+                     final Object expected) {
+
+        this.name = name;
+        this.extractor = extractor;
+        this.expected = expected;
+    }
+
+    /**
+     * Creates a new property that is extracted from the result with the specified method
+     * reference.
+     * <p>
+     * Equality is defined by the {@code Objects.equals(expected, property)}.
+     *
+     * @param methodReference the method reference.
+     * @param expected the expected value of the property.
+     * @return the new property.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the method reference is {@code null}.
+     * @since 1.2
+     */
+    public static <T> Property<T> property(final Function<? super T, ?> methodReference,
+                                           final Object expected) {
+
+        Objects.requireNonNull(methodReference, "methodReference");
+        return new Property<>(null, methodReference, expected);
+    }
+
+    /**
+     * Creates a new property that is extracted from the result by name.
+     * <p>
+     * The property is read from the first of the following members of the result's class that
+     * exists: a public no-args method named {@code name}, {@code getName} or {@code isName}, or
+     * a field named {@code name}. The accessor is resolved once per class and is then cached.
+     * <p>
+     * Equality is defined by the {@code Objects.equals(expected, property)}.
+     *
+     * @param name the name of the property.
+     * @param expected the expected value of the property.
+     * @return the new property.
+     * @param <T> the type of the result.
+     * @throws NullPointerException if the name is {@code null}.
+     * @throws IllegalArgumentException if the name is empty.
+     * @since 1.2
+     */
+    public static <T> Property<T> property(final String name, final Object expected) {
+
+        Objects.requireNonNull(name, "name");
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("name cannot be empty");
+        }
+        return new Property<>(name, null, expected);
+    }
+
+    /**
+     * Checks this property of the specified result.
+     *
+     * @param result the result (not {@code null}).
+     * @param index the index of this property, used to describe unnamed properties.
+     * @return a description of the mismatch, or {@code null} if the property matches.
+     */
+    String mismatch(final T result, final int index) {
+
+        final String description = name == null ? "property " + index : name;
+        final Object actual;
+        try {
+            if (name == null) {
+                actual = extractor.apply(result);
+            } else {
+                final Function<Object, Object> accessor =
+                        PropertyAccessors.of(result.getClass(), name);
+                if (accessor == null) {
+                    return description + ": no such property on <"
+                            + result.getClass().getName() + ">";
+                }
+                actual = accessor.apply(result);
+            }
+        } catch (final RuntimeException e) {
+            return description + ": threw <" + e.getClass().getName() + ": " + e.getMessage()
+                    + ">";
+        }
+        if (Objects.equals(expected, actual)) {
+            return null;
+        }
+        return description + ": expected <" + expected + ">, found <" + actual + ">";
+    }
+}
@@ -0,0 +1,193 @@
+package me.sparky983.spark;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches accessors for properties that are named by string.
+ * <p>
+ * Accessors of public getters are spun with the {@link LambdaMetafactory}, so after the first
+ * lookup a property is read as quickly as with a method reference. If that is not possible (for
+ * example, if the getter is not public), the accessor falls back to a {@link MethodHandle}.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class PropertyAccessors {
+
+    private static final ClassValue<Map<String, Optional<Function<Object, Object>>>> ACCESSORS =
+            new ClassValue<Map<String, Optional<Function<Object, Object>>>>() {
+                @Override
+                protected Map<String, Optional<Function<Object, Object>>> computeValue(
+                        final Class<?> type) {
+
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private PropertyAccessors() {
+
+    }
+
+    /**
+     * Returns the accessor of the specified property.
+     *
+     * @param type the class that declares or inherits the property.
+     * @param name the name of the property.
+     * @return the accessor, or {@code null} if the class has no such property.
+     */
+    static Function<Object, Object> of(final Class<?> type, final String name) {
+
+        return ACCESSORS.get(type)
+                .computeIfAbsent(name, (key) -> Optional.ofNullable(createAccessor(type, name)))
+                .orElse(null);
+    }
+
+    private static Function<Object, Object> createAccessor(final Class<?> type, final String name) {
+
+        final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        final String[] methodNames = {name, "get" + capitalized, "is" + capitalized};
+        for (final String methodName : methodNames) {
+            final Method method;
+            try {
+                method = type.getMethod(methodName);
+            } catch (final NoSuchMethodException e) {
+                continue;
+            }
+            if (method.getReturnType() == void.class || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            final Function<Object, Object> accessor = createAccessor(method);
+            if (accessor != null) {
+                return accessor;
+            }
+        }
+
+        for (final FieldAccessors.FieldAccessor accessor : accessorsOf(type)) {
+            if (accessor.name().equals(name)) {
+                return accessor::get;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createAccessor(final Method method) {
+
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final Method publicMethod = publicDeclaration(method);
+        if (publicMethod == null) {
+            return createReflectiveAccessor(lookup, method);
+        }
+
+        final MethodHandle getter;
+        try {
+            getter = lookup.unreflect(publicMethod);
+        } catch (final IllegalAccessException e) {
+            return createReflectiveAccessor(lookup, method);
+        }
+        if (!isVisible(publicMethod.getDeclaringClass())) {
+            return createAccessor(getter);
+        }
+        try {
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getter,
+                    getter.type().wrap());
+            return (Function<Object, Object>) callSite.getTarget().invoke();
+        } catch (final Throwable throwable) {
+            return createAccessor(getter);
+        }
+    }
+
+    private static Function<Object, Object> createAccessor(final MethodHandle getter) {
+
+        final MethodHandle genericGetter =
+                getter.asType(MethodType.methodType(Object.class, Object.class));
+        return (object) -> invoke(genericGetter, object);
+    }
+
+    private static Function<Object, Object> createReflectiveAccessor(
+            final MethodHandles.Lookup lookup,
+            final Method method) {
+
+        try {
+            method.setAccessible(true);
+            return createAccessor(lookup.unreflect(method));
+        } catch (final RuntimeException | IllegalAccessException e) {
+            // InaccessibleObjectException is only available in Java 9+
+            return null;
+        }
+    }
+
+    /**
+     * Finds a declaration of the specified method in a public class or interface (public methods
+     * of non-public classes, such as the implementations of {@code Collections.unmodifiableList},
+     * are otherwise inaccessible).
+     */
+    private static Method publicDeclaration(final Method method) {
+
+        final Deque<Class<?>> types = new ArrayDeque<>();
+        types.add(method.getDeclaringClass());
+        while (!types.isEmpty()) {
+            final Class<?> type = types.poll();
+            if (Modifier.isPublic(type.getModifiers())) {
+                try {
+                    return type.getMethod(method.getName());
+                } catch (final NoSuchMethodException e) {
+                    // try the supertypes
+                }
+            }
+            if (type.getSuperclass() != null) {
+                types.add(type.getSuperclass());
+            }
+            types.addAll(Arrays.asList(type.getInterfaces()));
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the specified class is visible from spark's class loader, which the
+     * classes spun by the {@link LambdaMetafactory} are defined in.
+     */
+    private static boolean isVisible(final Class<?> type) {
+
+        try {
+            return Class.forName(type.getName(), false, PropertyAccessors.class.getClassLoader())
+                    == type;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static FieldAccessors.FieldAccessor[] accessorsOf(final Class<?> type) {
+
+        final FieldAccessors.FieldAccessor[] accessors = FieldAccessors.of(type);
+        return accessors == null ? new FieldAccessors.FieldAccessor[0] : accessors;
+    }
+
+    private static Object invoke(final MethodHandle getter, final Object object) {
+
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+}
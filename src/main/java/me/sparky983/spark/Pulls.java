@@ -0,0 +1,359 @@
+package me.sparky983.spark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Counts the elements pulled from lazy results, used by
+ * {@link Assertion#pullsAtMost(long, Consumer)} and {@link Assertion#isLazy()}.
+ * <p>
+ * Iterators and spliterators of objects, and streams (including primitive streams), are
+ * supported. Streams are
+ * counted with {@code peek}, so elements that a terminal operation does not need to pull (such as
+ * the elements of a sized stream whose size is known by {@code count()}) are not counted. Iterators
+ * and spliterators that implement other interfaces (such as {@link AutoCloseable}) are wrapped by a
+ * {@link Proxy} that implements all of their interfaces.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Pulls {
+
+    /**
+     * The most elements pulled from a result by {@link #verifyLazy(Supplier)}, so that infinite
+     * results can be checked.
+     */
+    private static final long MAX_PULLS = 10_000;
+
+    /**
+     * The allocation of creating a result (and pulling its first element) that is lazy
+     * regardless of how much pulling more elements allocates, which is enough for a pipeline of
+     * several stages.
+     */
+    private static final long LAZY_BYTES = 4096;
+
+    /**
+     * The allocation per pulled element below which the elements are considered to have been
+     * produced before they were pulled, which is less than the smallest object.
+     */
+    private static final long ELEMENT_BYTES = 16;
+
+    private Pulls() {
+
+    }
+
+    /**
+     * Wraps the specified result so that the elements pulled from it are counted.
+     *
+     * @param result the result.
+     * @param pulls the counter of the pulled elements.
+     * @param <T> the type of the result.
+     * @return the wrapped result, of the same type if it is an interface.
+     * @throws AssertionError if the result is not an iterator, spliterator or stream.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T counting(final T result, final LongAdder pulls) {
+
+        if ((result instanceof Iterator && !(result instanceof PrimitiveIterator))
+                || (result instanceof Spliterator
+                && !(result instanceof Spliterator.OfPrimitive))) {
+            final Set<Class<?>> interfaces = interfaces(result.getClass());
+            interfaces.remove(Iterator.class);
+            interfaces.remove(Spliterator.class);
+            if (!interfaces.isEmpty()) {
+                interfaces.add(result instanceof Iterator ? Iterator.class : Spliterator.class);
+                return (T) Proxy.newProxyInstance(result.getClass().getClassLoader(),
+                        interfaces.toArray(new Class<?>[0]), new CountingHandler(result, pulls));
+            }
+        }
+
+        if (result instanceof Stream) {
+            return (T) ((Stream<?>) result).peek((e) -> pulls.increment());
+        } else if (result instanceof IntStream) {
+            return (T) ((IntStream) result).peek((e) -> pulls.increment());
+        } else if (result instanceof LongStream) {
+            return (T) ((LongStream) result).peek((e) -> pulls.increment());
+        } else if (result instanceof DoubleStream) {
+            return (T) ((DoubleStream) result).peek((e) -> pulls.increment());
+        } else if (result instanceof Iterator && !(result instanceof PrimitiveIterator)) {
+            return (T) new CountingIterator<>((Iterator<?>) result, pulls);
+        } else if (result instanceof Spliterator && !(result instanceof Spliterator.OfPrimitive)) {
+            return (T) new CountingSpliterator<>((Spliterator<?>) result, pulls);
+        }
+        throw unsupported(result);
+    }
+
+    private static Set<Class<?>> interfaces(final Class<?> type) {
+
+        final Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (final Class<?> i : c.getInterfaces()) {
+                interfaces.add(i);
+                interfaces.addAll(interfaces(i));
+            }
+        }
+        return interfaces;
+    }
+
+    /**
+     * Verifies that the specified supplier returns a lazy result, which does no work until it is
+     * consumed.
+     * <p>
+     * The memory allocated by creating a result and pulling its first element is compared with
+     * the memory allocated by creating another result and pulling up to {@value #MAX_PULLS} of its
+     * elements. The difference is the allocation per pulled element. A result that was
+     * materialized eagerly allocates its elements while it is created, so pulling more of them
+     * allocates (next to) nothing, while a lazy result produces its elements as they are pulled.
+     * Results whose creation allocates less than {@value #LAZY_BYTES} bytes are always lazy, as
+     * are results with fewer than two elements. The supplier is called once first, so that class
+     * loading is not measured.
+     *
+     * @param supplier the supplier.
+     * @throws AssertionError if the result is not lazy, or is not an iterator, spliterator or
+     * stream.
+     * @throws IllegalStateException if allocation measurement is not supported.
+     */
+    static void verifyLazy(final Supplier<?> supplier) {
+
+        drain(supplier.get(), MAX_PULLS);
+        final long before = Allocations.allocatedBytes();
+        drain(supplier.get(), 1);
+        final long first = Allocations.allocatedBytes();
+        final long pulls = drain(supplier.get(), MAX_PULLS);
+        final long all = Allocations.allocatedBytes();
+        if (before == -1 || first == -1 || all == -1) {
+            throw new IllegalStateException("Allocation measurement is not supported");
+        }
+        final long creation = first - before;
+        final long consumption = (all - first) - creation;
+        if (pulls < 2 || creation <= LAZY_BYTES) {
+            return;
+        }
+        final long perElement = consumption / (pulls - 1);
+        if (perElement < ELEMENT_BYTES) {
+            throw new AssertionError("Expected the result to be lazy, but creating it and "
+                    + "pulling <1> element allocated <" + creation + "> bytes, and pulling <"
+                    + pulls + "> elements from it allocated <" + perElement + "> bytes more per "
+                    + "element");
+        }
+    }
+
+    /**
+     * Pulls up to the specified number of elements from the specified result, and closes it if
+     * it is {@link AutoCloseable}.
+     *
+     * @return the number of pulled elements.
+     */
+    private static long drain(final Object result, final long maxPulls) {
+
+        try {
+            return pull(result, maxPulls);
+        } finally {
+            if (result instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) result).close();
+                } catch (final RuntimeException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    throw new IllegalStateException("Failed to close the result", e);
+                }
+            }
+        }
+    }
+
+    private static long pull(final Object result, final long maxPulls) {
+
+        final Iterator<?> iterator;
+        if (result instanceof BaseStream) {
+            iterator = ((BaseStream<?, ?>) result).iterator();
+        } else if (result instanceof Iterator) {
+            iterator = (Iterator<?>) result;
+        } else if (result instanceof Spliterator) {
+            final Spliterator<?> spliterator = (Spliterator<?>) result;
+            long pulls = 0;
+            while (pulls < maxPulls && spliterator.tryAdvance((e) -> { })) {
+                pulls++;
+            }
+            return pulls;
+        } else {
+            throw unsupported(result);
+        }
+        long pulls = 0;
+        while (pulls < maxPulls && iterator.hasNext()) {
+            // primitive elements are not boxed, so that only the work of producing them is measured
+            if (iterator instanceof PrimitiveIterator.OfInt) {
+                ((PrimitiveIterator.OfInt) iterator).nextInt();
+            } else if (iterator instanceof PrimitiveIterator.OfLong) {
+                ((PrimitiveIterator.OfLong) iterator).nextLong();
+            } else if (iterator instanceof PrimitiveIterator.OfDouble) {
+                ((PrimitiveIterator.OfDouble) iterator).nextDouble();
+            } else {
+                iterator.next();
+            }
+            pulls++;
+        }
+        return pulls;
+    }
+
+    private static AssertionError unsupported(final Object result) {
+
+        return new AssertionError("Expected <" + result + "> to be an Iterator or Spliterator of "
+                + "objects, or a Stream");
+    }
+
+    /**
+     * Counts the elements pulled through a proxy of an iterator or spliterator.
+     */
+    private static final class CountingHandler implements InvocationHandler {
+
+        private final Object delegate;
+        private final LongAdder pulls;
+
+        private CountingHandler(final Object delegate, final LongAdder pulls) {
+
+            this.delegate = delegate;
+            this.pulls = pulls;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(final Object proxy, final Method method, final Object[] args)
+                throws Throwable {
+
+            final String name = method.getName();
+            final Object[] arguments = args == null ? null : args.clone();
+            if ((name.equals("tryAdvance") || name.equals("forEachRemaining"))
+                    && method.getParameterCount() == 1
+                    && method.getParameterTypes()[0] == Consumer.class) {
+                final Consumer<Object> action = (Consumer<Object>) args[0];
+                arguments[0] = (Consumer<Object>) (e) -> {
+                    pulls.increment();
+                    action.accept(e);
+                };
+            }
+            method.setAccessible(true);
+            final Object result;
+            try {
+                result = method.invoke(delegate, arguments);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (name.equals("next") && method.getParameterCount() == 0) {
+                pulls.increment();
+            } else if (name.equals("trySplit") && method.getParameterCount() == 0
+                    && result != null) {
+                return counting(result, pulls);
+            }
+            return result;
+        }
+    }
+
+    private static final class CountingIterator<E> implements Iterator<E> {
+
+        private final Iterator<E> iterator;
+        private final LongAdder pulls;
+
+        private CountingIterator(final Iterator<E> iterator, final LongAdder pulls) {
+
+            this.iterator = iterator;
+            this.pulls = pulls;
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            return iterator.hasNext();
+        }
+
+        @Override
+        public E next() {
+
+            final E next = iterator.next();
+            pulls.increment();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+
+            iterator.remove();
+        }
+    }
+
+    private static final class CountingSpliterator<E> implements Spliterator<E> {
+
+        private final Spliterator<E> spliterator;
+        private final LongAdder pulls;
+
+        private CountingSpliterator(final Spliterator<E> spliterator, final LongAdder pulls) {
+
+            this.spliterator = spliterator;
+            this.pulls = pulls;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+
+            return spliterator.tryAdvance((e) -> {
+                pulls.increment();
+                action.accept(e);
+            });
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+
+            spliterator.forEachRemaining((e) -> {
+                pulls.increment();
+                action.accept(e);
+            });
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+
+            final Spliterator<E> split = spliterator.trySplit();
+            return split == null ? null : new CountingSpliterator<>(split, pulls);
+        }
+
+        @Override
+        public long estimateSize() {
+
+            return spliterator.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+
+            return spliterator.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+
+            return spliterator.characteristics();
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+
+            return spliterator.getComparator();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package me.sparky983.spark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Represents a row of a data file that is read by
+ * {@link Given#fromRows(java.nio.file.Path, RowMapper)}.
+ * <p>
+ * The values of a row of a CSV file can be read by index or by the name of their column, which is
+ * taken from the header (the first line of the file). A row of a JSON-lines file has a single
+ * value: the line itself, which can be parsed with any JSON library.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+public final class Row {
+
+    private final long lineNumber;
+    private final Map<String, Integer> columns;
+    private final String[] values;
+
+    Row(final long lineNumber, final Map<String, Integer> columns, final String[] values) {
+
+        this.lineNumber = lineNumber;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Returns the line of the file that this row starts on, starting at {@code 1}.
+     *
+     * @return the line number.
+     * @since 1.2
+     */
+    public long getLineNumber() {
+
+        return lineNumber;
+    }
+
+    /**
+     * Returns the number of values in this row.
+     *
+     * @return the number of values in this row.
+     * @since 1.2
+     */
+    public int size() {
+
+        return values.length;
+    }
+
+    /**
+     * Returns the value at the specified index.
+     *
+     * @param index the index of the value.
+     * @return the value.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     * @since 1.2
+     */
+    public String get(final int index) {
+
+        if (index < 0 || index >= values.length) {
+            throw new IndexOutOfBoundsException("Row on line " + lineNumber + " has no value at "
+                    + "index " + index);
+        }
+        return values[index];
+    }
+
+    /**
+     * Returns the value in the specified column.
+     *
+     * @param column the name of the column.
+     * @return the value.
+     * @throws NullPointerException if the column is {@code null}.
+     * @throws IllegalArgumentException if there is no such column.
+     * @throws IndexOutOfBoundsException if this row has fewer values than the header.
+     * @since 1.2
+     */
+    public String get(final String column) {
+
+        Objects.requireNonNull(column, "column");
+        final Integer index = columns.get(column);
+        if (index == null) {
+            throw new IllegalArgumentException("Expected a column in " + columns.keySet()
+                    + ", found <" + column + ">");
+        }
+        return get(index);
+    }
+
+    @Override
+    public String toString() {
+
+        return "Row[line " + lineNumber + ": " + Arrays.toString(values) + "]";
+    }
+}
@@ -0,0 +1,23 @@
+package me.sparky983.spark;
+
+/**
+ * Maps a {@link Row} of a data file to a given object.
+ *
+ * @author Sparky983
+ * @param <T> the type of the given object.
+ * @see Given#fromRows(java.nio.file.Path, RowMapper)
+ * @since 1.2
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the specified row to a given object.
+     *
+     * @param row the row.
+     * @return the given object.
+     * @throws Exception if the row could not be mapped, which fails the row.
+     * @since 1.2
+     */
+    T map(Row row) throws Exception;
+}
@@ -0,0 +1,210 @@
+package me.sparky983.spark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incrementally reads the rows of a CSV or JSON-lines file.
+ * <p>
+ * Only one row is held in memory at a time. CSV files are parsed according to RFC 4180: fields
+ * may be quoted, and quoted fields may contain commas, line breaks and escaped ({@code ""})
+ * quotes.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class RowReader implements Closeable {
+
+    private static final int END = -1;
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private final boolean jsonLines;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int pushedBack = NONE;
+    private long lineNumber = 1;
+    private Map<String, Integer> columns = Collections.emptyMap();
+
+    private RowReader(final Reader reader, final boolean jsonLines) {
+
+        this.reader = reader;
+        this.jsonLines = jsonLines;
+    }
+
+    /**
+     * Opens a reader of the specified file.
+     * <p>
+     * Files with the {@code .jsonl} or {@code .ndjson} extension are read as JSON-lines files, all
+     * other files are read as CSV files whose first line is the header.
+     *
+     * @param file the file.
+     * @return the reader.
+     * @throws IOException if an I/O error occurs.
+     */
+    static RowReader open(final Path file) throws IOException {
+
+        final String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        final boolean jsonLines = name.endsWith(".jsonl") || name.endsWith(".ndjson");
+        final RowReader reader = new RowReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8),
+                jsonLines);
+        try {
+            if (jsonLines) {
+                reader.columns = Collections.singletonMap("line", 0);
+            } else {
+                reader.readHeader();
+            }
+        } catch (final IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return the next row, or {@code null} if there are no more rows.
+     * @throws IOException if an I/O error occurs or the file is malformed.
+     */
+    Row next() throws IOException {
+
+        while (true) {
+            final long rowLineNumber = lineNumber;
+            final String[] values = jsonLines ? readLine() : readRecord();
+            if (values == null) {
+                return null;
+            }
+            if (values.length == 1 && values[0].isEmpty()) {
+                // blank line
+                continue;
+            }
+            return new Row(rowLineNumber, columns, values);
+        }
+    }
+
+    private void readHeader() throws IOException {
+
+        final String[] header = readRecord();
+        if (header == null) {
+            return;
+        }
+        if (header[0].startsWith("\uFEFF")) {
+            // byte order mark
+            header[0] = header[0].substring(1);
+        }
+        final Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.putIfAbsent(header[i].trim(), i);
+        }
+        this.columns = Collections.unmodifiableMap(columns);
+    }
+
+    private String[] readLine() throws IOException {
+
+        int c = read();
+        if (c == END) {
+            return null;
+        }
+        final StringBuilder line = new StringBuilder();
+        while (c != END && c != '\n' && c != '\r') {
+            line.append((char) c);
+            c = read();
+        }
+        endLine(c);
+        return new String[] {line.toString()};
+    }
+
+    private String[] readRecord() throws IOException {
+
+        int c = read();
+        if (c == END) {
+            return null;
+        }
+        final long recordLineNumber = lineNumber;
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == END) {
+                    throw new IOException("Unterminated quoted field starting on line "
+                            + recordLineNumber);
+                }
+                if (c == '"') {
+                    final int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    lineNumber++;
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == END || c == '\n' || c == '\r') {
+                endLine(c);
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private void endLine(final int c) throws IOException {
+
+        if (c == '\r') {
+            final int next = read();
+            if (next != '\n') {
+                pushedBack = next;
+            }
+        }
+        if (c != END) {
+            lineNumber++;
+        }
+    }
+
+    private int read() throws IOException {
+
+        if (pushedBack != NONE) {
+            final int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return END;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        reader.close();
+    }
+}
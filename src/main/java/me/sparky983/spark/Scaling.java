@@ -0,0 +1,184 @@
+package me.sparky983.spark;
+
+import java.util.Locale;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Measures how the cost of a when-function grows with the size of its input, used by
+ * {@link Assertion#scalesAtMost(Complexity)} and
+ * {@link Assertion#allocationScalesAtMost(Complexity)}.
+ * <p>
+ * A scaling is made available to the assertions of a {@link Given#sized(IntFunction, int...) sized
+ * given} while they are performed on the current thread. The cost at each size is fitted to each
+ * {@link Complexity} with least squares ({@code cost = c * f(n)}), and the cost is said to scale
+ * as the simplest complexity whose normalized root-mean-square error is within
+ * {@value #FIT_TOLERANCE} of the best fit, so that noise does not make a simpler complexity look
+ * like a more complex one. Every call of the when-function is given a newly generated input, and
+ * generating it is not measured.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Scaling {
+
+    private static final ThreadLocal<Scaling> CURRENT = new ThreadLocal<>();
+
+    private static final double FIT_TOLERANCE = 0.05;
+    private static final int SAMPLES = 10;
+    private static final int ALLOCATION_RUNS = 3;
+
+    private final int[] sizes;
+    private final IntFunction<Supplier<?>> inputs;
+
+    /**
+     * Creates a new scaling.
+     *
+     * @param sizes the sizes, in ascending order.
+     * @param inputs the function that generates a new input of the specified size, and returns a
+     * supplier of the result of the when-function applied to it. Each supplier is called once, so
+     * that when-functions that modify their input are always measured on a new input.
+     */
+    Scaling(final int[] sizes, final IntFunction<Supplier<?>> inputs) {
+
+        this.sizes = sizes;
+        this.inputs = inputs;
+    }
+
+    /**
+     * Runs the specified action with this scaling available to assertions on the current thread.
+     *
+     * @param action the action.
+     */
+    void run(final Runnable action) {
+
+        final Scaling previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the scaling of the given that the current assertion is performed on.
+     *
+     * @param assertion the name of the assertion, for the error message.
+     * @return the scaling.
+     * @throws IllegalStateException if the assertion is not performed on a sized given.
+     */
+    static Scaling current(final String assertion) {
+
+        final Scaling scaling = CURRENT.get();
+        if (scaling == null) {
+            throw new IllegalStateException(assertion
+                    + " can only be performed on givens created by Given.sized");
+        }
+        return scaling;
+    }
+
+    /**
+     * Verifies that the time taken by the when-function grows at most as fast as the specified
+     * complexity.
+     *
+     * @param complexity the complexity.
+     * @throws AssertionError if the time grows faster.
+     */
+    void verifyTime(final Complexity complexity) {
+
+        final double[] nanos = new double[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            final int size = sizes[i];
+            nanos[i] = Statistics.median(Benchmark.freshSamples(() -> inputs.apply(size),
+                    SAMPLES));
+        }
+        verify("time", complexity, nanos, "ns");
+    }
+
+    /**
+     * Verifies that the memory allocated by the when-function grows at most as fast as the
+     * specified complexity.
+     *
+     * @param complexity the complexity.
+     * @throws AssertionError if the allocated memory grows faster.
+     * @throws IllegalStateException if allocation measurement is not supported.
+     */
+    void verifyAllocation(final Complexity complexity) {
+
+        final double[] bytes = new double[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            // the first call may allocate for class loading and initialization
+            inputs.apply(sizes[i]).get();
+            long least = Long.MAX_VALUE;
+            for (int run = 0; run < ALLOCATION_RUNS; run++) {
+                final Supplier<?> input = inputs.apply(sizes[i]);
+                final long before = Allocations.allocatedBytes();
+                input.get();
+                final long after = Allocations.allocatedBytes();
+                if (before == -1 || after == -1) {
+                    throw new IllegalStateException("Allocation measurement is not supported");
+                }
+                least = Math.min(least, after - before);
+            }
+            bytes[i] = least;
+        }
+        verify("allocation", complexity, bytes, "bytes");
+    }
+
+    private void verify(final String measure,
+                        final Complexity expected,
+                        final double[] costs,
+                        final String unit) {
+
+        final Complexity actual = fit(costs);
+        if (actual.compareTo(expected) <= 0) {
+            return;
+        }
+        final StringBuilder measurements = new StringBuilder();
+        for (int i = 0; i < sizes.length; i++) {
+            if (i > 0) {
+                measurements.append(", ");
+            }
+            measurements.append(String.format(Locale.ROOT, "%.0f %s at %d", costs[i], unit,
+                    sizes[i]));
+        }
+        throw new AssertionError("Expected " + measure + " to scale at most as " + expected
+                + ", found " + actual + " (" + measurements + ")");
+    }
+
+    private Complexity fit(final double[] costs) {
+
+        final double mean = Statistics.mean(costs);
+        final Complexity[] complexities = Complexity.values();
+        final double[] errors = new double[complexities.length];
+        double best = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < complexities.length; c++) {
+            double products = 0;
+            double squares = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                final double f = complexities[c].apply(sizes[i]);
+                products += costs[i] * f;
+                squares += f * f;
+            }
+            final double coefficient = squares == 0 ? 0 : products / squares;
+            double residuals = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                final double residual = costs[i] - coefficient * complexities[c].apply(sizes[i]);
+                residuals += residual * residual;
+            }
+            errors[c] = mean == 0 ? 0 : Math.sqrt(residuals / sizes.length) / mean;
+            best = Math.min(best, errors[c]);
+        }
+        for (int c = 0; c < complexities.length; c++) {
+            if (errors[c] <= best + FIT_TOLERANCE) {
+                return complexities[c];
+            }
+        }
+        return complexities[complexities.length - 1];
+    }
+}
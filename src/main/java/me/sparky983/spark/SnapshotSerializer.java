@@ -0,0 +1,39 @@
+package me.sparky983.spark;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes results so that they can be compared with, and stored as, snapshots.
+ * <p>
+ * Serializers must be deterministic: equal results must always be serialized to equal bytes.
+ *
+ * @author Sparky983
+ * @param <T> the type of the result.
+ * @see Assertion#matchesSnapshot(String, SnapshotSerializer)
+ * @since 1.2
+ */
+@FunctionalInterface
+public interface SnapshotSerializer<T> {
+
+    /**
+     * Serializes the specified result.
+     *
+     * @param result the result.
+     * @return the serialized result.
+     * @since 1.2
+     */
+    byte[] serialize(T result);
+
+    /**
+     * Returns a serializer that serializes results as the UTF-8 encoding of
+     * {@link String#valueOf(Object)}.
+     *
+     * @return the serializer.
+     * @param <T> the type of the result.
+     * @since 1.2
+     */
+    static <T> SnapshotSerializer<T> string() {
+
+        return (result) -> String.valueOf(result).getBytes(StandardCharsets.UTF_8);
+    }
+}
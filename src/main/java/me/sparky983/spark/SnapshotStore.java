@@ -0,0 +1,284 @@
+package me.sparky983.spark;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A file of snapshots.
+ * <p>
+ * Each test class has its own snapshot file, in the directory specified by the
+ * {@code spark.snapshot.dir} system property ({@code src/test/resources/spark-snapshots} by
+ * default). The file is append-only: a snapshot is recorded by appending a record, and a record
+ * supersedes earlier records with the same name. Each record consists of:
+ * <ol>
+ *     <li>the length of the name ({@code int}) followed by the name, encoded with UTF-8</li>
+ *     <li>the hash of the snapshot ({@code long})</li>
+ *     <li>the length of the snapshot ({@code int}) followed by the snapshot</li>
+ * </ol>
+ * When the file is opened, only the record headers are read to build an index of the offset of
+ * each snapshot. Snapshots are compared by their hashes first, so a changed snapshot is only read
+ * from the file to report the difference, and a snapshot with the same hash is read to confirm
+ * that its bytes match. A last record that was not completely written (for example, because
+ * the JVM was killed while appending it) is ignored, and is only overwritten when the next
+ * snapshot is recorded.
+ * <p>
+ * If the {@code spark.snapshot.update} system property is {@code true}, mismatching snapshots
+ * are recorded instead of failing. Snapshots that have not been recorded yet are recorded,
+ * unless the tests run on CI (the {@code spark.snapshot.ci} system property, which defaults to
+ * whether the {@code CI} environment variable is set), where they fail instead.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class SnapshotStore {
+
+    private static final Map<Path, SnapshotStore> STORES = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private Map<String, Entry> index;
+    /**
+     * The offset of the end of the last complete record.
+     */
+    private long end;
+
+    SnapshotStore(final Path file) {
+
+        this.file = file;
+    }
+
+    /**
+     * Returns the snapshot store of the specified test class.
+     *
+     * @param testClass the name of the test class.
+     * @return the snapshot store.
+     */
+    static SnapshotStore forClass(final String testClass) {
+
+        final Path directory = Paths.get(
+                System.getProperty("spark.snapshot.dir", "src/test/resources/spark-snapshots"));
+        return STORES.computeIfAbsent(directory.resolve(testClass + ".snap").toAbsolutePath(),
+                SnapshotStore::new);
+    }
+
+    /**
+     * Verifies that the specified snapshot matches the recorded snapshot with the same name.
+     * <p>
+     * If there is no recorded snapshot and recordsMissing is {@code true}, the snapshot is
+     * recorded.
+     *
+     * @param name the name of the snapshot.
+     * @param snapshot the snapshot.
+     * @param update whether to record the snapshot if it does not match.
+     * @param recordsMissing whether to record the snapshot if there is no recorded snapshot.
+     * @throws AssertionError if the snapshot does not match and update is {@code false}, or
+     * there is no recorded snapshot and recordsMissing is {@code false}.
+     * @throws UncheckedIOException if an I/O error occurs.
+     */
+    synchronized void verify(final String name,
+                             final byte[] snapshot,
+                             final boolean update,
+                             final boolean recordsMissing) {
+
+        final long hash = hash(snapshot);
+        final Entry entry = index().get(name);
+        if (entry == null) {
+            if (!update && !recordsMissing) {
+                throw new AssertionError("Snapshot <" + name + "> has not been recorded "
+                        + "(run with -Dspark.snapshot.update=true to record it)");
+            }
+            append(name, hash, snapshot);
+            return;
+        }
+        // the hash is not collision-resistant, so matching hashes are confirmed by the bytes
+        if (entry.hash == hash && entry.length == snapshot.length
+                && Arrays.equals(read(entry), snapshot)) {
+            return;
+        }
+        if (update) {
+            append(name, hash, snapshot);
+            return;
+        }
+        throw new AssertionError("Snapshot <" + name + "> does not match, "
+                + diff(read(entry), snapshot)
+                + " (run with -Dspark.snapshot.update=true to update it)");
+    }
+
+    private Map<String, Entry> index() {
+
+        if (index == null) {
+            index = new HashMap<>();
+            end = 0;
+            scan();
+        }
+        return index;
+    }
+
+    /**
+     * Indexes the complete records after the last indexed record.
+     */
+    private void scan() {
+
+        if (!Files.exists(file)) {
+            return;
+        }
+        long offset = end;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file)))) {
+            final long size = Files.size(file);
+            skipFully(in, offset);
+            while (offset < size) {
+                try {
+                    final int nameLength = in.readInt();
+                    final long headerLength = Integer.BYTES + (long) nameLength + Long.BYTES
+                            + Integer.BYTES;
+                    if (nameLength < 0 || offset + headerLength > size) {
+                        throw new EOFException();
+                    }
+                    final byte[] name = new byte[nameLength];
+                    in.readFully(name);
+                    final long hash = in.readLong();
+                    final int length = in.readInt();
+                    if (length < 0 || offset + headerLength + length > size) {
+                        throw new EOFException();
+                    }
+                    skipFully(in, length);
+                    index.put(new String(name, StandardCharsets.UTF_8),
+                            new Entry(hash, offset + headerLength, length));
+                    offset += headerLength + length;
+                } catch (final EOFException e) {
+                    // the last record was not completely written, so it is ignored
+                    break;
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        end = offset;
+    }
+
+    private byte[] read(final Entry entry) {
+
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            final byte[] snapshot = new byte[entry.length];
+            in.seek(entry.offset);
+            in.readFully(snapshot);
+            return snapshot;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(final String name, final long hash, final byte[] snapshot) {
+
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(nameBytes.length);
+            out.write(nameBytes);
+            out.writeLong(hash);
+            out.writeInt(snapshot.length);
+            out.write(snapshot);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final byte[] record = bytes.toByteArray();
+        // records appended since the file was indexed are kept
+        scan();
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                // the record is written after the last complete record, over an incompletely
+                // written record if there is one
+                final ByteBuffer buffer = ByteBuffer.wrap(record);
+                long position = end;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                if (channel.size() > position) {
+                    channel.truncate(position);
+                }
+            }
+            index.put(name, new Entry(hash, end + record.length - snapshot.length,
+                    snapshot.length));
+            end += record.length;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void skipFully(final InputStream in, final long length) throws IOException {
+
+        long remaining = length;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of the specified bytes.
+     */
+    private static long hash(final byte[] bytes) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Describes the first line where the snapshots differ.
+     */
+    private static String diff(final byte[] recorded, final byte[] snapshot) {
+
+        final String[] recordedLines = new String(recorded, StandardCharsets.UTF_8).split("\n", -1);
+        final String[] lines = new String(snapshot, StandardCharsets.UTF_8).split("\n", -1);
+        for (int i = 0; i < Math.max(recordedLines.length, lines.length); i++) {
+            final String recordedLine = i < recordedLines.length ? recordedLines[i] : null;
+            final String line = i < lines.length ? lines[i] : null;
+            if (recordedLine == null || !recordedLine.equals(line)) {
+                return "line " + (i + 1) + ": expected <" + recordedLine + ">, found <" + line
+                        + ">";
+            }
+        }
+        return "expected " + recorded.length + " bytes, found " + snapshot.length + " bytes";
+    }
+
+    private static final class Entry {
+
+        private final long hash;
+        private final long offset;
+        private final int length;
+
+        private Entry(final long hash, final long offset, final int length) {
+
+            this.hash = hash;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
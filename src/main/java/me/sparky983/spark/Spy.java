@@ -0,0 +1,230 @@
+package me.sparky983.spark;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts the invocations of the methods of an interface, used by
+ * {@link Given#withSpy(Class, Object)} and {@link Assertion#invokesAtMost(SpyMethod.OneArg, long)}.
+ * <p>
+ * The spy is a {@link Proxy} that delegates to the spied object. A counter is created for each
+ * method of the interface up front, so counting an invocation is a lookup in a map that is never
+ * modified and an increment of a {@link LongAdder}, without locking. A spy is made available to
+ * the assertions of its given while they are performed on the current thread.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Spy<I> implements InvocationHandler {
+
+    private static final ThreadLocal<Spy<?>> CURRENT = new ThreadLocal<>();
+
+    private final Class<I> type;
+    private final I delegate;
+    private final I proxy;
+    private final Map<Method, LongAdder> counters = new HashMap<>();
+
+    /**
+     * Creates a new spy.
+     *
+     * @param type the interface.
+     * @param delegate the object that invocations are delegated to.
+     */
+    Spy(final Class<I> type, final I delegate) {
+
+        this.type = type;
+        this.delegate = delegate;
+        for (final Method method : type.getMethods()) {
+            // the interface may not be public
+            method.setAccessible(true);
+            counters.put(method, new LongAdder());
+        }
+        this.proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[] {type}, this));
+    }
+
+    /**
+     * Returns the proxy that counts invocations.
+     *
+     * @return the proxy.
+     */
+    I proxy() {
+
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+            throws Throwable {
+
+        final LongAdder counter = counters.get(method);
+        if (counter != null) {
+            counter.increment();
+        }
+        try {
+            return method.invoke(delegate, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Runs the specified action with this spy available to assertions on the current thread.
+     *
+     * @param action the action.
+     */
+    void run(final Runnable action) {
+
+        final Spy<?> previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the spy of the given that the current assertion is performed on.
+     *
+     * @param assertion the name of the assertion, for the error message.
+     * @return the spy.
+     * @throws IllegalStateException if the assertion is not performed on a spied given.
+     */
+    static Spy<?> current(final String assertion) {
+
+        final Spy<?> spy = CURRENT.get();
+        if (spy == null) {
+            throw new IllegalStateException(assertion
+                    + " can only be performed on givens created by Given.withSpy");
+        }
+        return spy;
+    }
+
+    /**
+     * Creates a new assertion that fails if the when-function invokes the method with the
+     * specified signature more than the specified number of times.
+     *
+     * @param signature the signature of the method, as returned by {@link #signatureOf}.
+     * @param maximum the maximum number of invocations.
+     * @return the new assertion.
+     * @param <T> the type of the result.
+     * @throws IllegalArgumentException if the maximum is negative.
+     */
+    static <T> Assertion<T> invokesAtMost(final String signature, final long maximum) {
+
+        if (maximum < 0) {
+            throw new IllegalArgumentException("maximum cannot be negative");
+        }
+        return new NamedAssertion<>("invokesAtMost", (resultSupplier) ->
+                current("invokesAtMost").verifyAtMost(signature, maximum, resultSupplier));
+    }
+
+    /**
+     * Verifies that the when-function invokes the method with the specified signature at most
+     * the specified number of times.
+     *
+     * @param signature the signature of the method, as returned by {@link #signatureOf}.
+     * @param maximum the maximum number of invocations.
+     * @param supplier the supplier of the result of the when-function.
+     * @throws AssertionError if the method is invoked more times.
+     * @throws IllegalArgumentException if the interface has no method with the signature.
+     */
+    void verifyAtMost(final String signature, final long maximum, final Supplier<?> supplier) {
+
+        final LongAdder counter = counterOf(signature);
+        final long before = counter.sum();
+        supplier.get();
+        final long invocations = counter.sum() - before;
+        if (invocations > maximum) {
+            throw new AssertionError("Expected at most <" + maximum + "> invocations of <"
+                    + type.getSimpleName() + "." + signature.substring(0, signature.indexOf('('))
+                    + ">, found <" + invocations + ">");
+        }
+    }
+
+    private LongAdder counterOf(final String signature) {
+
+        for (final Map.Entry<Method, LongAdder> counter : counters.entrySet()) {
+            if (signature(counter.getKey()).equals(signature)) {
+                return counter.getValue();
+            }
+        }
+        throw new IllegalArgumentException(signature + " is not a method of " + type.getName());
+    }
+
+    /**
+     * Returns the signature of the method that the specified method reference refers to, such as
+     * {@code findById(J)Ljava/util/Optional;}.
+     *
+     * @param methodReference the method reference.
+     * @return the signature.
+     * @throws IllegalArgumentException if the method reference is a lambda, or a method
+     * reference to a method other than an instance method.
+     */
+    static String signatureOf(final Serializable methodReference) {
+
+        final SerializedLambda lambda;
+        try {
+            final Method writeReplace = methodReference.getClass()
+                    .getDeclaredMethod("writeReplace");
+            writeReplace.setAccessible(true);
+            lambda = (SerializedLambda) writeReplace.invoke(methodReference);
+        } catch (final ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("method must be a method reference", e);
+        }
+        final int kind = lambda.getImplMethodKind();
+        if (lambda.getImplMethodName().startsWith("lambda$")
+                || (kind != MethodHandleInfo.REF_invokeInterface
+                && kind != MethodHandleInfo.REF_invokeVirtual)) {
+            throw new IllegalArgumentException("method must be a method reference to an instance "
+                    + "method, such as Repository::findById");
+        }
+        return lambda.getImplMethodName() + lambda.getImplMethodSignature();
+    }
+
+    /**
+     * Returns the signature of the specified method, in the same form as {@link #signatureOf}.
+     *
+     * @param method the method.
+     * @return the signature.
+     */
+    static String signature(final Method method) {
+
+        final StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        for (final Class<?> parameter : method.getParameterTypes()) {
+            signature.append(descriptor(parameter));
+        }
+        return signature.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static String descriptor(final Class<?> type) {
+
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        } else if (!type.isPrimitive()) {
+            return "L" + type.getName().replace('.', '/') + ";";
+        } else if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == long.class) {
+            return "J";
+        }
+        // B, C, D, F, I, S
+        return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+    }
+}
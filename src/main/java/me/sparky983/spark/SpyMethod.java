@@ -0,0 +1,117 @@
+package me.sparky983.spark;
+
+import java.io.Serializable;
+
+/**
+ * Method references to the methods of a spied interface, used with
+ * {@link Assertion#invokesAtMost(SpyMethod.OneArg, long)} and its overloads.
+ * <p>
+ * There is an interface for each number of parameters, so that a method reference such as
+ * {@code Repository::findById} can be passed directly. Only method references are supported, not
+ * lambdas, since the method is identified from the serialized form of the method reference.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * withSpy(Repository.class, repository)
+ *         .when((r) -> new OrderService(r).loadOrders(customer))
+ *         .then(invokesAtMost(Repository::findById, 1));
+ * }</pre>
+ *
+ * @author Sparky983
+ * @see Given#withSpy(Class, Object)
+ * @since 1.2
+ */
+public final class SpyMethod {
+
+    private SpyMethod() {
+
+    }
+
+    /**
+     * A method reference to a method without parameters.
+     *
+     * @param <I> the type of the spied interface.
+     * @since 1.2
+     */
+    @FunctionalInterface
+    public interface NoArgs<I> extends Serializable {
+
+        /**
+         * Invokes the method.
+         *
+         * @param target the object to invoke the method on.
+         * @throws Exception if the method throws an exception.
+         * @since 1.2
+         */
+        void invoke(I target) throws Exception;
+    }
+
+    /**
+     * A method reference to a method with one parameter.
+     *
+     * @param <I> the type of the spied interface.
+     * @param <A> the type of the parameter.
+     * @since 1.2
+     */
+    @FunctionalInterface
+    public interface OneArg<I, A> extends Serializable {
+
+        /**
+         * Invokes the method.
+         *
+         * @param target the object to invoke the method on.
+         * @param a the argument.
+         * @throws Exception if the method throws an exception.
+         * @since 1.2
+         */
+        void invoke(I target, A a) throws Exception;
+    }
+
+    /**
+     * A method reference to a method with two parameters.
+     *
+     * @param <I> the type of the spied interface.
+     * @param <A> the type of the first parameter.
+     * @param <B> the type of the second parameter.
+     * @since 1.2
+     */
+    @FunctionalInterface
+    public interface TwoArgs<I, A, B> extends Serializable {
+
+        /**
+         * Invokes the method.
+         *
+         * @param target the object to invoke the method on.
+         * @param a the first argument.
+         * @param b the second argument.
+         * @throws Exception if the method throws an exception.
+         * @since 1.2
+         */
+        void invoke(I target, A a, B b) throws Exception;
+    }
+
+    /**
+     * A method reference to a method with three parameters.
+     *
+     * @param <I> the type of the spied interface.
+     * @param <A> the type of the first parameter.
+     * @param <B> the type of the second parameter.
+     * @param <C> the type of the third parameter.
+     * @since 1.2
+     */
+    @FunctionalInterface
+    public interface ThreeArgs<I, A, B, C> extends Serializable {
+
+        /**
+         * Invokes the method.
+         *
+         * @param target the object to invoke the method on.
+         * @param a the first argument.
+         * @param b the second argument.
+         * @param c the third argument.
+         * @throws Exception if the method throws an exception.
+         * @since 1.2
+         */
+        void invoke(I target, A a, B b, C c) throws Exception;
+    }
+}
@@ -0,0 +1,242 @@
+package me.sparky983.spark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Statistical tests used by the performance assertions.
+ *
+ * @author Sparky983
+ * @since 1.2
+ */
+final class Statistics {
+
+    /**
+     * The significance level of the performance assertions: a slowdown is only reported if there is
+     * less than a 1% chance of measuring it when there is none.
+     */
+    static final double SIGNIFICANCE = 0.01;
+
+    private static final int BOOTSTRAP_RESAMPLES = 2000;
+
+    private static final double[] LANCZOS = {76.18009172947146, -86.50532032941677,
+            24.01409824083091, -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+
+    private Statistics() {
+
+    }
+
+    /**
+     * Computes the sample mean.
+     */
+    static double mean(final double[] samples) {
+
+        double sum = 0;
+        for (final double sample : samples) {
+            sum += sample;
+        }
+        return sum / samples.length;
+    }
+
+    /**
+     * Computes the unbiased sample variance.
+     */
+    static double variance(final double[] samples, final double mean) {
+
+        if (samples.length < 2) {
+            return 0;
+        }
+        double sum = 0;
+        for (final double sample : samples) {
+            sum += (sample - mean) * (sample - mean);
+        }
+        return sum / (samples.length - 1);
+    }
+
+    /**
+     * Performs a one-sided Welch's t-test of whether the mean of the first population is greater
+     * than the mean of the second.
+     *
+     * @return the p-value: the probability of measuring means this far apart (or further) if the
+     * mean of the first population is not greater.
+     */
+    static double welchTest(final double mean1,
+                            final double variance1,
+                            final long count1,
+                            final double mean2,
+                            final double variance2,
+                            final long count2) {
+
+        final double error1 = variance1 / count1;
+        final double error2 = variance2 / count2;
+        final double standardError = Math.sqrt(error1 + error2);
+        if (standardError == 0) {
+            return mean1 > mean2 ? 0 : 1;
+        }
+        final double t = (mean1 - mean2) / standardError;
+        final double degreesOfFreedom = (error1 + error2) * (error1 + error2)
+                / (error1 * error1 / Math.max(count1 - 1, 1)
+                + error2 * error2 / Math.max(count2 - 1, 1));
+        return 1 - studentT(t, degreesOfFreedom);
+    }
+
+    /**
+     * Computes the sample median.
+     */
+    static double median(final double[] samples) {
+
+        final double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        final int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * Performs a one-sided Mann-Whitney U test of whether the first population is stochastically
+     * smaller than the second, using the normal approximation.
+     *
+     * @return the p-value: the probability of measuring samples this far apart (or further) if
+     * the first population is not smaller.
+     */
+    static double mannWhitneyTest(final double[] first, final double[] second) {
+
+        // the number of pairs where the first sample is smaller, counting ties as half
+        double u = 0;
+        for (final double x : first) {
+            for (final double y : second) {
+                if (x < y) {
+                    u++;
+                } else if (x == y) {
+                    u += 0.5;
+                }
+            }
+        }
+        final double n1 = first.length;
+        final double n2 = second.length;
+        final double mean = n1 * n2 / 2;
+        final double standardDeviation = Math.sqrt(n1 * n2 * (n1 + n2 + 1) / 12);
+        // with a continuity correction
+        return 1 - normal((u - mean - 0.5) / standardDeviation);
+    }
+
+    /**
+     * Estimates a confidence interval of the ratio of the median of the first samples to the
+     * median of the second samples, with the percentile bootstrap.
+     * <p>
+     * The resampling is seeded, so the interval is the same for the same samples.
+     *
+     * @return the lower and upper bounds of the interval.
+     */
+    static double[] bootstrapMedianRatio(final double[] first,
+                                         final double[] second,
+                                         final double confidence) {
+
+        final Random random = new Random(0);
+        final double[] ratios = new double[BOOTSTRAP_RESAMPLES];
+        final double[] firstResample = new double[first.length];
+        final double[] secondResample = new double[second.length];
+        for (int i = 0; i < ratios.length; i++) {
+            for (int j = 0; j < first.length; j++) {
+                firstResample[j] = first[random.nextInt(first.length)];
+            }
+            for (int j = 0; j < second.length; j++) {
+                secondResample[j] = second[random.nextInt(second.length)];
+            }
+            ratios[i] = median(firstResample) / median(secondResample);
+        }
+        Arrays.sort(ratios);
+        final double tail = (1 - confidence) / 2;
+        return new double[] {ratios[(int) Math.floor(tail * (ratios.length - 1))],
+                ratios[(int) Math.ceil((1 - tail) * (ratios.length - 1))]};
+    }
+
+    /**
+     * Computes the cumulative distribution function of Student's t-distribution.
+     */
+    static double studentT(final double t, final double degreesOfFreedom) {
+
+        final double tail = 0.5 * regularizedBeta(degreesOfFreedom / (degreesOfFreedom + t * t),
+                degreesOfFreedom / 2, 0.5);
+        return t > 0 ? 1 - tail : tail;
+    }
+
+    /**
+     * Computes the cumulative distribution function of the standard normal distribution.
+     */
+    static double normal(final double z) {
+
+        // Abramowitz and Stegun 7.1.26, accurate to 1.5e-7
+        final double x = Math.abs(z) / Math.sqrt(2);
+        final double t = 1 / (1 + 0.3275911 * x);
+        final double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    /**
+     * Computes the regularized incomplete beta function.
+     */
+    private static double regularizedBeta(final double x, final double a, final double b) {
+
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        final double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+                + a * Math.log(x) + b * Math.log(1 - x));
+        // the continued fraction converges quickly on this side
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    /**
+     * Evaluates the continued fraction of the incomplete beta function with Lentz's method.
+     */
+    private static double betaContinuedFraction(final double x, final double a, final double b) {
+
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double fraction = d;
+        for (int m = 1; m <= 300; m++) {
+            final int m2 = 2 * m;
+            double numerator = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < tiny ? tiny : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            fraction *= d * c;
+
+            numerator = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < tiny ? tiny : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            final double delta = d * c;
+            fraction *= delta;
+            if (Math.abs(delta - 1) < 1e-12) {
+                break;
+            }
+        }
+        return fraction;
+    }
+
+    /**
+     * Computes the natural logarithm of the gamma function with the Lanczos approximation.
+     */
+    private static double logGamma(final double x) {
+
+        double y = x;
+        final double temp = x + 5.5 - (x + 0.5) * Math.log(x + 5.5);
+        double series = 1.000000000190015;
+        for (final double coefficient : LANCZOS) {
+            series += coefficient / ++y;
+        }
+        return -temp + Math.log(2.5066282746310005 * series / x);
+    }
+}
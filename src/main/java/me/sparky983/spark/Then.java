@@ -13,10 +13,10 @@ import java.util.function.Function;
  */
 public final class Then<T, R> {
 
-    private final T given;
+    private final Fixture<T> given;
     private final Function<T, R> when;
 
-    Then(final T given, final Function<T, R> when) {
+    Then(final Fixture<T> given, final Function<T, R> when) {
 
         this.given = given;
         this.when = Objects.requireNonNull(when, "when");
@@ -34,7 +34,7 @@ public final class Then<T, R> {
     public Then<T, R> and(final Assertion<R> assertion) {
 
         Objects.requireNonNull(assertion, "assertion");
-        assertion.doAssertion(() -> when.apply(given));
+        given.perform(when, assertion);
         return this;
     }
 }
@@ -14,10 +14,10 @@ import java.util.function.Supplier;
  */
 public final class When<T, R> {
 
-    private final T given;
+    private final Fixture<T> given;
     private final Function<T, R> when;
 
-    When(final T given, final Function<T, R> when) {
+    When(final Fixture<T> given, final Function<T, R> when) {
 
         this.given = given;
         this.when = Objects.requireNonNull(when, "when");
@@ -36,7 +36,7 @@ public final class When<T, R> {
     public static <R> When<Void, R> when(final Supplier<R> when) {
 
         Objects.requireNonNull(when, "when");
-        return new When<>(null, (void1) -> when.get());
+        return new When<>(Fixture.constant(null), (void1) -> when.get());
     }
 
     /**
@@ -53,7 +53,7 @@ public final class When<T, R> {
     public Then<T, R> then(final Assertion<R> assertion) {
 
         Objects.requireNonNull(assertion, "assertion");
-        assertion.doAssertion(() -> when.apply(given));
+        given.perform(when, assertion);
         return new Then<>(given, when);
     }
 }
@@ -0,0 +1,137 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static me.sparky983.spark.Assertion.blockedTimeAtMost;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockedTimeAtMostTest {
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        givenNull(Duration.class)
+                .when(Assertion::blockedTimeAtMost)
+                .then(throwsException(NullPointerException.class));
+
+        given(Duration.ofMillis(-1))
+                .when(Assertion::blockedTimeAtMost)
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(0)
+                .when((threads) -> blockedTimeAtMost(Duration.ZERO, threads))
+                .then(throwsException(IllegalArgumentException.class));
+
+        givenNull(Duration.class)
+                .when((timeout) -> blockedTimeAtMost(Duration.ZERO, 1, timeout))
+                .then(throwsException(NullPointerException.class));
+
+        given(Duration.ZERO)
+                .when((timeout) -> blockedTimeAtMost(Duration.ZERO, 1, timeout))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testBlockedTimeAtMost() {
+
+        given(new AtomicLong())
+                .when(AtomicLong::incrementAndGet)
+                .then(blockedTimeAtMost(Duration.ZERO, 4));
+    }
+
+    @Test
+    void testBlockedTimeAtMostWhenContended() {
+
+        final Object lock = new Object();
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(lock)
+                        .when((l) -> {
+                            synchronized (l) {
+                                return sleep(50);
+                            }
+                        })
+                        .then(blockedTimeAtMost(Duration.ofMillis(10), 4)));
+
+        assertTrue(error.getMessage().startsWith("Expected at most <PT0.01S> of blocked time"));
+        assertTrue(error.getMessage().contains("spark-contention-1: blocked "));
+    }
+
+    @Test
+    void testBlockedTimeAtMostWhenDeadlocked() {
+
+        final Object first = new Object();
+        final Object second = new Object();
+        final AtomicInteger threads = new AtomicInteger();
+        final CountDownLatch locked = new CountDownLatch(2);
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(threads)
+                        .when((t) -> {
+                            final boolean even = t.getAndIncrement() % 2 == 0;
+                            final Object outer = even ? first : second;
+                            final Object inner = even ? second : first;
+                            synchronized (outer) {
+                                locked.countDown();
+                                await(locked);
+                                synchronized (inner) {
+                                    return even;
+                                }
+                            }
+                        })
+                        .then(blockedTimeAtMost(Duration.ofSeconds(1), 2)));
+
+        assertTrue(error.getMessage().startsWith(
+                "Expected no deadlock, found <2> deadlocked threads:\n\"spark-contention-"));
+        assertTrue(error.getMessage().contains(" BLOCKED on java.lang.Object@"));
+        assertTrue(error.getMessage().contains("\n\t- locked java.lang.Object@"));
+    }
+
+    @Test
+    void testBlockedTimeAtMostWhenTimedOut() {
+
+        final CountDownLatch never = new CountDownLatch(1);
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(never)
+                        .when((latch) -> {
+                            await(latch);
+                            return latch;
+                        })
+                        .then(blockedTimeAtMost(Duration.ZERO, 2, Duration.ofMillis(200))));
+
+        assertTrue(error.getMessage().startsWith(
+                "Expected the threads to finish within <PT0.2S>, found <2> running threads:\n"
+                        + "\"spark-contention-"));
+        assertTrue(error.getMessage().contains("java.util.concurrent.CountDownLatch.await("));
+    }
+
+    private static boolean sleep(final long millis) {
+
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static me.sparky983.spark.Assertion.causesAtMostGcs;
+import static me.sparky983.spark.Assertion.gcPauseTimeAtMost;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static me.sparky983.spark.When.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CausesAtMostGcsTest {
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        given(-1)
+                .when((young) -> causesAtMostGcs(young, 0))
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(-1)
+                .when((old) -> causesAtMostGcs(0, old))
+                .then(throwsException(IllegalArgumentException.class));
+
+        givenNull(Duration.class)
+                .when(Assertion::gcPauseTimeAtMost)
+                .then(throwsException(NullPointerException.class));
+
+        given(Duration.ofMillis(-1))
+                .when(Assertion::gcPauseTimeAtMost)
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testCausesAtMostGcs() {
+
+        when(() -> new byte[64])
+                .then(causesAtMostGcs(Integer.MAX_VALUE, 0));
+    }
+
+    @Test
+    void testCollectorClassification() {
+
+        assertTrue(GcActivity.isYoung("G1 Young Generation"));
+        assertTrue(GcActivity.isOld("G1 Old Generation"));
+        assertTrue(!GcActivity.isOld("G1 Concurrent GC"));
+        assertTrue(GcActivity.isYoung("PS Scavenge"));
+        assertTrue(GcActivity.isOld("PS MarkSweep"));
+        assertTrue(!GcActivity.isOld("ZGC Cycles"));
+        assertTrue(!GcActivity.isOld("ZGC Pauses"));
+        assertTrue(GcActivity.isYoung("ZGC Minor Cycles"));
+        assertTrue(!GcActivity.isYoung("ZGC Minor Pauses"));
+        assertTrue(!GcActivity.isOld("ZGC Major Pauses"));
+        assertTrue(!GcActivity.isOld("Shenandoah Cycles"));
+        assertTrue(!GcActivity.isOld("Shenandoah Pauses"));
+    }
+
+    @Test
+    void testCausesAtMostGcsWhenFullCollections() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                when(CausesAtMostGcsTest::collect)
+                        .then(causesAtMostGcs(Integer.MAX_VALUE, 0)));
+
+        assertTrue(error.getMessage().startsWith("Expected at most <" + Integer.MAX_VALUE
+                + "> young and <0> old collections"));
+    }
+
+    @Test
+    void testGcPauseTimeAtMost() {
+
+        when(CausesAtMostGcsTest::collect)
+                .then(gcPauseTimeAtMost(Duration.ofDays(1)));
+
+        assertThrows(AssertionError.class, () ->
+                when(CausesAtMostGcsTest::collect)
+                        .then(gcPauseTimeAtMost(Duration.ZERO)));
+    }
+
+    private static Object collect() {
+
+        System.gc();
+        return null;
+    }
+}
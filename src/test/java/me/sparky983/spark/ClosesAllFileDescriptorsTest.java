@@ -0,0 +1,70 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.sparky983.spark.Assertion.closesAllFileDescriptors;
+import static me.sparky983.spark.Given.given;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClosesAllFileDescriptorsTest {
+
+    @Test
+    void testClosesAllFileDescriptors() throws IOException {
+
+        final Path file = Files.createTempFile("spark", ".bin");
+        try {
+            given(file)
+                    .when((path) -> {
+                        try (InputStream in = new FileInputStream(path.toFile())) {
+                            return in.read();
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .then(closesAllFileDescriptors());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testClosesAllFileDescriptorsWhenLeaked() throws IOException {
+
+        final Path file = Files.createTempFile("spark", ".bin");
+        final List<InputStream> leaked = new ArrayList<>();
+        try {
+            final AssertionError error = assertThrows(AssertionError.class, () ->
+                    given(file)
+                            .when((path) -> {
+                                try {
+                                    return leaked.add(new FileInputStream(path.toFile()));
+                                } catch (final IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            })
+                            .then(closesAllFileDescriptors()));
+
+            assertTrue(error.getMessage().startsWith(
+                    "Expected all file descriptors to be closed, found <1> open file descriptors"));
+            if (Files.isDirectory(Paths.get("/proc/self/fd"))) {
+                assertTrue(error.getMessage().contains(" -> " + file.toRealPath()));
+            }
+        } finally {
+            for (final InputStream in : leaked) {
+                in.close();
+            }
+            Files.delete(file);
+        }
+    }
+}
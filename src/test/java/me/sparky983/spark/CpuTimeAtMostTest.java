@@ -0,0 +1,147 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static me.sparky983.spark.Assertion.cpuTimeAtMost;
+import static me.sparky983.spark.Assertion.ioBytesAtMost;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static me.sparky983.spark.When.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CpuTimeAtMostTest {
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        givenNull(Duration.class)
+                .when(Assertion::cpuTimeAtMost)
+                .then(throwsException(NullPointerException.class));
+
+        given(Duration.ofMillis(-1))
+                .when(Assertion::cpuTimeAtMost)
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(-1L)
+                .when((read) -> ioBytesAtMost(read, 0))
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(-1L)
+                .when((written) -> ioBytesAtMost(0, written))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testCpuTimeAtMost() {
+
+        when(() -> 1)
+                .then(cpuTimeAtMost(Duration.ofMillis(1)));
+    }
+
+    @Test
+    void testCpuTimeAtMostWhenExceeded() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                when(() -> spin(5))
+                        .then(cpuTimeAtMost(Duration.ofMillis(1))));
+
+        assertTrue(error.getMessage().startsWith(
+                "Expected at most <PT0.001S> of CPU time per call, found <"));
+    }
+
+    @Test
+    void testCpuTimeAtMostWhenWorkHandedToOtherThreads() throws Exception {
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the worker is started before the assertion
+            executor.submit(() -> { }).get();
+
+            assertThrows(AssertionError.class, () ->
+                    given(executor)
+                            .when((e) -> CompletableFuture.supplyAsync(() -> spin(5), e).join())
+                            .then(cpuTimeAtMost(Duration.ofMillis(1))));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThrows(AssertionError.class, () ->
+                when(() -> CompletableFuture.supplyAsync(() -> spin(5)).join())
+                        .then(cpuTimeAtMost(Duration.ofMillis(1))));
+    }
+
+    @Test
+    void testIoBytesAtMost() throws IOException {
+
+        final Path file = Files.createTempFile("spark", ".bin");
+        try {
+            Files.write(file, new byte[4096]);
+
+            given(file)
+                    .when(Path::getFileName)
+                    .then(ioBytesAtMost(0, 0));
+
+            given(file)
+                    .when(CpuTimeAtMostTest::read)
+                    .then(ioBytesAtMost(4096 * 2, 0));
+
+            if (Files.isReadable(Paths.get("/proc/self/io"))) {
+                final AssertionError error = assertThrows(AssertionError.class, () ->
+                        given(file)
+                                .when(CpuTimeAtMostTest::read)
+                                .then(ioBytesAtMost(1024, 0)));
+                assertTrue(error.getMessage().startsWith("Expected at most <1024> bytes read"));
+
+                final AssertionError writeError = assertThrows(AssertionError.class, () ->
+                        given(file)
+                                .when((path) -> write(path, new byte[8192]))
+                                .then(ioBytesAtMost(0, 1024)));
+                assertEquals("Expected at most <0> bytes read and <1024> bytes written, found "
+                        + "<0> bytes read and <8192> bytes written", writeError.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static long spin(final long millis) {
+
+        final long deadline = System.nanoTime() + millis * 1_000_000;
+        long spins = 0;
+        while (System.nanoTime() < deadline) {
+            spins++;
+        }
+        return spins;
+    }
+
+    private static byte[] read(final Path path) {
+
+        try {
+            return Files.readAllBytes(path);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path write(final Path path, final byte[] bytes) {
+
+        try {
+            return Files.write(path, bytes);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.sparky983.spark.Assertion.directMemoryGrowthAtMost;
+import static me.sparky983.spark.Assertion.releasesAllDirectBuffers;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.When.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectMemoryTest {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        given(-1L)
+                .when(Assertion::directMemoryGrowthAtMost)
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testDirectMemoryGrowthAtMost() {
+
+        when(() -> ByteBuffer.allocateDirect(BUFFER_SIZE))
+                .then(directMemoryGrowthAtMost(0));
+
+        given(new ArrayList<ByteBuffer>())
+                .when((buffers) -> buffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE)))
+                .then(directMemoryGrowthAtMost(BUFFER_SIZE));
+    }
+
+    @Test
+    void testDirectMemoryGrowthAtMostWhenExceeded() {
+
+        final List<ByteBuffer> leaked = new ArrayList<>();
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(leaked)
+                        .when((buffers) -> buffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE)))
+                        .then(directMemoryGrowthAtMost(BUFFER_SIZE / 2)));
+
+        assertTrue(error.getMessage().startsWith("Expected direct memory to grow by at most <"
+                + BUFFER_SIZE / 2 + "> bytes, found <" + BUFFER_SIZE + "> bytes ("));
+        assertTrue(error.getMessage().contains("direct: +1 buffer (+" + BUFFER_SIZE + " bytes)"));
+    }
+
+    @Test
+    void testReleasesAllDirectBuffers() {
+
+        when(() -> ByteBuffer.allocateDirect(BUFFER_SIZE))
+                .then(releasesAllDirectBuffers());
+    }
+
+    @Test
+    void testReleasesAllDirectBuffersWhenLeaked() {
+
+        final List<ByteBuffer> leaked = new ArrayList<>();
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(leaked)
+                        .when((buffers) -> buffers.add(ByteBuffer.allocateDirect(16)))
+                        .then(releasesAllDirectBuffers()));
+
+        assertTrue(error.getMessage().startsWith(
+                "Expected all direct buffers to be released, found <1> unreleased buffers"));
+    }
+}
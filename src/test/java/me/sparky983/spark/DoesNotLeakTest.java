@@ -0,0 +1,84 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static me.sparky983.spark.Assertion.doesNotLeak;
+import static me.sparky983.spark.Assertion.doesNotRetain;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static me.sparky983.spark.When.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DoesNotLeakTest {
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        given(0)
+                .when(Assertion::doesNotLeak)
+                .then(throwsException(IllegalArgumentException.class));
+
+        givenNull(Function.class)
+                .when(Assertion::doesNotRetain)
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testDoesNotLeak() {
+
+        when(() -> new byte[1024])
+                .then(doesNotLeak(1000));
+    }
+
+    @Test
+    void testDoesNotLeakWhenLeaking() {
+
+        final List<byte[]> leaked = new ArrayList<>();
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(leaked)
+                        .when((list) -> list.add(new byte[1024]))
+                        .then(doesNotLeak(1000)));
+
+        assertTrue(error.getMessage().startsWith("Expected heap not to grow"));
+    }
+
+    @Test
+    void testDoesNotRetain() {
+
+        given(new ArrayList<Object>())
+                .when((listeners) -> new Object())
+                .then(doesNotRetain((listener) -> listener));
+    }
+
+    @Test
+    void testDoesNotRetainWhenRetained() {
+
+        final List<Object> listeners = new ArrayList<>();
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(listeners)
+                        .when((list) -> {
+                            final Object listener = new Object();
+                            list.add(listener);
+                            return listener;
+                        })
+                        .then(doesNotRetain((listener) -> listener)));
+
+        assertTrue(error.getMessage().startsWith("Expected <java.lang.Object> to be unreachable"));
+    }
+
+    @Test
+    void testDoesNotRetainWhenExtractedNull() {
+
+        assertThrows(AssertionError.class, () ->
+                when(() -> null)
+                        .then(doesNotRetain((result) -> null)));
+    }
+}
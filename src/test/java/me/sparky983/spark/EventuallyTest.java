@@ -0,0 +1,129 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static me.sparky983.spark.Assertion.doesNotThrow;
+import static me.sparky983.spark.Assertion.eventually;
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventuallyTest {
+
+    @Test
+    void testEventuallyWhenArgumentsInvalid() {
+
+        givenNull(Assertion.class)
+                .when((assertion) -> eventually(assertion, Duration.ZERO))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(Duration.class)
+                .when((timeout) -> eventually(isEqualTo(1), timeout))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(Function.class)
+                .when((onChange) -> eventually(isEqualTo(1), Duration.ZERO, onChange))
+                .then(throwsException(NullPointerException.class));
+
+        given(Duration.ofSeconds(-1))
+                .when((timeout) -> eventually(isEqualTo(1), timeout))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testEventuallyPasses() {
+
+        final AtomicInteger counter = new AtomicInteger();
+
+        given(eventually(isEqualTo(5), Duration.ofSeconds(10)))
+                .whenDo((eventually) -> eventually.doAssertion(counter::incrementAndGet))
+                .then(doesNotThrow());
+
+        assertEquals(5, counter.get());
+    }
+
+    @Test
+    void testEventuallyFails() {
+
+        final AtomicInteger counter = new AtomicInteger();
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                eventually(isEqualTo(-1), Duration.ofMillis(50))
+                        .doAssertion(counter::incrementAndGet));
+
+        assertTrue(error.getMessage().endsWith("after " + counter.get() + " polls"));
+        assertTrue(error.getCause() instanceof AssertionError);
+        assertTrue(counter.get() > 1);
+    }
+
+    @Test
+    void testEventuallyWhenSupplierThrows() {
+
+        final AtomicInteger counter = new AtomicInteger();
+
+        given(eventually(isEqualTo(3), Duration.ofSeconds(10)))
+                .whenDo((eventually) -> eventually.doAssertion(() -> {
+                    if (counter.incrementAndGet() < 3) {
+                        throw new IllegalStateException("not ready");
+                    }
+                    return counter.get();
+                }))
+                .then(doesNotThrow());
+    }
+
+    @Test
+    void testEventuallyWakesOnChange() throws InterruptedException {
+
+        final AtomicReference<String> value = new AtomicReference<>("old");
+        final AtomicReference<Runnable> signal = new AtomicReference<>();
+
+        final Thread changer = new Thread(() -> {
+            while (signal.get() == null) {
+                Thread.yield();
+            }
+            value.set("new");
+            signal.get().run();
+        });
+        changer.start();
+
+        final long start = System.nanoTime();
+        eventually(isEqualTo("new"), Duration.ofSeconds(10), (onChange) -> {
+            signal.set(onChange);
+            return () -> {};
+        }).doAssertion(value::get);
+        changer.join();
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+    }
+
+    @Test
+    void testEventuallyUnregistersChangeSignal() {
+
+        final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+        final Function<Runnable, AutoCloseable> onChange = (signal) -> {
+            listeners.add(signal);
+            return () -> listeners.remove(signal);
+        };
+
+        for (int i = 0; i < 3; i++) {
+            eventually(isEqualTo(1), Duration.ofSeconds(10), onChange)
+                    .doAssertion(() -> 1);
+        }
+        assertThrows(AssertionError.class, () ->
+                eventually(isEqualTo(2), Duration.ofMillis(10), onChange)
+                        .doAssertion(() -> 1));
+
+        assertEquals(0, listeners.size());
+    }
+}
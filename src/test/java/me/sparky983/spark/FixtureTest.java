@@ -0,0 +1,173 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static me.sparky983.spark.Assertion.doesNotThrow;
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Assertion.isTrue;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static me.sparky983.spark.Given.pooled;
+import static me.sparky983.spark.Given.shared;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixtureTest {
+
+    @Test
+    void testSharedWhenArgumentsNull() {
+
+        givenNull(String.class)
+                .when((name) -> shared(name, FixtureScope.JVM, Object::new))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(FixtureScope.class)
+                .when((scope) -> shared("name", scope, Object::new))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(Supplier.class)
+                .when((supplier) -> shared("name", FixtureScope.JVM, supplier))
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testPooledWhenArgumentsInvalid() {
+
+        givenNull(Supplier.class)
+                .when((supplier) -> pooled(supplier, (object) -> {}, 1))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(Consumer.class)
+                .when((reset) -> pooled(Object::new, reset, 1))
+                .then(throwsException(NullPointerException.class));
+
+        given(0)
+                .when((size) -> pooled(Object::new, (object) -> {}, size))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testScenarioScope() {
+
+        final AtomicInteger builds = new AtomicInteger();
+
+        final Given<Integer> given = shared("scenario", FixtureScope.SCENARIO,
+                builds::incrementAndGet);
+        assertEquals(0, builds.get());
+        given.noop()
+                .then(isEqualTo(1))
+                .and(isEqualTo(1));
+        assertEquals(1, builds.get());
+
+        shared("scenario", FixtureScope.SCENARIO, builds::incrementAndGet)
+                .noop()
+                .then(isEqualTo(2));
+    }
+
+    @Test
+    void testClassScope() {
+
+        final AtomicInteger builds = new AtomicInteger();
+
+        shared("class", FixtureScope.CLASS, builds::incrementAndGet)
+                .noop()
+                .then(isEqualTo(1));
+        shared("class", FixtureScope.CLASS, builds::incrementAndGet)
+                .noop()
+                .then(isEqualTo(1));
+        shared("another class fixture", FixtureScope.CLASS, builds::incrementAndGet)
+                .noop()
+                .then(isEqualTo(2));
+    }
+
+    @Test
+    void testJvmScope() {
+
+        final Object first = new Object();
+
+        shared("jvm", FixtureScope.JVM, () -> first)
+                .noop()
+                .then(isEqualTo(first));
+        shared("jvm", FixtureScope.JVM, Object::new)
+                .noop()
+                .then(isEqualTo(first));
+    }
+
+    @Test
+    void testPooled() throws Exception {
+
+        final AtomicInteger builds = new AtomicInteger();
+        final AtomicInteger resets = new AtomicInteger();
+        final Given<AtomicBoolean> given = pooled(() -> {
+            builds.incrementAndGet();
+            return new AtomicBoolean();
+        }, (inUse) -> resets.incrementAndGet(), 2);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        given.when((inUse) -> {
+                            // each object is only lent out to one assertion at a time
+                            final boolean acquired = inUse.compareAndSet(false, true);
+                            Thread.yield();
+                            inUse.set(false);
+                            return acquired;
+                        }).then(isTrue());
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(builds.get() <= 2);
+        assertEquals(800, resets.get());
+    }
+
+    @Test
+    void testPooledWhenResetFails() {
+
+        final AtomicInteger builds = new AtomicInteger();
+        final AtomicBoolean fails = new AtomicBoolean(true);
+        final Given<Integer> given = pooled(builds::incrementAndGet, (object) -> {
+            if (fails.getAndSet(false)) {
+                throw new IllegalStateException();
+            }
+        }, 1);
+
+        assertThrows(IllegalStateException.class, () -> given.noop().then(doesNotThrow()));
+        given.noop()
+                .then(isEqualTo(2))
+                .and(isEqualTo(2));
+    }
+
+    @Test
+    void testPooledResetFailureIsSuppressedByAssertionFailure() {
+
+        final Given<Object> given = pooled(Object::new, (object) -> {
+            throw new IllegalStateException();
+        }, 1);
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given.noop().then(isEqualTo(null)));
+        assertEquals(IllegalStateException.class, error.getSuppressed()[0].getClass());
+    }
+}
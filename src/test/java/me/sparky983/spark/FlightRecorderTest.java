@@ -0,0 +1,16 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.When.when;
+
+class FlightRecorderTest {
+
+    @Test
+    void testEventsDisabledByDefault() {
+
+        when(FlightRecorder::enabled)
+                .then(isEqualTo(null));
+    }
+}
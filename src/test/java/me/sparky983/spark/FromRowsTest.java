@@ -0,0 +1,214 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Assertion.isTrue;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.fromRows;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FromRowsTest {
+
+    @Test
+    void testFromRowsWhenArgumentsNull() {
+
+        givenNull(Path.class)
+                .when((file) -> fromRows(file, (row) -> row))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(RowMapper.class)
+                .when((mapper) -> fromRows(Paths.get("rows.csv"), mapper))
+                .then(throwsException(NullPointerException.class));
+
+        given(fromRows(Paths.get("rows.csv"), (row) -> row))
+                .when((rows) -> {
+                    rows.forEach(null);
+                    return rows;
+                })
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testConfigurationWhenNotPositive() {
+
+        final GivenRows<Row> rows = fromRows(Paths.get("rows.csv"), (row) -> row);
+
+        assertThrows(IllegalArgumentException.class, () -> rows.batchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> rows.parallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> rows.stopAfterFailures(0));
+    }
+
+    @Test
+    void testCsv() throws IOException {
+
+        final Path file = write("rows.csv",
+                "a,b,sum",
+                "1,2,3",
+                "\"1\",\"2\",\"3\"",
+                "",
+                "10,20,30");
+        final AtomicInteger count = new AtomicInteger();
+
+        fromRows(file, (row) -> row)
+                .forEach((given) -> given
+                        .when((row) -> {
+                            count.incrementAndGet();
+                            return Integer.parseInt(row.get("a")) + Integer.parseInt(row.get("b"))
+                                    == Integer.parseInt(row.get("sum"));
+                        })
+                        .then(isTrue()));
+
+        assertEquals(3, count.get());
+    }
+
+    @Test
+    void testCsvQuotedFields() throws IOException {
+
+        final Path file = write("rows.csv",
+                "name,quote",
+                "\"Sparky, 1983\",\"She said \"\"hi\"\"\nand left\"",
+                "last,row");
+        final Queue<Row> rows = new ConcurrentLinkedQueue<>();
+
+        fromRows(file, (row) -> row)
+                .forEach((given) -> given.noop().then((row) -> rows.add(row.get())));
+
+        final Row first = rows.poll();
+        assertEquals("Sparky, 1983", first.get("name"));
+        assertEquals("She said \"hi\"\nand left", first.get(1));
+        assertEquals(2, first.getLineNumber());
+        assertEquals(4, rows.poll().getLineNumber());
+    }
+
+    @Test
+    void testJsonLines() throws IOException {
+
+        final Path file = write("rows.jsonl", "{\"a\":1}", "", "{\"a\":2}");
+        final Queue<String> lines = new ConcurrentLinkedQueue<>();
+
+        fromRows(file, (row) -> row.get("line"))
+                .forEach((given) -> given.noop().then((line) -> lines.add(line.get())));
+
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"a\":2}"), Arrays.asList(lines.toArray()));
+    }
+
+    @Test
+    void testFailuresAreAggregated() throws IOException {
+
+        final Path file = write("rows.csv", "value", "1", "2", "3", "4");
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                fromRows(file, (row) -> Integer.parseInt(row.get("value")))
+                        .forEach((given) -> given
+                                .when((value) -> value % 2)
+                                .then(isEqualTo(0))));
+
+        assertTrue(error.getMessage().contains("found 2 failed of 4 run"));
+        assertTrue(error.getMessage().contains("line 2:"));
+        assertTrue(error.getMessage().contains("line 4:"));
+        assertEquals(1, error.getSuppressed().length);
+    }
+
+    @Test
+    void testFailuresAreBounded() throws IOException {
+
+        final String[] lines = new String[1001];
+        lines[0] = "value";
+        for (int i = 1; i < lines.length; i++) {
+            lines[i] = String.valueOf(i);
+        }
+        final Path file = write("rows.csv", lines);
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                fromRows(file, (row) -> Integer.parseInt(row.get("value")))
+                        .parallelism(4)
+                        .forEach((given) -> given
+                                .noop()
+                                .then(isEqualTo(-1))));
+
+        assertTrue(error.getMessage().contains("found 1000 failed of 1000 run"));
+        assertTrue(error.getMessage().contains("\n    line 2:"));
+        assertTrue(error.getMessage().contains("\n    line 11:"));
+        assertTrue(!error.getMessage().contains("\n    line 12:"));
+        assertTrue(error.getMessage().endsWith("\n    ... and 990 more"));
+        assertEquals(9, error.getSuppressed().length);
+    }
+
+    @Test
+    void testStopAfterFailures() throws IOException {
+
+        final String[] lines = new String[1001];
+        lines[0] = "value";
+        for (int i = 1; i < lines.length; i++) {
+            lines[i] = String.valueOf(i);
+        }
+        final Path file = write("rows.csv", lines);
+        final AtomicInteger count = new AtomicInteger();
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                fromRows(file, (row) -> row)
+                        .batchSize(1)
+                        .stopAfterFailures(3)
+                        .forEach((given) -> given
+                                .when((row) -> count.incrementAndGet())
+                                .then(isEqualTo(-1))));
+
+        assertEquals(3, count.get());
+        assertTrue(error.getMessage().contains("stopped after 3 failures"));
+    }
+
+    @Test
+    void testParallelism() throws IOException {
+
+        final String[] lines = new String[10001];
+        lines[0] = "value";
+        for (int i = 1; i < lines.length; i++) {
+            lines[i] = String.valueOf(i);
+        }
+        final Path file = write("rows.csv", lines);
+        final AtomicInteger sum = new AtomicInteger();
+
+        fromRows(file, (row) -> Integer.parseInt(row.get(0)))
+                .batchSize(64)
+                .parallelism(4)
+                .forEach((given) -> given
+                        .when((value) -> sum.addAndGet(value) > 0)
+                        .then(isTrue()));
+
+        assertEquals(10000 * 10001 / 2, sum.get());
+    }
+
+    @Test
+    void testMalformedFile() throws IOException {
+
+        final Path file = write("rows.csv", "value", "\"unterminated");
+
+        assertThrows(UncheckedIOException.class, () ->
+                fromRows(file, (row) -> row).forEach((given) -> {}));
+    }
+
+    private static Path write(final String name, final String... lines) throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-rows").resolve(name);
+        final List<String> content = Arrays.asList(lines);
+        Files.write(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,149 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.sparky983.spark.Assertion.isDeeplyEqualTo;
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GivenSnapshotTest {
+
+    @Test
+    void testSnapshotWhenCopierNull() {
+
+        given(given(new Object()))
+                .when((given) -> given.snapshot(null))
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testEachAssertionGetsACopy() {
+
+        final List<Integer> list = new ArrayList<>(Arrays.asList(1, 2));
+        final Given<List<Integer>> given = given(list).snapshot();
+        list.add(3);
+
+        given.when((copy) -> {
+                    copy.add(4);
+                    return copy;
+                })
+                .then(isEqualTo(Arrays.asList(1, 2, 4)))
+                .and(isEqualTo(Arrays.asList(1, 2, 4)));
+        given.noop()
+                .then(isEqualTo(Arrays.asList(1, 2)));
+    }
+
+    @Test
+    void testCopierIsCalledOncePerAssertion() {
+
+        final AtomicInteger copies = new AtomicInteger();
+        final Given<String> given = given("given").snapshot((original) -> {
+            copies.incrementAndGet();
+            return original;
+        });
+
+        given.noop()
+                .then(isEqualTo("given"))
+                .and(isEqualTo("given"));
+        assertEquals(3, copies.get());
+    }
+
+    @Test
+    void testDeepCopy() {
+
+        final Library library = new Library();
+        library.books.add(new Book("Dune", LocalDate.of(1965, 8, 1)));
+        library.loans.put("Sparky", new ArrayList<>(Collections.singletonList("Dune")));
+        library.shelves = new Object[] {new int[] {1, 2}, library.books};
+        library.self = library;
+        library.titles.add("Dune");
+
+        final Library copy = Copier.<Library>deep().copy(library);
+
+        given(copy).noop().then(isDeeplyEqualTo(library));
+        assertNotSame(library, copy);
+        assertNotSame(library.books, copy.books);
+        assertNotSame(library.loans.get("Sparky"), copy.loans.get("Sparky"));
+        assertNotSame(library.shelves[0], copy.shelves[0]);
+        assertNotSame(library.titles, copy.titles);
+        assertSame(copy.books, copy.shelves[1]);
+        assertSame(copy, copy.self);
+        // immutable objects are shared
+        assertSame(library.books.get(0), copy.books.get(0));
+    }
+
+    @Test
+    void testSharedTypes() {
+
+        final Library library = new Library();
+
+        final Library copy = Copier.<Library>deep(Library.class).copy(library);
+
+        assertSame(library, copy);
+    }
+
+    @Test
+    void testDeepGraph() {
+
+        Node head = null;
+        for (int i = 0; i < 100_000; i++) {
+            head = new Node(i, head);
+        }
+
+        final Node copy = Copier.<Node>deep().copy(head);
+
+        int length = 0;
+        for (Node node = copy; node != null; node = node.next) {
+            length++;
+        }
+        assertEquals(100_000, length);
+        assertNotSame(head.next, copy.next);
+    }
+
+    static final class Book {
+
+        private final String title;
+        private final LocalDate published;
+
+        Book(final String title, final LocalDate published) {
+
+            this.title = title;
+            this.published = published;
+        }
+    }
+
+    static final class Library {
+
+        private final List<Book> books = new ArrayList<>();
+        private final Map<String, List<String>> loans = new HashMap<>();
+        private final TreeSet<String> titles = new TreeSet<>(Collections.reverseOrder());
+        private Object[] shelves;
+        private Library self;
+    }
+
+    static final class Node {
+
+        private final int value;
+        private Node next;
+
+        Node(final int value, final Node next) {
+
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.sparky983.spark.Assertion.doesNotThrow;
+import static me.sparky983.spark.Assertion.hasProperties;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Property.property;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HasPropertiesTest {
+
+    @Test
+    void testHasPropertiesWhenPropertiesNull() {
+
+        given((Property<Object>[]) null)
+                .when(Assertion::hasProperties)
+                .then(throwsException(NullPointerException.class));
+
+        given((Property<Object>) null)
+                .when(Assertion::hasProperties)
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testPropertyWhenArgumentsInvalid() {
+
+        given((String) null)
+                .when((name) -> property(name, "value"))
+                .then(throwsException(NullPointerException.class));
+
+        given("")
+                .when((name) -> property(name, "value"))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testHasProperties() {
+
+        given(hasProperties(property(Person::getName, "Sparky"), property("age", 18)))
+                .whenDo((hasProperties) -> hasProperties.doAssertion(() -> new Person("Sparky", 18)))
+                .then(doesNotThrow());
+
+        given(hasProperties(property("name", "Sparky"), property("adult", true)))
+                .whenDo((hasProperties) -> hasProperties.doAssertion(() -> new Person("Sparky", 18)))
+                .then(doesNotThrow());
+
+        given(hasProperties(property("name", "Sparky")))
+                .whenDo((hasProperties) -> hasProperties.doAssertion(() -> new Hidden("Sparky")))
+                .then(doesNotThrow());
+
+        given(hasProperties(property("size", 2), property("empty", false)))
+                .whenDo((hasProperties) -> hasProperties.doAssertion(() ->
+                        Collections.unmodifiableList(Arrays.asList("a", "b"))))
+                .then(doesNotThrow());
+
+        given(hasProperties(property("age", 18)))
+                .whenDo((hasProperties) -> hasProperties.doAssertion(() -> new Person("Sparky", 17)))
+                .then(throwsException(AssertionError.class));
+
+        given(hasProperties(property("unknown", null)))
+                .whenDo((hasProperties) -> hasProperties.doAssertion(() -> new Person("Sparky", 18)))
+                .then(throwsException(AssertionError.class));
+
+        given(hasProperties(property("name", null)))
+                .whenDo((hasProperties) -> hasProperties.doAssertion(() -> null))
+                .then(throwsException(AssertionError.class));
+    }
+
+    @Test
+    void testHasPropertiesReportsEveryMismatch() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                hasProperties(property(Person::getName, "Sparky"),
+                        property("age", 18),
+                        property("name", "Sparky"))
+                        .doAssertion(() -> new Person("Sparky983", 17)));
+        assertEquals("Expected all properties of <Sparky983> to match, 3 did not:\n"
+                + "    property 0: expected <Sparky>, found <Sparky983>\n"
+                + "    age: expected <18>, found <17>\n"
+                + "    name: expected <Sparky>, found <Sparky983>", error.getMessage());
+    }
+
+    @Test
+    void testHasPropertiesSuppliesResultOnce() {
+
+        final AtomicInteger supplied = new AtomicInteger();
+        hasProperties(property("name", "Sparky"), property("age", 18), property("adult", true))
+                .doAssertion(() -> {
+                    supplied.incrementAndGet();
+                    return new Person("Sparky", 18);
+                });
+
+        assertEquals(1, supplied.get());
+    }
+
+    public static final class Person {
+
+        private final String name;
+        private final int age;
+
+        Person(final String name, final int age) {
+
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public int age() {
+
+            return age;
+        }
+
+        public boolean isAdult() {
+
+            return age >= 18;
+        }
+
+        @Override
+        public String toString() {
+
+            return name;
+        }
+    }
+
+    private static final class Hidden {
+
+        private final String name;
+
+        private Hidden(final String name) {
+
+            this.name = name;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImpactCacheTest {
+
+    @Test
+    void testUnchangedPassesAreSkipped() throws IOException {
+
+        final Path directory = Files.createTempDirectory("spark-impact");
+        final AtomicInteger runs = new AtomicInteger();
+        final Function<Integer, Integer> when = (given) -> given * 2;
+
+        new ImpactCache(directory).perform("scenario", 2, when, isEqualTo(4),
+                runs::incrementAndGet);
+        assertEquals(1, runs.get());
+
+        // the next run
+        final ImpactCache cache = new ImpactCache(directory);
+        cache.perform("scenario", 2, when, isEqualTo(4), runs::incrementAndGet);
+        assertEquals(1, runs.get());
+        cache.perform("scenario", 3, when, isEqualTo(4), runs::incrementAndGet);
+        assertEquals(2, runs.get());
+        cache.perform("scenario", 2, when, isEqualTo(5), runs::incrementAndGet);
+        assertEquals(3, runs.get());
+        cache.perform("other", 2, when, isEqualTo(4), runs::incrementAndGet);
+        assertEquals(4, runs.get());
+    }
+
+    @Test
+    void testSkippedAssertionsAreReportedAsCached() throws IOException {
+
+        final Path directory = Files.createTempDirectory("spark-impact");
+        final List<String> cached = new ArrayList<>();
+        final Instrumentation instrumentation = new Instrumentation() {
+            @Override
+            public void assertionPerformed(final String assertion,
+                                           final boolean passed,
+                                           final long whenNanos,
+                                           final long assertionNanos,
+                                           final long allocatedBytes) {
+
+            }
+
+            @Override
+            public void assertionCached(final String assertion) {
+
+                cached.add(assertion);
+            }
+        };
+
+        Instrumentation.register(instrumentation);
+        try {
+            new ImpactCache(directory).perform("scenario", 2, Function.identity(), isEqualTo(2),
+                    () -> {});
+            assertEquals(0, cached.size());
+            new ImpactCache(directory).perform("scenario", 2, Function.identity(), isEqualTo(2),
+                    () -> {});
+        } finally {
+            Instrumentation.unregister(instrumentation);
+        }
+
+        assertEquals(Arrays.asList("isEqualTo"), cached);
+    }
+
+    @Test
+    void testFailuresAreNotCached() throws IOException {
+
+        final Path directory = Files.createTempDirectory("spark-impact");
+        final AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(AssertionError.class, () -> new ImpactCache(directory)
+                    .perform("scenario", 1, Function.identity(), isEqualTo(2), () -> {
+                        runs.incrementAndGet();
+                        throw new AssertionError();
+                    }));
+        }
+
+        assertEquals(2, runs.get());
+        try (Stream<Path> entries = Files.list(directory)) {
+            assertEquals(0, entries.count());
+        }
+    }
+
+    @Test
+    void testParallelAssertions() throws Exception {
+
+        final Path directory = Files.createTempDirectory("spark-impact");
+        final ImpactCache cache = new ImpactCache(directory);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                final int given = i % 4;
+                futures.add(executor.submit(() -> cache.perform("scenario", given,
+                        Function.identity(), isEqualTo(given), () -> {})));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Stream<Path> entries = Files.list(directory)) {
+            assertEquals(4, entries.count());
+        }
+    }
+
+    @Test
+    void testScenarioOfWrappingFixtures() {
+
+        final List<String> scenarios = new ArrayList<>();
+
+        Given.withSpy(Runnable.class, () -> {})
+                .noop()
+                .then(recordsScenario(scenarios));
+        Given.sized((n) -> n, 1, 2, 3)
+                .noop()
+                .then(recordsScenario(scenarios));
+
+        assertEquals(2, scenarios.size());
+        for (final String location : scenarios) {
+            assertTrue(location.startsWith(
+                    "me.sparky983.spark.ImpactCacheTest#testScenarioOfWrappingFixtures:"));
+        }
+    }
+
+    @Test
+    void testFingerprint() {
+
+        final Node cycle = new Node(1);
+        cycle.next = cycle;
+        final Node otherCycle = new Node(1);
+        otherCycle.next = otherCycle;
+
+        assertEquals(ImpactCache.fingerprint(Arrays.asList(1, 2), new int[] {3}),
+                ImpactCache.fingerprint(Arrays.asList(1, 2), new int[] {3}));
+        assertNotEquals(ImpactCache.fingerprint(Arrays.asList(1, 2)),
+                ImpactCache.fingerprint(Arrays.asList(1, 3)));
+        assertEquals(ImpactCache.fingerprint(cycle), ImpactCache.fingerprint(otherCycle));
+        assertNotEquals(ImpactCache.fingerprint(cycle), ImpactCache.fingerprint(new Node(1)));
+        assertEquals(ImpactCache.fingerprint(isEqualTo("a")),
+                ImpactCache.fingerprint(isEqualTo("a")));
+        assertNotEquals(ImpactCache.fingerprint(isEqualTo("a")),
+                ImpactCache.fingerprint(isEqualTo("b")));
+    }
+
+    @Test
+    void testLambdasAreHashedAsTheirDeclaringClass() {
+
+        final Runnable lambda = () -> {};
+
+        assertEquals(ClassDependencies.hashOf(ImpactCacheTest.class),
+                ClassDependencies.hashOf(lambda.getClass()));
+        assertEquals("me.sparky983.spark.ImpactCacheTest$$Lambda",
+                ClassDependencies.stableName(lambda.getClass()));
+    }
+
+    private static <T> Assertion<T> recordsScenario(final List<String> scenarios) {
+
+        // the scenario that Fixture.perform passes to the impact cache
+        return (resultSupplier) ->
+                scenarios.add(Callers.callSiteOf(Fixture.class, When.class, Then.class));
+    }
+
+    static final class Node {
+
+        private final int value;
+        private Node next;
+
+        Node(final int value) {
+
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+import static me.sparky983.spark.Assertion.instanceGrowthAtMost;
+import static me.sparky983.spark.Assertion.instancesOf;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InstancesOfTest {
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        givenNull(Class.class)
+                .when((type) -> instancesOf(type, (n) -> true))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(LongPredicate.class)
+                .when((predicate) -> instancesOf(Node.class, predicate))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(Class.class)
+                .when((type) -> instanceGrowthAtMost(type, 0))
+                .then(throwsException(NullPointerException.class));
+
+        given(-1L)
+                .when((maximum) -> instanceGrowthAtMost(Node.class, maximum))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testInstancesOf() {
+
+        given(new ArrayList<Node>())
+                .when((nodes) -> {
+                    for (int i = 0; i < 10; i++) {
+                        nodes.add(new Node());
+                    }
+                    return nodes;
+                })
+                .then(instancesOf(Node.class, (n) -> n == 10));
+
+        given(new ArrayList<byte[]>())
+                .when((arrays) -> arrays.add(new byte[16]))
+                .then(instancesOf(byte[].class, (n) -> n >= 1));
+    }
+
+    @Test
+    void testInstancesOfWhenNotMatched() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(new ArrayList<Node>())
+                        .when((nodes) -> nodes.add(new Node()))
+                        .then(instancesOf(Node.class, (n) -> n == 0)));
+
+        assertEquals("Change in the number of instances of <" + Node.class.getName()
+                + "> (<1>) did not match the given predicate", error.getMessage());
+    }
+
+    @Test
+    void testInstanceGrowthAtMost() {
+
+        final ReusingCache cache = new ReusingCache();
+        cache.get("key");
+
+        given(cache)
+                .when((c) -> c.get("key"))
+                .then(instanceGrowthAtMost(Node.class, 0));
+    }
+
+    @Test
+    void testInstanceGrowthAtMostWhenExceeded() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(new CopyingCache())
+                        .when((c) -> c.get("key"))
+                        .then(instanceGrowthAtMost(Node.class, 0)));
+
+        assertEquals("Expected at most <0> new instances of <" + Node.class.getName()
+                + ">, found <1>", error.getMessage());
+    }
+
+    private static final class Node {
+
+    }
+
+    private static final class ReusingCache {
+
+        private final Map<String, Node> nodes = new HashMap<>();
+
+        Node get(final String key) {
+
+            return nodes.computeIfAbsent(key, (k) -> new Node());
+        }
+    }
+
+    private static final class CopyingCache {
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        Node get(final String key) {
+
+            final Node node = new Node();
+            nodes.add(node);
+            return node;
+        }
+    }
+}
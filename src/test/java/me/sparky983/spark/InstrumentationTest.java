@@ -0,0 +1,117 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Assertion.startsWith;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstrumentationTest {
+
+    @Test
+    void testRegisterWhenInstrumentationNull() {
+
+        given((Instrumentation) null)
+                .whenDo(Instrumentation::register)
+                .then(throwsException(NullPointerException.class));
+
+        given((Instrumentation) null)
+                .whenDo(Instrumentation::unregister)
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testAssertionPerformed() {
+
+        final List<String> performed = new ArrayList<>();
+        final Instrumentation instrumentation =
+                (assertion, passed, whenNanos, assertionNanos, allocatedBytes) ->
+                        performed.add(assertion + ":" + passed);
+
+        Instrumentation.register(instrumentation);
+        try {
+            given("a string")
+                    .noop()
+                    .then(isEqualTo("a string"))
+                    .and(startsWith("a"));
+            assertThrows(AssertionError.class, () ->
+                    given("a string")
+                            .noop()
+                            .then(isEqualTo("a different string")));
+        } finally {
+            Instrumentation.unregister(instrumentation);
+        }
+
+        given(performed)
+                .noop()
+                .then(isEqualTo(List::size, 3))
+                .and(isEqualTo((List<String> list) -> list.get(0), "isEqualTo:true"))
+                .and(isEqualTo((List<String> list) -> list.get(1), "startsWith:true"))
+                .and(isEqualTo((List<String> list) -> list.get(2), "isEqualTo:false"));
+    }
+
+    @Test
+    void testLambdaAssertionsAreToldApart() {
+
+        final List<String> performed = new ArrayList<>();
+        final Instrumentation instrumentation =
+                (assertion, passed, whenNanos, assertionNanos, allocatedBytes) ->
+                        performed.add(assertion);
+
+        Instrumentation.register(instrumentation);
+        try {
+            given("a string")
+                    .noop()
+                    .then((when) -> {})
+                    .and((when) -> {});
+        } finally {
+            Instrumentation.unregister(instrumentation);
+        }
+
+        assertEquals(2, performed.size());
+        final String prefix = InstrumentationTest.class.getName() + "$$Lambda@"
+                + InstrumentationTest.class.getName() + "#testLambdaAssertionsAreToldApart:";
+        assertTrue(performed.get(0).startsWith(prefix));
+        assertTrue(performed.get(1).startsWith(prefix));
+        assertNotEquals(performed.get(0), performed.get(1));
+    }
+
+    @Test
+    void testMetricsRecorderWrite() throws IOException {
+
+        final MetricsRecorder recorder = new MetricsRecorder();
+        recorder.assertionPerformed("isEqualTo", true, 10, 20, 30);
+        recorder.assertionPerformed("isEqualTo", false, 1, 2, 3);
+        recorder.assertionPerformed("contains", true, 100, 200, -1);
+        recorder.assertionCached("contains");
+
+        final Path directory = Files.createTempDirectory("spark-metrics");
+        final Path csv = directory.resolve("metrics.csv");
+        final Path json = directory.resolve("metrics.json");
+        recorder.write(csv);
+        recorder.write(json);
+
+        final List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals("assertion,invocations,passed,failed,cached,whenNanos,assertionNanos,"
+                + "allocatedBytes", lines.get(0));
+        assertEquals("\"contains\",2,1,0,1,100,200,0", lines.get(1));
+        assertEquals("\"isEqualTo\",2,1,1,0,11,22,33", lines.get(2));
+
+        final String contents = new String(Files.readAllBytes(json), StandardCharsets.UTF_8);
+        assertTrue(contents.contains("{\"assertion\": \"isEqualTo\", \"invocations\": 2, "
+                + "\"passed\": 1, \"failed\": 1, \"cached\": 0, \"whenNanos\": 11, "
+                + "\"assertionNanos\": 22, \"allocatedBytes\": 33}"));
+    }
+}
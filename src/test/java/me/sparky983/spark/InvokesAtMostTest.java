@@ -0,0 +1,184 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static me.sparky983.spark.Assertion.contains;
+import static me.sparky983.spark.Assertion.invokesAtMost;
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static me.sparky983.spark.Given.withSpy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InvokesAtMostTest {
+
+    private static final Repository REPOSITORY = new Repository() {
+        @Override
+        public List<Long> findIds() {
+
+            return Arrays.asList(1L, 2L, 3L);
+        }
+
+        @Override
+        public String findById(final long id) {
+
+            return "order-" + id;
+        }
+
+        @Override
+        public List<String> findAll(final List<Long> ids) {
+
+            final List<String> orders = new ArrayList<>();
+            for (final long id : ids) {
+                orders.add(findById(id));
+            }
+            return orders;
+        }
+
+        @Override
+        public void save(final String key, final String value) {
+
+        }
+    };
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        givenNull(Class.class)
+                .when((type) -> withSpy(type, REPOSITORY))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(Repository.class)
+                .when((delegate) -> withSpy(Repository.class, delegate))
+                .then(throwsException(NullPointerException.class));
+
+        given(new Object())
+                .when((delegate) -> withSpy(Object.class, delegate))
+                .then(throwsException(IllegalArgumentException.class));
+
+        givenNull(SpyMethod.OneArg.class)
+                .when((method) -> invokesAtMost((SpyMethod.OneArg<?, ?>) method, 1))
+                .then(throwsException(NullPointerException.class));
+
+        given(-1L)
+                .when((maximum) -> invokesAtMost(Repository::findById, maximum))
+                .then(throwsException(IllegalArgumentException.class));
+
+        givenNull(Method.class)
+                .when((method) -> invokesAtMost(method, 1))
+                .then(throwsException(NullPointerException.class));
+
+        given((SpyMethod.OneArg<Repository, Long>) (repository, id) -> repository.findById(id))
+                .when((method) -> invokesAtMost(method, 1))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testInvokesAtMost() {
+
+        withSpy(Repository.class, REPOSITORY)
+                .when((repository) -> repository.findAll(repository.findIds()))
+                .then(contains("order-1", "order-2", "order-3"))
+                .and(invokesAtMost(Repository::findIds, 1))
+                .and(invokesAtMost(Repository::findAll, 1))
+                .and(invokesAtMost(Repository::findById, 0))
+                .and(invokesAtMost(Repository::save, 0));
+    }
+
+    @Test
+    void testInvokesAtMostWhenExceeded() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                withSpy(Repository.class, REPOSITORY)
+                        .when(InvokesAtMostTest::findAllOneByOne)
+                        .then(invokesAtMost(Repository::findById, 1)));
+
+        assertEquals("Expected at most <1> invocations of <Repository.findById>, found <3>",
+                error.getMessage());
+    }
+
+    @Test
+    void testInvokesAtMostWhenOverloaded() throws NoSuchMethodException {
+
+        final Catalog catalog = new Catalog() {
+            @Override
+            public String find(final long id) {
+
+                return find(id, 1);
+            }
+
+            @Override
+            public String find(final long id, final int version) {
+
+                return id + "@" + version;
+            }
+        };
+        final Method find = Catalog.class.getMethod("find", long.class);
+        final Method findVersion = Catalog.class.getMethod("find", long.class, int.class);
+
+        withSpy(Catalog.class, catalog)
+                .when((spied) -> spied.find(1))
+                .then(isEqualTo("1@1"))
+                .and(invokesAtMost(find, 1))
+                .and(invokesAtMost(findVersion, 0));
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                withSpy(Catalog.class, catalog)
+                        .when((spied) -> spied.find(1, 2) + spied.find(1, 3))
+                        .then(invokesAtMost(findVersion, 1)));
+
+        assertEquals("Expected at most <1> invocations of <Catalog.find>, found <2>",
+                error.getMessage());
+    }
+
+    @Test
+    void testInvokesAtMostWhenNotSpied() {
+
+        assertThrows(IllegalStateException.class, () ->
+                given(REPOSITORY)
+                        .when(Repository::findIds)
+                        .then(invokesAtMost(Repository::findIds, 1)));
+    }
+
+    @Test
+    void testSpyDelegates() {
+
+        withSpy(Repository.class, REPOSITORY)
+                .when((repository) -> repository.findById(1))
+                .then(isEqualTo("order-1"));
+    }
+
+    private static List<String> findAllOneByOne(final Repository repository) {
+
+        final List<String> orders = new ArrayList<>();
+        for (final long id : repository.findIds()) {
+            orders.add(repository.findById(id));
+        }
+        return orders;
+    }
+
+    interface Repository {
+
+        List<Long> findIds();
+
+        String findById(long id);
+
+        List<String> findAll(List<Long> ids);
+
+        void save(String key, String value);
+    }
+
+    interface Catalog {
+
+        String find(long id);
+
+        String find(long id, int version);
+    }
+}
@@ -0,0 +1,271 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static me.sparky983.spark.Assertion.doesNotThrow;
+import static me.sparky983.spark.Assertion.isDeeplyEqualTo;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IsDeeplyEqualToTest {
+
+    @Test
+    void testIsDeeplyEqualToWhenIgnoredFieldsNull() {
+
+        given((String[]) null)
+                .when((ignoredFields) -> isDeeplyEqualTo(new Object(), ignoredFields))
+                .then(throwsException(NullPointerException.class));
+
+        given(new String[] {null})
+                .when((ignoredFields) -> isDeeplyEqualTo(new Object(), ignoredFields))
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testIsDeeplyEqualTo() {
+
+        given(isDeeplyEqualTo(new Person("Sparky", new Address("Street", 1))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Person("Sparky", new Address("Street", 1))))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(new Person("Sparky", new Address("Street", 1))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Person("Sparky", new Address("Road", 1))))
+                .then(throwsException(AssertionError.class));
+
+        given(isDeeplyEqualTo(new Person("Sparky", null)))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Person("Sparky", new Address("Street", 1))))
+                .then(throwsException(AssertionError.class));
+
+        given(isDeeplyEqualTo(null))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() -> null))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(Arrays.asList(new Address("Street", 1), new int[] {1, 2})))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        Arrays.asList(new Address("Street", 1), new int[] {1, 2})))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(Collections.singletonMap("key", new Address("Street", 1))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new HashMap<>(Collections.singletonMap("key", new Address("Street", 2)))))
+                .then(throwsException(AssertionError.class));
+    }
+
+    @Test
+    void testIsDeeplyEqualToReportsPath() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                isDeeplyEqualTo(new Person("Sparky", new Address("Street", 1)))
+                        .doAssertion(() -> new Person("Sparky", new Address("Street", 2))));
+        assertEquals("Expected result to be deeply equal, but result.address.number: "
+                + "expected <1>, found <2>", error.getMessage());
+
+        final Map<String, int[]> expected = Collections.singletonMap("key", new int[] {1, 2, 3});
+        final AssertionError arrayError = assertThrows(AssertionError.class, () ->
+                isDeeplyEqualTo(expected)
+                        .doAssertion(() -> Collections.singletonMap("key", new int[] {1, 2, 4})));
+        assertEquals("Expected result to be deeply equal, but result[key][2]: "
+                + "expected <3>, found <4>", arrayError.getMessage());
+    }
+
+    @Test
+    void testIsDeeplyEqualToWhenStructural() {
+
+        given(isDeeplyEqualTo(new HashSet<>(Arrays.asList(
+                new Address("Street", 1), new Address("Road", 2)))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new HashSet<>(Arrays.asList(
+                                new Address("Road", 2), new Address("Street", 1)))))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(Collections.singleton(new Address("Street", 1))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        Collections.singleton(new Address("Street", 2))))
+                .then(throwsException(AssertionError.class));
+
+        given(isDeeplyEqualTo(Optional.of(new Address("Street", 1))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        Optional.of(new Address("Street", 1))))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(Optional.of(new Address("Street", 1))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(Optional::empty))
+                .then(throwsException(AssertionError.class));
+
+        given(isDeeplyEqualTo(Collections.singletonMap(new Address("Street", 1), "value")))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        Collections.singletonMap(new Address("Street", 1), "value")))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(Collections.singletonMap(new Address("Street", 1), "value")))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        Collections.singletonMap(new Address("Street", 1), "other")))
+                .then(throwsException(AssertionError.class));
+    }
+
+    @Test
+    void testIsDeeplyEqualToReportsOptionalPath() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                isDeeplyEqualTo(Optional.of(new Address("Street", 1)))
+                        .doAssertion(() -> Optional.of(new Address("Street", 2))));
+        assertEquals("Expected result to be deeply equal, but result.get().number: "
+                + "expected <1>, found <2>", error.getMessage());
+    }
+
+    @Test
+    void testIsDeeplyEqualToWhenEqualsNotOverridden() {
+
+        given(isDeeplyEqualTo(new Counter(1, "a", new Address("Street", 1))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Counter(1, "a", new Address("Street", 1))))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(Collections.singleton(new Counter(1, "a", null))))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        Collections.singleton(new Counter(1, "a", null))))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(new Counter(1, "a", null)))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Counter(1, "b", null)))
+                .then(throwsException(AssertionError.class));
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                isDeeplyEqualTo(new Counter(1, "a", new Address("Street", 1)))
+                        .doAssertion(() -> new Counter(2, "a", new Address("Street", 1))));
+        assertEquals("Expected result to be deeply equal, but result.count: "
+                + "expected <1>, found <2>", error.getMessage());
+
+        final AssertionError referenceError = assertThrows(AssertionError.class, () ->
+                isDeeplyEqualTo(new Counter(1, "a", new Address("Street", 1)))
+                        .doAssertion(() -> new Counter(1, "a", new Address("Street", 2))));
+        assertEquals("Expected result to be deeply equal, but result.last.get().number: "
+                + "expected <1>, found <2>", referenceError.getMessage());
+    }
+
+    @Test
+    void testIsDeeplyEqualToWhenFieldsIgnored() {
+
+        given(isDeeplyEqualTo(new Person("Sparky", new Address("Street", 1)), "number"))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Person("Sparky", new Address("Street", 2))))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(new Person("Sparky", new Address("Street", 1)), "address.number"))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Person("Sparky", new Address("Street", 2))))
+                .then(doesNotThrow());
+
+        given(isDeeplyEqualTo(new Person("Sparky", new Address("Street", 1)), "name"))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        new Person("Sparky", new Address("Street", 2))))
+                .then(throwsException(AssertionError.class));
+
+        given(isDeeplyEqualTo(Collections.singleton(new Address("Street", 1)), "number"))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() ->
+                        Collections.singleton(new Address("Street", 2))))
+                .then(doesNotThrow());
+    }
+
+    @Test
+    void testIsDeeplyEqualToWhenCyclic() {
+
+        final Node expected = new Node(1);
+        expected.next = new Node(2);
+        expected.next.next = expected;
+        final Node actual = new Node(1);
+        actual.next = new Node(2);
+        actual.next.next = actual;
+
+        given(isDeeplyEqualTo(expected))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() -> actual))
+                .then(doesNotThrow());
+    }
+
+    @Test
+    void testIsDeeplyEqualToWhenDeep() {
+
+        final Node expected = new Node(0);
+        final Node actual = new Node(0);
+        Node expectedTail = expected;
+        Node actualTail = actual;
+        for (int i = 1; i < 1_000_000; i++) {
+            expectedTail = expectedTail.next = new Node(i);
+            actualTail = actualTail.next = new Node(i);
+        }
+
+        given(isDeeplyEqualTo(expected))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() -> actual))
+                .then(doesNotThrow());
+
+        actualTail.value = -1;
+        given(isDeeplyEqualTo(expected))
+                .whenDo((isDeeplyEqualTo) -> isDeeplyEqualTo.doAssertion(() -> actual))
+                .then(throwsException(AssertionError.class));
+    }
+
+    private static final class Person {
+
+        private final String name;
+        private final Address address;
+
+        private Person(final String name, final Address address) {
+
+            this.name = name;
+            this.address = address;
+        }
+    }
+
+    private static final class Address {
+
+        private final String street;
+        private final int number;
+
+        private Address(final String street, final int number) {
+
+            this.street = street;
+            this.number = number;
+        }
+    }
+
+    private static final class Counter {
+
+        private final AtomicInteger count;
+        private final StringBuilder log;
+        private final AtomicReference<Address> last;
+
+        private Counter(final int count, final String log, final Address last) {
+
+            // a larger capacity, which must not be compared
+            this.log = new StringBuilder(count * 16).append(log);
+            this.count = new AtomicInteger(count);
+            this.last = new AtomicReference<>(last);
+        }
+    }
+
+    private static final class Node {
+
+        private int value;
+        private Node next;
+
+        private Node(final int value) {
+
+            this.value = value;
+        }
+    }
+}
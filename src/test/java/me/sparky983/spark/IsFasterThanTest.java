@@ -0,0 +1,72 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static me.sparky983.spark.Assertion.isFasterThan;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IsFasterThanTest {
+
+    @Test
+    void testIsFasterThanWhenArgumentsInvalid() {
+
+        givenNull(Supplier.class)
+                .when((alternative) -> isFasterThan(alternative, 0.99))
+                .then(throwsException(NullPointerException.class));
+
+        given(0.0)
+                .when((confidence) -> isFasterThan(() -> null, confidence))
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(1.0)
+                .when((confidence) -> isFasterThan(() -> null, confidence))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testIsFasterThan() {
+
+        given(100)
+                .when(IsFasterThanTest::sum)
+                .then(isFasterThan(() -> sum(100_000), 0.99));
+    }
+
+    @Test
+    void testIsFasterThanWhenSlower() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(100_000)
+                        .when(IsFasterThanTest::sum)
+                        .then(isFasterThan(() -> sum(100), 0.99)));
+
+        assertTrue(error.getMessage().contains("found a speedup of"));
+    }
+
+    @Test
+    void testMannWhitneyTest() {
+
+        final double[] fast = {1, 2, 3, 4, 5, 6, 7, 8};
+        final double[] slow = {11, 12, 13, 14, 15, 16, 17, 18};
+
+        assertTrue(Statistics.mannWhitneyTest(fast, slow) < 0.001);
+        assertTrue(Statistics.mannWhitneyTest(slow, fast) > 0.999);
+
+        final double[] interval = Statistics.bootstrapMedianRatio(slow, fast, 0.95);
+        assertTrue(interval[0] > 1 && interval[0] <= interval[1]);
+    }
+
+    private static long sum(final int count) {
+
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += i * (long) i;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,133 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static me.sparky983.spark.Assertion.doesNotThrow;
+import static me.sparky983.spark.Assertion.isNotSlowerThanBaseline;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IsNotSlowerThanBaselineTest {
+
+    @Test
+    void testIsNotSlowerThanBaselineWhenArgumentsInvalid() {
+
+        givenNull(String.class)
+                .when((key) -> isNotSlowerThanBaseline(key, 0.1))
+                .then(throwsException(NullPointerException.class));
+
+        given(-0.1)
+                .when((tolerance) -> isNotSlowerThanBaseline("key", tolerance))
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(Double.NaN)
+                .when((tolerance) -> isNotSlowerThanBaseline("key", tolerance))
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(Double.POSITIVE_INFINITY)
+                .when((tolerance) -> isNotSlowerThanBaseline("key", tolerance))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testIsNotSlowerThanBaseline() throws IOException {
+
+        final Path directory = Files.createTempDirectory("spark-baselines");
+        System.setProperty("spark.baseline.dir", directory.toString());
+        System.setProperty("spark.baseline.ci", "false");
+        try {
+            given(isNotSlowerThanBaseline("sum", 1))
+                    .whenDo((assertion) -> assertion.doAssertion(() -> sum(1000)))
+                    .then(doesNotThrow())
+                    .and(doesNotThrow());
+
+            System.setProperty("spark.baseline.ci", "true");
+            given(isNotSlowerThanBaseline("missing", 1))
+                    .whenDo((assertion) -> assertion.doAssertion(() -> sum(1000)))
+                    .then(throwsException(AssertionError.class));
+        } finally {
+            System.clearProperty("spark.baseline.dir");
+            System.clearProperty("spark.baseline.ci");
+        }
+
+        final Path file = directory.resolve(IsNotSlowerThanBaselineTest.class.getName()
+                + ".properties");
+        assertTrue(new String(Files.readAllBytes(file)).contains("sum="));
+    }
+
+    @Test
+    void testBaselineStore() throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-baselines").resolve("Test.properties");
+        final BaselineStore store = new BaselineStore(file);
+
+        store.verify("key", new double[] {100, 101, 99, 100, 102, 98}, 0.1, false, true);
+        store.verify("key", new double[] {105, 106, 104, 105, 107, 103}, 0.1, false, true);
+        assertThrows(AssertionError.class, () -> store.verify("key",
+                new double[] {200, 201, 199, 200, 202, 198}, 0.1, false, true));
+
+        // a new baseline is recorded in record mode
+        store.verify("key", new double[] {200, 201, 199, 200, 202, 198}, 0.1, true, false);
+        new BaselineStore(file)
+                .verify("key", new double[] {200, 201, 199, 200, 202, 198}, 0.1, false, false);
+    }
+
+    @Test
+    void testBaselineStoreWhenMissing() throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-baselines").resolve("Test.properties");
+        final BaselineStore store = new BaselineStore(file);
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                store.verify("key", new double[] {100, 101, 99}, 0.1, false, false));
+        assertEquals("Baseline <key> has not been recorded "
+                + "(run with -Dspark.baseline.record=true to record it)", error.getMessage());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testBaselineFileIsStable() throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-baselines").resolve("Test.properties");
+        final BaselineStore store = new BaselineStore(file);
+
+        store.verify("parse.small", new double[] {2, 2, 2}, 0.1, false, true);
+        store.verify("format large", new double[] {3, 3, 3}, 0.1, false, true);
+        store.verify("a=b", new double[] {1, 1, 1}, 0.1, false, true);
+
+        assertEquals("a\\=b=1.0 0.0 3\n"
+                + "format\\ large=3.0 0.0 3\n"
+                + "parse.small=2.0 0.0 3\n",
+                new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1));
+        new BaselineStore(file).verify("format large", new double[] {3, 3, 3}, 0.1, false, false);
+        new BaselineStore(file).verify("a=b", new double[] {1, 1, 1}, 0.1, false, false);
+    }
+
+    @Test
+    void testWelchTest() {
+
+        assertTrue(Statistics.welchTest(110, 4, 30, 100, 4, 30) < 0.001);
+        assertTrue(Statistics.welchTest(100, 4, 30, 110, 4, 30) > 0.999);
+        final double p = Statistics.welchTest(101, 100, 10, 100, 100, 10);
+        assertTrue(p > 0.3 && p < 0.5);
+    }
+
+    private static long sum(final int count) {
+
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += i * (long) i;
+        }
+        return sum;
+    }
+}
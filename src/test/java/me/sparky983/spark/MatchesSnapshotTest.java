@@ -0,0 +1,143 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static me.sparky983.spark.Assertion.doesNotThrow;
+import static me.sparky983.spark.Assertion.matchesSnapshot;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchesSnapshotTest {
+
+    @Test
+    void testMatchesSnapshotWhenArgumentsNull() {
+
+        givenNull(String.class)
+                .when(Assertion::matchesSnapshot)
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(SnapshotSerializer.class)
+                .when((serializer) -> matchesSnapshot("name", serializer))
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testMatchesSnapshot() throws IOException {
+
+        final Path directory = Files.createTempDirectory("spark-snapshots");
+        System.setProperty("spark.snapshot.dir", directory.toString());
+        System.setProperty("spark.snapshot.ci", "false");
+        try {
+            given(matchesSnapshot("snapshot"))
+                    .whenDo((matchesSnapshot) -> matchesSnapshot.doAssertion(() -> "recorded"))
+                    .then(doesNotThrow())
+                    .and(doesNotThrow());
+
+            given(matchesSnapshot("snapshot"))
+                    .whenDo((matchesSnapshot) -> matchesSnapshot.doAssertion(() -> "different"))
+                    .then(throwsException(AssertionError.class));
+
+            System.setProperty("spark.snapshot.ci", "true");
+            given(matchesSnapshot("missing"))
+                    .whenDo((matchesSnapshot) -> matchesSnapshot.doAssertion(() -> "recorded"))
+                    .then(throwsException(AssertionError.class));
+        } finally {
+            System.clearProperty("spark.snapshot.dir");
+            System.clearProperty("spark.snapshot.ci");
+        }
+
+        assertTrue(Files.exists(directory.resolve(MatchesSnapshotTest.class.getName() + ".snap")));
+    }
+
+    @Test
+    void testSnapshotStoreWhenMissing() throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-snapshots").resolve("Test.snap");
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                new SnapshotStore(file).verify("first", bytes("first"), false, false));
+        assertEquals("Snapshot <first> has not been recorded "
+                + "(run with -Dspark.snapshot.update=true to record it)", error.getMessage());
+        assertTrue(!Files.exists(file));
+
+        new SnapshotStore(file).verify("first", bytes("first"), true, false);
+        assertDoesNotThrow(() ->
+                new SnapshotStore(file).verify("first", bytes("first"), false, false));
+    }
+
+    @Test
+    void testSnapshotStore() throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-snapshots").resolve("Test.snap");
+
+        final SnapshotStore store = new SnapshotStore(file);
+        store.verify("first", bytes("line 1\nline 2"), false, true);
+        store.verify("second", bytes("second"), false, true);
+        assertDoesNotThrow(() -> store.verify("first", bytes("line 1\nline 2"), false, true));
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                store.verify("first", bytes("line 1\nline two"), false, true));
+        assertTrue(error.getMessage().contains("line 2: expected <line 2>, found <line two>"));
+
+        final SnapshotStore reopened = new SnapshotStore(file);
+        assertDoesNotThrow(() -> reopened.verify("first", bytes("line 1\nline 2"), false, true));
+        assertDoesNotThrow(() -> reopened.verify("second", bytes("second"), false, true));
+        assertDoesNotThrow(() -> reopened.verify("first", bytes("updated"), true, true));
+
+        final SnapshotStore updated = new SnapshotStore(file);
+        assertDoesNotThrow(() -> updated.verify("first", bytes("updated"), false, true));
+        assertThrows(AssertionError.class, () ->
+                updated.verify("second", bytes("not second"), false, true));
+    }
+
+    @Test
+    void testSnapshotStoreWhenLastRecordTruncated() throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-snapshots").resolve("Test.snap");
+        new SnapshotStore(file).verify("first", bytes("first"), false, true);
+        new SnapshotStore(file).verify("second", bytes("second"), false, true);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        final long size = Files.size(file);
+        final SnapshotStore store = new SnapshotStore(file);
+        assertDoesNotThrow(() -> store.verify("first", bytes("first"), false, true));
+        assertEquals(size, Files.size(file));
+        store.verify("second", bytes("recorded again"), false, true);
+        assertDoesNotThrow(() ->
+                new SnapshotStore(file).verify("second", bytes("recorded again"), false, true));
+    }
+
+    @Test
+    void testSnapshotStoreWhenHashesMatch() throws IOException {
+
+        final Path file = Files.createTempDirectory("spark-snapshots").resolve("Test.snap");
+        new SnapshotStore(file).verify("first", bytes("abc"), false, true);
+        // changes the recorded bytes but not their hash, as a hash collision would
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("x")), channel.size() - 1);
+        }
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                new SnapshotStore(file).verify("first", bytes("abc"), false, true));
+        assertTrue(error.getMessage().contains("expected <abx>, found <abc>"));
+    }
+
+    private static byte[] bytes(final String string) {
+
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,148 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static me.sparky983.spark.Assertion.neverBlocks;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.When.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NeverBlocksTest {
+
+    @Test
+    void testNeverBlocks() {
+
+        when(() -> new StringBuilder("a").append(1).toString())
+                .then(neverBlocks());
+
+        given(new ReentrantLock())
+                .when((lock) -> {
+                    lock.lock();
+                    try {
+                        return lock.isHeldByCurrentThread();
+                    } finally {
+                        lock.unlock();
+                    }
+                })
+                .then(neverBlocks());
+    }
+
+    @Test
+    void testNeverBlocksWhenSleeping() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                when(() -> sleep(20))
+                        .then(neverBlocks()));
+
+        assertTrue(error.getMessage().startsWith(
+                "Expected the when-function never to block, found <1> waits, <0> blocked monitor "
+                        + "entries and <0> blocking I/O samples\n"));
+        assertTrue(error.getMessage().contains("java.lang.Thread.sleep("));
+    }
+
+    @Test
+    void testNeverBlocksWhenWaitingForFuture() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                when(() -> CompletableFuture.supplyAsync(() -> sleep(20)).join())
+                        .then(neverBlocks()));
+
+        assertTrue(error.getMessage().startsWith("Expected the when-function never to block"));
+    }
+
+    @Test
+    void testNeverBlocksWhenReadingSocket() throws IOException {
+
+        try (ServerSocket server = new ServerSocket(0);
+             Socket client = new Socket(server.getInetAddress(), server.getLocalPort());
+             Socket accepted = server.accept()) {
+            final CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+                sleep(50);
+                try {
+                    accepted.getOutputStream().write(1);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            final AssertionError error = assertThrows(AssertionError.class, () ->
+                    given(client)
+                            .when((socket) -> {
+                                try (InputStream in = socket.getInputStream()) {
+                                    return in.read();
+                                } catch (final IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            })
+                            .then(neverBlocks()));
+
+            write.join();
+            assertTrue(error.getMessage().startsWith("Expected the when-function never to block"));
+            assertTrue(!error.getMessage().contains("(no stack trace was sampled)"));
+        }
+    }
+
+    @Test
+    void testNeverBlocksWhenReadingFileChannel() throws Exception {
+
+        final Path directory = Files.createTempDirectory("spark");
+        final Path fifo = directory.resolve("fifo");
+        new ProcessBuilder("mkfifo", fifo.toString()).start().waitFor();
+        try {
+            // opening either end of a fifo blocks until the other end is opened
+            final CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+                try (OutputStream out = Files.newOutputStream(fifo)) {
+                    sleep(50);
+                    out.write(1);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            try (FileChannel channel = FileChannel.open(fifo, StandardOpenOption.READ)) {
+                final AssertionError error = assertThrows(AssertionError.class, () ->
+                        given(channel)
+                                .when((c) -> {
+                                    try {
+                                        return c.read(ByteBuffer.allocate(1));
+                                    } catch (final IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+                                })
+                                .then(neverBlocks()));
+
+                write.join();
+                assertTrue(!error.getMessage().contains("<0> blocking I/O samples"));
+                assertTrue(error.getMessage().contains("Dispatcher"));
+            }
+        } finally {
+            Files.delete(fifo);
+            Files.delete(directory);
+        }
+    }
+
+    private static boolean sleep(final long millis) {
+
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static me.sparky983.spark.Assertion.isLazy;
+import static me.sparky983.spark.Assertion.pullsAtMost;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static me.sparky983.spark.When.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PullsAtMostTest {
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        givenNull(Consumer.class)
+                .when((consumer) -> pullsAtMost(1, consumer))
+                .then(throwsException(NullPointerException.class));
+
+        given(-1L)
+                .when((maximum) -> pullsAtMost(maximum, (result) -> { }))
+                .then(throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    void testPullsAtMost() {
+
+        when(() -> Stream.iterate(0, (i) -> i + 1).map((i) -> i * 2))
+                .then(pullsAtMost(1, Stream::findFirst))
+                .and(pullsAtMost(3, (stream) -> stream.filter((i) -> i == 4).findAny()));
+
+        when(() -> IntStream.range(0, 100))
+                .then(pullsAtMost(10, (stream) -> stream.limit(10).sum()));
+
+        given(Arrays.asList("a", "b", "c"))
+                .when(List::iterator)
+                .then(pullsAtMost(1, Iterator::next));
+
+        given(Arrays.asList("a", "b", "c"))
+                .when(List::spliterator)
+                .then(pullsAtMost(1, (spliterator) -> spliterator.tryAdvance((e) -> { })));
+    }
+
+    @Test
+    void testPullsAtMostWhenExceeded() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(Arrays.asList("a", "b", "c"))
+                        .when(List::stream)
+                        .then(pullsAtMost(1, (stream) -> stream.collect(Collectors.toList()))));
+
+        assertEquals("Expected at most <1> elements to be pulled, found <3>", error.getMessage());
+
+        assertThrows(AssertionError.class, () ->
+                given(Arrays.asList("a", "b", "c"))
+                        .when(List::spliterator)
+                        .then(pullsAtMost(2, (spliterator) ->
+                                spliterator.forEachRemaining((e) -> { }))));
+    }
+
+    @Test
+    void testPullsAtMostWhenNotLazyType() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                given(Arrays.asList("a", "b"))
+                        .noop()
+                        .then(pullsAtMost(1, (list) -> { })));
+
+        assertEquals("Expected <[a, b]> to be an Iterator or Spliterator of objects, or a Stream",
+                error.getMessage());
+    }
+
+    @Test
+    void testIsLazy() {
+
+        when(() -> IntStream.range(0, 10_000).mapToObj((i) -> new long[] {i}))
+                .then(isLazy());
+
+        when(() -> Stream.iterate(new long[] {0}, (i) -> new long[] {i[0] + 1}))
+                .then(isLazy());
+    }
+
+    @Test
+    void testIsLazyWhenEager() {
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                when(() -> IntStream.range(0, 10_000)
+                        .mapToObj((i) -> new long[] {i})
+                        .collect(Collectors.toList())
+                        .stream())
+                        .then(isLazy()));
+
+        assertTrue(error.getMessage().startsWith("Expected the result to be lazy, but creating "
+                + "it and pulling <1> element allocated <"));
+        assertTrue(error.getMessage().contains("pulling <10000> elements from it allocated <"));
+    }
+
+    @Test
+    void testIsLazyWhenBuffered() throws IOException {
+
+        final Path file = Files.createTempFile("spark", ".txt");
+        try {
+            Files.write(file, Arrays.asList("a", "b", "c", "d", "e"));
+            given(file)
+                    .when((path) -> {
+                        try {
+                            return Files.lines(path);
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .then(isLazy());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testPullsAtMostWhenIteratorSubtype() {
+
+        final CloseableIterator<String> iterator = new CloseableIterator<String>() {
+
+            private final Iterator<String> iterator = Arrays.asList("a", "b").iterator();
+
+            @Override
+            public boolean hasNext() {
+
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+
+            }
+        };
+
+        given(iterator)
+                .noop()
+                .then(pullsAtMost(1, (CloseableIterator<String> result) -> {
+                    result.next();
+                    result.close();
+                }));
+
+        assertThrows(AssertionError.class, () ->
+                given(Arrays.asList("a", "b", "c").iterator())
+                        .noop()
+                        .then(pullsAtMost(2, (result) -> result.forEachRemaining((e) -> { }))));
+    }
+
+    @Test
+    void testIsLazyWhenSpliterator() {
+
+        given(Arrays.asList("a", "b", "c"))
+                .when(List::spliterator)
+                .then(isLazy());
+    }
+
+    private interface CloseableIterator<E> extends Iterator<E>, AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,159 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static me.sparky983.spark.Assertion.allocationScalesAtMost;
+import static me.sparky983.spark.Assertion.isEqualTo;
+import static me.sparky983.spark.Assertion.scalesAtMost;
+import static me.sparky983.spark.Assertion.throwsException;
+import static me.sparky983.spark.Given.given;
+import static me.sparky983.spark.Given.givenNull;
+import static me.sparky983.spark.Given.sized;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalesAtMostTest {
+
+    @Test
+    void testWhenArgumentsInvalid() {
+
+        givenNull(IntFunction.class)
+                .when((generator) -> sized(generator, 1, 2, 3))
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(int[].class)
+                .when((sizes) -> sized((n) -> n, sizes))
+                .then(throwsException(NullPointerException.class));
+
+        given(new int[] {1, 2, 2})
+                .when((sizes) -> sized((n) -> n, sizes))
+                .then(throwsException(IllegalArgumentException.class));
+
+        given(new int[] {0, 1, 2})
+                .when((sizes) -> sized((n) -> n, sizes))
+                .then(throwsException(IllegalArgumentException.class));
+
+        givenNull(Complexity.class)
+                .when(Assertion::scalesAtMost)
+                .then(throwsException(NullPointerException.class));
+
+        givenNull(Complexity.class)
+                .when(Assertion::allocationScalesAtMost)
+                .then(throwsException(NullPointerException.class));
+    }
+
+    @Test
+    void testScalesAtMostWhenNotSized() {
+
+        assertThrows(IllegalStateException.class, () ->
+                given(1)
+                        .noop()
+                        .then(scalesAtMost(Complexity.N)));
+    }
+
+    @Test
+    void testOtherAssertionsUseLargestSize() {
+
+        sized((n) -> n, 30, 10, 20)
+                .noop()
+                .then(isEqualTo(30));
+    }
+
+    @Test
+    void testAllocationScalesAtMost() {
+
+        sized((n) -> n, 1_000, 10_000, 100_000, 1_000_000)
+                .when((n) -> new int[n])
+                .then(allocationScalesAtMost(Complexity.N))
+                .and(allocationScalesAtMost(Complexity.N_SQUARED));
+
+        sized((n) -> n, 1_000, 10_000, 100_000, 1_000_000)
+                .when((n) -> n)
+                .then(allocationScalesAtMost(Complexity.O_1));
+
+        final AssertionError error = assertThrows(AssertionError.class, () ->
+                sized((n) -> n, 1_000, 10_000, 100_000, 1_000_000)
+                        .when((n) -> new int[n])
+                        .then(allocationScalesAtMost(Complexity.LOG_N)));
+        assertTrue(error.getMessage().startsWith(
+                "Expected allocation to scale at most as O(log n), found O(n)"));
+    }
+
+    @Test
+    void testScalesAtMost() {
+
+        sized((n) -> n, 100, 200, 400, 800)
+                .when(ScalesAtMostTest::quadratic)
+                .then(scalesAtMost(Complexity.N_SQUARED));
+
+        assertThrows(AssertionError.class, () ->
+                sized((n) -> n, 100, 200, 400, 800)
+                        .when(ScalesAtMostTest::quadratic)
+                        .then(scalesAtMost(Complexity.N)));
+    }
+
+    @Test
+    void testScalesAtMostWhenInputModified() {
+
+        final Random random = new Random(0);
+        final AtomicInteger reused = new AtomicInteger();
+
+        sized((n) -> random.ints(n).toArray(), 100, 200, 400, 800)
+                .when((array) -> {
+                    if (isSorted(array)) {
+                        reused.incrementAndGet();
+                    }
+                    return insertionSort(array);
+                })
+                .then(scalesAtMost(Complexity.N_SQUARED))
+                .and(allocationScalesAtMost(Complexity.O_1));
+
+        // an already sorted input would make the sort look linear
+        assertThrows(AssertionError.class, () ->
+                sized((n) -> random.ints(n).toArray(), 100, 200, 400, 800)
+                        .when(ScalesAtMostTest::insertionSort)
+                        .then(scalesAtMost(Complexity.N)));
+
+        assertEquals(0, reused.get());
+    }
+
+    private static int[] insertionSort(final int[] array) {
+
+        for (int i = 1; i < array.length; i++) {
+            final int key = array[i];
+            int j = i - 1;
+            while (j >= 0 && array[j] > key) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = key;
+        }
+        return array;
+    }
+
+    private static boolean isSorted(final int[] array) {
+
+        for (int i = 1; i < array.length; i++) {
+            if (array[i - 1] > array[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long quadratic(final int n) {
+
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                sum += i ^ j;
+            }
+        }
+        return sum;
+    }
+}
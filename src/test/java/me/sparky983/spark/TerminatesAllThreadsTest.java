@@ -0,0 +1,62 @@
+package me.sparky983.spark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static me.sparky983.spark.Assertion.terminatesAllThreads;
+import static me.sparky983.spark.When.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerminatesAllThreadsTest {
+
+    @Test
+    void testTerminatesAllThreads() {
+
+        when(() -> {
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                return executor.submit(() -> 1).get();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                executor.shutdown();
+            }
+        })
+                .then(terminatesAllThreads());
+
+        when(() -> CompletableFuture.supplyAsync(() -> 1).join())
+                .then(terminatesAllThreads());
+    }
+
+    @Test
+    void testTerminatesAllThreadsWhenLeaked() throws InterruptedException {
+
+        final CountDownLatch stop = new CountDownLatch(1);
+        try {
+            final AssertionError error = assertThrows(AssertionError.class, () ->
+                    when(() -> {
+                        final Thread thread = new Thread(() -> {
+                            try {
+                                stop.await();
+                            } catch (final InterruptedException ignored) {
+                            }
+                        }, "leaked-worker");
+                        thread.start();
+                        return thread;
+                    })
+                            .then(terminatesAllThreads()));
+
+            assertTrue(error.getMessage().startsWith(
+                    "Expected all threads to be terminated, found <1> running threads:\n"
+                            + "\"leaked-worker\" WAITING"));
+            assertTrue(error.getMessage().contains("\n\tat "));
+        } finally {
+            stop.countDown();
+        }
+    }
+}